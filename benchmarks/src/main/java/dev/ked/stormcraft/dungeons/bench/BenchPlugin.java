@@ -0,0 +1,22 @@
+package dev.ked.stormcraft.dungeons.bench;
+
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+
+/**
+ * A plugin instance outside a plugin class loader, through Bukkit's unit-testing constructor.
+ * Its data folder is a scratch directory; the bundled config.yml is read from the classpath.
+ */
+public final class BenchPlugin extends JavaPlugin {
+
+    @SuppressWarnings({"deprecation", "removal"})
+    public BenchPlugin(File dataFolder) {
+        super(new JavaPluginLoader(Stubs.installServer()),
+              new PluginDescriptionFile("Stormcraft-Dungeons", "bench", BenchPlugin.class.getName()),
+              dataFolder, new File(dataFolder, "plugin.jar"));
+        setEnabled(true);
+    }
+}
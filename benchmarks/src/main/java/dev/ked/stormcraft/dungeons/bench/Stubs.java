@@ -0,0 +1,236 @@
+package dev.ked.stormcraft.dungeons.bench;
+
+import dev.ked.stormcraft.StormcraftPlugin;
+import dev.ked.stormcraft.dungeons.integration.StormcraftIntegration;
+import dev.ked.stormcraft.model.StormProfile;
+import dev.ked.stormcraft.model.StormType;
+import dev.ked.stormcraft.model.TravelingStorm;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Just enough of a Bukkit server for the plugin's hot paths to run headless. Interfaces are dynamic
+ * proxies that answer the handful of methods the plugin calls and return zero, empty or null for
+ * everything else; the server tick is driven by the caller.
+ */
+public final class Stubs {
+
+    private static final Logger LOGGER = Logger.getLogger("Stormcraft-Dungeons");
+    private static final AtomicInteger TICK = new AtomicInteger();
+    private static Server server;
+    private static volatile BukkitScheduler scheduler;
+    private static volatile double averageTickTime;
+
+    private Stubs() {
+    }
+
+    /**
+     * Install the stub server as Bukkit's singleton. Idempotent.
+     */
+    public static synchronized Server installServer() {
+        if (server != null) {
+            return server;
+        }
+
+        server = proxy(Server.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getCurrentTick" -> TICK.get();
+            case "getLogger" -> LOGGER;
+            case "getName", "getVersion", "getBukkitVersion", "getMinecraftVersion" -> "stub";
+            case "createBlockData" -> blockData(args[0]);
+            case "getScheduler" -> scheduler;
+            case "getAverageTickTime" -> averageTickTime;
+            default -> defaultValue(method.getReturnType());
+        });
+
+        // Bypass setServer(), which logs build information the stub cannot provide
+        try {
+            Field field = Bukkit.class.getDeclaredField("server");
+            field.setAccessible(true);
+            field.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot install stub server", e);
+        }
+        return server;
+    }
+
+    /**
+     * The scheduler returned by the stub server. Null (the default) for benchmarks that never schedule.
+     */
+    public static void setScheduler(BukkitScheduler replacement) {
+        scheduler = replacement;
+    }
+
+    /**
+     * The MSPT the stub server reports to the load governor.
+     */
+    public static void setAverageTickTime(double mspt) {
+        averageTickTime = mspt;
+    }
+
+    public static int currentTick() {
+        return TICK.get();
+    }
+
+    /**
+     * Advance the server tick, invalidating per-tick caches such as the storm snapshot.
+     */
+    public static int advanceTick() {
+        return TICK.incrementAndGet();
+    }
+
+    /**
+     * A world with every chunk loaded. The UID is derived from the name.
+     */
+    public static World world(String name) {
+        UUID uid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        return proxy(World.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getUID" -> uid;
+            case "getName" -> name;
+            case "isChunkLoaded" -> true;
+            case "getMinHeight" -> -64;
+            case "getMaxHeight" -> 320;
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    /**
+     * A player with every permission, standing wherever its location is moved to.
+     */
+    public static Player player(UUID id, String name, Location location) {
+        return player(id, name, location, permission -> true);
+    }
+
+    /**
+     * A player holding the permissions the predicate accepts, standing wherever its location is moved to.
+     */
+    public static Player player(UUID id, String name, Location location, Predicate<String> permissions) {
+        return proxy(Player.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> id;
+            case "getName" -> name;
+            case "getWorld" -> location.getWorld();
+            case "getLocation" -> args == null ? location.clone() : copyInto(location, (Location) args[0]);
+            case "hasPermission" -> args[0] instanceof String permission ? permissions.test(permission) : true;
+            case "isOnline", "isValid" -> true;
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    /**
+     * A Stormcraft integration serving a fixed, caller-owned storm list.
+     */
+    public static StormcraftIntegration stormcraft(List<TravelingStorm> storms) {
+        return new StormcraftIntegration(null, (StormcraftPlugin) null) {
+            @Override
+            public List<TravelingStorm> getActiveStorms() {
+                return storms;
+            }
+        };
+    }
+
+    /**
+     * A stationary storm at a location.
+     */
+    public static TravelingStorm storm(Location location, int durationSeconds, int remainingSeconds) {
+        return storm(location, location.clone(), 0.0, durationSeconds, remainingSeconds);
+    }
+
+    /**
+     * A storm travelling from a location towards a target at the given speed (blocks per second).
+     */
+    public static TravelingStorm storm(Location location, Location target, double speed,
+                                       int durationSeconds, int remainingSeconds) {
+        StormProfile profile = new StormProfile(StormType.MEDIUM, durationSeconds, durationSeconds, 1.0, 1.0, 1.0,
+                                                0.0, 0.0, 0.0, false, 0, 0.0);
+        TravelingStorm storm = new TravelingStorm(profile, durationSeconds, 1.0, location, target, speed, 200.0, 0);
+        storm.setRemainingSeconds(remainingSeconds);
+        return storm;
+    }
+
+    private static Location copyInto(Location source, Location target) {
+        if (target == null) {
+            return source.clone();
+        }
+        target.setWorld(source.getWorld());
+        target.setX(source.getX());
+        target.setY(source.getY());
+        target.setZ(source.getZ());
+        target.setYaw(source.getYaw());
+        target.setPitch(source.getPitch());
+        return target;
+    }
+
+    private static BlockData blockData(Object spec) {
+        String state = spec instanceof Material material ? material.getKey().toString() : String.valueOf(spec);
+        int bracket = state.indexOf('[');
+        Material material = Material.matchMaterial(bracket < 0 ? state : state.substring(0, bracket));
+        if (material == null) {
+            throw new IllegalArgumentException("Unknown block state " + state);
+        }
+
+        return proxy(BlockData.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getMaterial" -> material;
+            case "getAsString" -> state;
+            case "clone" -> proxy;
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    /**
+     * Wrap a handler so Object methods behave (identity equality) and everything else is delegated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(proxy, method, args, type);
+            }
+            return handler.invoke(proxy, method, args);
+        });
+    }
+
+    private static Object objectMethod(Object proxy, Method method, Object[] args, Class<?> type) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> "Stub" + type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+        };
+    }
+
+    public static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return '\0';
+        if (type == String.class) return "";
+        if (type == List.class || type == Collection.class) return List.of();
+        if (type == Set.class) return Set.of();
+        if (type == Map.class) return Map.of();
+        if (type == Optional.class) return Optional.empty();
+        return null;
+    }
+}
@@ -0,0 +1,132 @@
+package dev.ked.stormcraft.dungeons.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Completion storage at server-population scale: per-player loads (the pre-login path), completion
+ * hand-off (the main-thread path) and opening a populated store (startup).
+ * Every player in the seeded data has completions recorded for all three bundled dungeons.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class CompletionStorageBenchmark {
+
+    private static final String[] DUNGEONS = {"stormcore_depths", "tempest_labyrinth", "storm_sanctum"};
+    private static final Logger LOGGER = Logger.getLogger("Stormcraft-Dungeons");
+    private static final long COMPACTION_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+
+    @Param({"10000", "100000", "1000000"})
+    public int players;
+
+    @Param({"sqlite", "journal"})
+    public String backend;
+
+    private File dataFolder;
+    private CompletionStorage storage;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("dungeons-storage-bench").toFile();
+        writeSnapshot(new File(dataFolder, "playerdata.yml"), players);
+
+        // The first sqlite open imports the snapshot, so the measured opens below read the database
+        storage = open();
+        random = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        try (Stream<Path> paths = Files.walk(dataFolder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private CompletionStorage open() throws IOException {
+        CompletionStorage opened = "journal".equals(backend)
+            ? new JournalCompletionStorage(dataFolder, LOGGER, COMPACTION_INTERVAL)
+            : new SqliteCompletionStorage(dataFolder, LOGGER, COMPACTION_INTERVAL);
+        opened.open();
+        return opened;
+    }
+
+    private UUID randomPlayer() {
+        return new UUID(0, random.nextInt(players));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public Map<String, Integer> loadPlayer() throws IOException {
+        return storage.loadPlayer(randomPlayer());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void recordCompletion() {
+        storage.recordCompletion(randomPlayer(), DUNGEONS[random.nextInt(DUNGEONS.length)]);
+    }
+
+    /**
+     * Open and close a second handle on the populated store. The journal backend reads the whole
+     * snapshot into memory here; sqlite only opens the database.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public void openAndClose() throws IOException {
+        storage.close();
+        storage = open();
+    }
+
+    /**
+     * A playerdata.yml snapshot in the format {@link CompletionJournal} writes, streamed out directly
+     * since building a million-player YAML tree in memory would dominate setup.
+     */
+    private static void writeSnapshot(File file, int players) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("journal_generation: 0\n");
+            writer.write("completions:\n");
+            for (int i = 0; i < players; i++) {
+                writer.write("  " + new UUID(0, i) + ":\n");
+                for (int d = 0; d < DUNGEONS.length; d++) {
+                    writer.write("    " + DUNGEONS[d] + ": " + (1 + (i + d) % 7) + "\n");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.ked.stormcraft.dungeons.portal;
+
+import dev.ked.stormcraft.dungeons.bench.Stubs;
+import dev.ked.stormcraft.dungeons.config.PortalStructure;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block-to-portal lookups as done by every block break, physics and interact event near portals.
+ * Half the probes hit a portal block, half miss.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortalBlockLookupBenchmark {
+
+    private static final int PROBES = 4096;
+
+    @Param({"1", "10", "100", "500"})
+    public int portals;
+
+    private PortalBlockIndex index;
+    private UUID worldId;
+    private long[] hits;
+    private long[] misses;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Stubs.installServer();
+        World world = Stubs.world("world");
+        worldId = world.getUID();
+        PortalStructure structure = PortalStructure.defaultFrame();
+        SplittableRandom random = new SplittableRandom(42);
+
+        index = new PortalBlockIndex();
+        Portal[] placed = new Portal[portals];
+        for (int i = 0; i < portals; i++) {
+            Location anchor = new Location(world, random.nextInt(-5000, 5000), random.nextInt(60, 120), random.nextInt(-5000, 5000));
+            placed[i] = new Portal("frost_caverns", null, anchor, structure);
+            index.add(placed[i]);
+        }
+
+        hits = new long[PROBES];
+        misses = new long[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            long[] footprint = placed[random.nextInt(portals)].getFootprint();
+            hits[i] = footprint[random.nextInt(footprint.length)];
+            misses[i] = BlockKey.pack(random.nextInt(-5000, 5000), random.nextInt(-64, 0), random.nextInt(-5000, 5000));
+        }
+    }
+
+    @Benchmark
+    public Portal hit() {
+        cursor = (cursor + 1) & (PROBES - 1);
+        return index.get(worldId, hits[cursor]);
+    }
+
+    @Benchmark
+    public Portal miss() {
+        cursor = (cursor + 1) & (PROBES - 1);
+        return index.get(worldId, misses[cursor]);
+    }
+}
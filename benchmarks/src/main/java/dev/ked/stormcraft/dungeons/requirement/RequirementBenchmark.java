@@ -0,0 +1,127 @@
+package dev.ked.stormcraft.dungeons.requirement;
+
+import dev.ked.stormcraft.dungeons.bench.BenchPlugin;
+import dev.ked.stormcraft.dungeons.bench.Stubs;
+import dev.ked.stormcraft.dungeons.config.ConfigManager;
+import dev.ked.stormcraft.dungeons.data.DataManager;
+import dev.ked.stormcraft.dungeons.portal.Portal;
+import dev.ked.stormcraft.dungeons.storm.StormTracker;
+import dev.ked.stormcraft.dungeons.storm.TrackedStorm;
+import dev.ked.stormcraft.model.TravelingStorm;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Requirement evaluation against the bundled config.yml dungeons: the full cost-ordered plan,
+ * the volatile re-check, and the cached path a portal click normally takes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequirementBenchmark {
+
+    private static final int PLAYERS = 256;
+
+    @Param({"stormcore_depths", "tempest_labyrinth", "storm_sanctum"})
+    public String dungeon;
+
+    private File dataFolder;
+    private DataManager dataManager;
+    private RequirementChecker checker;
+    private RequirementPlan plan;
+    private Portal portal;
+    private Player[] players;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("dungeons-bench").toFile();
+        BenchPlugin plugin = new BenchPlugin(dataFolder);
+        ConfigManager configManager = new ConfigManager(plugin);
+        configManager.loadConfigs();
+
+        dataManager = new DataManager(plugin, configManager);
+        dataManager.loadData();
+
+        World world = Stubs.world("world");
+        Location stormCenter = new Location(world, 0, 80, 0);
+        List<TravelingStorm> storms = List.of(Stubs.storm(stormCenter, 1200, 600));
+        StormTracker stormTracker = new StormTracker(Stubs.stormcraft(storms));
+        TrackedStorm storm = stormTracker.getStorms().get(0);
+
+        checker = new RequirementChecker(plugin, configManager, stormTracker, null, dataManager, null);
+        plan = checker.getPlan(dungeon);
+        portal = new Portal(dungeon, storm, new Location(world, 60, 80, 0),
+                            configManager.getDungeon(dungeon).structure());
+
+        // Half the players meet the completion requirements, all stand near the storm
+        players = new Player[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            UUID id = new UUID(0, i);
+            players[i] = Stubs.player(id, "player" + i, new Location(world, i % 50, 80, i / 50));
+            dataManager.loadPlayer(id);
+            if ((i & 1) == 0) {
+                for (int completion = 0; completion < 5; completion++) {
+                    dataManager.incrementCompletion(id, "stormcore_depths");
+                    dataManager.incrementCompletion(id, "tempest_labyrinth");
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dataManager.saveData();
+        try (Stream<java.nio.file.Path> paths = Files.walk(dataFolder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private Player nextPlayer() {
+        cursor = (cursor + 1) & (PLAYERS - 1);
+        return players[cursor];
+    }
+
+    @Benchmark
+    public RequirementResult evaluatePlan() {
+        return plan.evaluate(nextPlayer(), portal);
+    }
+
+    @Benchmark
+    public long volatileMask() {
+        return plan.volatileMask(nextPlayer(), portal);
+    }
+
+    /**
+     * The click path: mostly answered from the result cache.
+     */
+    @Benchmark
+    public RequirementResult checkRequirements() {
+        return checker.checkRequirements(nextPlayer(), portal);
+    }
+}
@@ -0,0 +1,708 @@
+package dev.ked.stormcraft.dungeons.sim;
+
+import dev.ked.stormcraft.dungeons.bench.BenchPlugin;
+import dev.ked.stormcraft.dungeons.bench.Stubs;
+import dev.ked.stormcraft.dungeons.config.ConfigManager;
+import dev.ked.stormcraft.dungeons.config.PortalStructure;
+import dev.ked.stormcraft.dungeons.data.DataManager;
+import dev.ked.stormcraft.dungeons.entry.EntryQueue;
+import dev.ked.stormcraft.dungeons.integration.MythicDungeonsIntegration;
+import dev.ked.stormcraft.dungeons.integration.StormcraftIntegration;
+import dev.ked.stormcraft.dungeons.listener.PlayerTrackingListener;
+import dev.ked.stormcraft.dungeons.listener.PortalInteractListener;
+import dev.ked.stormcraft.dungeons.load.LoadGovernor;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
+import dev.ked.stormcraft.dungeons.portal.Portal;
+import dev.ked.stormcraft.dungeons.portal.PortalManager;
+import dev.ked.stormcraft.dungeons.requirement.RequirementChecker;
+import dev.ked.stormcraft.dungeons.reward.RewardManager;
+import dev.ked.stormcraft.dungeons.spatial.SpatialGrid;
+import dev.ked.stormcraft.dungeons.storm.StormTracker;
+import dev.ked.stormcraft.model.TravelingStorm;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Headless load simulation of the portal lifecycle at server scale. The real {@link PortalManager},
+ * {@link PortalInteractListener}, {@link PlayerTrackingListener} and {@link RewardManager} run against a
+ * stubbed server: storms drift and expire, players wander, head for portals, click them, spend a while
+ * in the dungeon and complete it.
+ *
+ * Each tick has two halves. The driver decides what players and storms do and builds the events, which
+ * is not measured; then the scheduler tick and the plugin's handlers for those events run, which is.
+ * Reported per-tick time and allocation therefore cover the plugin's main-thread work only, plus
+ * allocation on the async pool (site searches, storage reads).
+ *
+ * java -cp benchmarks/target/benchmarks.jar dev.ked.stormcraft.dungeons.sim.LoadSimulation --players 500
+ */
+public final class LoadSimulation {
+
+    private static final String BYPASS_PERMISSION = "stormcraft.dungeons.bypass";
+    private static final double WALK_SPEED = 0.2; // Blocks per tick
+    private static final double SPRINT_SPEED = 0.28;
+    private static final double SEEK_RANGE = 300;
+    private static final double CLICK_RANGE = 3;
+    private static final double NEAR_STORM_SHARE = 0.6; // Players who start within reach of a storm
+    private static final int CLICK_INTERVAL = 10; // Ticks between clicks while at a portal
+    private static final int MAX_ATTEMPTS = 3; // Clicks without getting in before giving up on a portal
+    private static final int SEEK_COOLDOWN = 600; // Ticks before a refused player tries again
+    private static final int MSPT_WINDOW = 100; // Ticks averaged for the load governor, as the server does
+    private static final long TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private enum State {
+        WANDER,
+        SEEK,
+        IN_DUNGEON
+    }
+
+    private static final class SimPlayer {
+
+        private final Player player;
+        private final Location location; // Live; the stub player reports wherever this is
+        private State state = State.WANDER;
+        private double heading;
+        private Portal target;
+        private int attempts;
+        private long nextClickTick;
+        private long seekAfterTick;
+        private long leaveTick;
+        private String dungeon;
+
+        private SimPlayer(Player player, Location location, double heading) {
+            this.player = player;
+            this.location = location;
+            this.heading = heading;
+        }
+    }
+
+    /**
+     * Stands in for MythicDungeons: every player whose entry is accepted goes into the dungeon.
+     */
+    private static final class SimDungeons extends MythicDungeonsIntegration {
+
+        private final Map<Player, String> entered;
+
+        private SimDungeons(JavaPlugin plugin, Map<Player, String> entered) {
+            super(plugin);
+            this.entered = entered;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void openDungeonGUI(Player player, String dungeonName) {
+            entered.put(player, dungeonName);
+        }
+    }
+
+    private final SimOptions options;
+    private final SplittableRandom random;
+    private final com.sun.management.ThreadMXBean threads;
+
+    private File dataFolder;
+    private SimScheduler scheduler;
+    private SimWorld world;
+    private SimWorld dungeonWorld;
+    private ConfigManager configManager;
+    private DataManager dataManager;
+    private LoadGovernor loadGovernor;
+    private PortalManager portalManager;
+    private EntryQueue entryQueue;
+    private PortalInteractListener interactListener;
+    private PlayerTrackingListener trackingListener;
+    private RewardManager rewardManager;
+
+    private final List<TravelingStorm> storms = new ArrayList<>();
+    private final List<SimPlayer> players = new ArrayList<>();
+    private final Map<Player, String> entered = new IdentityHashMap<>();
+    private final Map<Player, SimPlayer> byPlayer = new IdentityHashMap<>();
+
+    // Built by the driver, dispatched in the measured half of the tick
+    private final List<PlayerMoveEvent> moves = new ArrayList<>();
+    private final List<PlayerInteractEvent> clicks = new ArrayList<>();
+    private final List<SimPlayer> clickers = new ArrayList<>();
+    private final List<SimPlayer> completions = new ArrayList<>();
+    private boolean stormEnded;
+    private boolean stormStarted;
+
+    // Results
+    private final TickSeries tickNanos;
+    private final TickSeries tickBytes;
+    private final TickSeries activePortals;
+    private final long[] recentNanos = new long[MSPT_WINDOW];
+    private final Set<UUID> portalsSeen = new HashSet<>();
+    private final Map<Long, Long> asyncBaseline = new HashMap<>();
+    private long moveCount;
+    private long clickCount;
+    private long entryCount;
+    private long completionCount;
+    private long stormsEndedCount;
+    private long stormsStartedCount;
+    private long asyncBytes;
+    private long wallNanos;
+    private int blocksLeft;
+
+    private LoadSimulation(SimOptions options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.seed());
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.tickNanos = new TickSeries(options.ticks());
+        this.tickBytes = new TickSeries(options.ticks());
+        this.activePortals = new TickSeries(options.ticks());
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (List.of(args).contains("--help")) {
+            System.out.println("Usage: LoadSimulation [options]");
+            System.out.print(SimOptions.USAGE);
+            return;
+        }
+
+        SimOptions options;
+        try {
+            options = SimOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(SimOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        LoadSimulation simulation = new LoadSimulation(options);
+        try {
+            simulation.setUp();
+            simulation.run();
+        } finally {
+            simulation.tearDown();
+        }
+
+        simulation.report(System.out);
+        if (options.csv() != null) {
+            simulation.writeCsv(options.csv());
+        }
+    }
+
+    private void setUp() throws IOException {
+        if (threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        dataFolder = Files.createTempDirectory("dungeons-sim").toFile();
+        scheduler = new SimScheduler(2);
+        Stubs.installServer();
+        Stubs.setScheduler(scheduler.asBukkitScheduler());
+        Stubs.setAverageTickTime(options.baseMspt());
+
+        BenchPlugin plugin = new BenchPlugin(dataFolder);
+        plugin.getLogger().setLevel(Level.WARNING); // Per-portal info lines would drown the report
+        writeConfig(plugin);
+        configManager = new ConfigManager(plugin);
+        configManager.loadConfigs();
+
+        world = new SimWorld("world");
+        dungeonWorld = new SimWorld("dungeons");
+        for (int i = 0; i < options.storms(); i++) {
+            storms.add(newStorm(true));
+        }
+        StormcraftIntegration stormcraft = Stubs.stormcraft(storms);
+        StormTracker stormTracker = new StormTracker(stormcraft);
+
+        dataManager = new DataManager(plugin, configManager);
+        dataManager.loadData();
+        RequirementChecker requirementChecker =
+            new RequirementChecker(plugin, configManager, stormTracker, null, dataManager, null);
+
+        SpatialGrid<Player> playerGrid = new SpatialGrid<>((player, scratch) -> player.getLocation(scratch));
+        loadGovernor = new LoadGovernor(plugin, configManager);
+        portalManager = new PortalManager(plugin, configManager, stormcraft, stormTracker,
+                                          requirementChecker, playerGrid, loadGovernor);
+        entryQueue = new EntryQueue(plugin, configManager, requirementChecker, new SimDungeons(plugin, entered));
+        interactListener = new PortalInteractListener(plugin, portalManager, requirementChecker, entryQueue);
+        trackingListener = new PlayerTrackingListener(playerGrid);
+        rewardManager = new RewardManager(plugin, configManager, null, dataManager, null);
+
+        for (int i = 0; i < options.players(); i++) {
+            UUID id = new UUID(0x5157L, i);
+            Location location = spawnLocation();
+            Player player = Stubs.player(id, "sim" + i, location, permission -> !permission.equals(BYPASS_PERMISSION));
+            dataManager.loadPlayer(id);
+            playerGrid.update(player, location);
+            SimPlayer sim = new SimPlayer(player, location, random.nextDouble() * 2 * Math.PI);
+            players.add(sim);
+            byPlayer.put(player, sim);
+        }
+
+        rewardManager.start();
+        loadGovernor.start();
+        portalManager.start();
+    }
+
+    /**
+     * The bundled config.yml with the simulation's overrides, written where saveDefaultConfig() will find it.
+     */
+    private void writeConfig(JavaPlugin plugin) throws IOException {
+        YamlConfiguration config;
+        try (InputStream in = plugin.getResource("config.yml");
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            config = YamlConfiguration.loadConfiguration(reader);
+        }
+
+        config.set("storms.max_portals", options.maxPortals());
+        config.set("storage.type", options.storage());
+        config.set("metrics.export_enabled", false);
+        config.save(new File(dataFolder, "config.yml"));
+    }
+
+    private void run() {
+        int totalTicks = options.warmupTicks() + options.ticks();
+        long wallStart = System.nanoTime();
+        long measureStart = wallStart;
+
+        for (int i = 1; i <= totalTicks; i++) {
+            long tick = Stubs.advanceTick();
+            boolean measured = i > options.warmupTicks();
+            if (i == options.warmupTicks() + 1) {
+                measureStart = System.nanoTime();
+                snapshotAsyncThreads(asyncBaseline);
+            }
+
+            drive(tick);
+
+            long startBytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            dispatch(tick);
+            long nanos = System.nanoTime() - start;
+            long bytes = threads.getCurrentThreadAllocatedBytes() - startBytes;
+
+            settle(tick);
+            recentNanos[i % MSPT_WINDOW] = nanos;
+            if (i % 20 == 0) {
+                Stubs.setAverageTickTime(options.baseMspt() + averageRecentMillis());
+            }
+
+            if (measured) {
+                record(tick, nanos, bytes);
+            }
+
+            if (options.realtime()) {
+                long deadline = wallStart + i * TICK_BUDGET_NANOS;
+                long wait = deadline - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+        }
+
+        wallNanos = System.nanoTime() - measureStart;
+        Map<Long, Long> end = new HashMap<>();
+        snapshotAsyncThreads(end);
+        for (Map.Entry<Long, Long> entry : end.entrySet()) {
+            asyncBytes += entry.getValue() - asyncBaseline.getOrDefault(entry.getKey(), 0L);
+        }
+    }
+
+    /**
+     * Unmeasured: advance storms and players and build this tick's events.
+     */
+    private void drive(long tick) {
+        if (tick % 20 == 0) {
+            advanceStorms();
+        }
+
+        for (int i = 0; i < players.size(); i++) {
+            SimPlayer sim = players.get(i);
+            switch (sim.state) {
+                case WANDER -> wander(sim, tick, (tick + i) % 20 == 0);
+                case SEEK -> seek(sim, tick);
+                case IN_DUNGEON -> {
+                    if (tick >= sim.leaveTick) {
+                        completions.add(sim);
+                        teleport(sim, spawnLocation());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Measured: what the server would run on the main thread this tick.
+     */
+    private void dispatch(long tick) {
+        if (stormEnded) {
+            portalManager.onStormEnded();
+        }
+        if (stormStarted) {
+            portalManager.onStormStarted();
+        }
+
+        scheduler.runTick(tick);
+
+        for (int i = 0; i < moves.size(); i++) {
+            trackingListener.onMove(moves.get(i));
+        }
+        for (int i = 0; i < clicks.size(); i++) {
+            interactListener.onPortalInteract(clicks.get(i));
+        }
+        for (int i = 0; i < completions.size(); i++) {
+            SimPlayer sim = completions.get(i);
+            rewardManager.settle(sim.player.getName() + '@' + sim.leaveTick, sim.player, sim.dungeon);
+        }
+    }
+
+    /**
+     * Unmeasured: react to what the plugin decided and clear the tick's events.
+     */
+    private void settle(long tick) {
+        moveCount += moves.size();
+        clickCount += clicks.size();
+        completionCount += completions.size();
+        moves.clear();
+        clicks.clear();
+
+        // The entry queue admits players on a later tick than their click
+        for (Map.Entry<Player, String> entry : entered.entrySet()) {
+            SimPlayer sim = byPlayer.get(entry.getKey());
+            entryCount++;
+            sim.state = State.IN_DUNGEON;
+            sim.dungeon = entry.getValue();
+            sim.target = null;
+            long stay = options.dungeonSeconds() * 20L;
+            sim.leaveTick = tick + stay / 2 + random.nextLong(stay + 1);
+            teleport(sim, new Location(dungeonWorld.world(), 0, SimWorld.GROUND_Y + 1, 0)); // Dispatched next tick
+        }
+
+        for (int i = 0; i < clickers.size(); i++) {
+            SimPlayer sim = clickers.get(i);
+            if (sim.state == State.SEEK && ++sim.attempts >= MAX_ATTEMPTS) {
+                sim.state = State.WANDER;
+                sim.target = null;
+                sim.seekAfterTick = tick + SEEK_COOLDOWN;
+            }
+        }
+        clickers.clear();
+        entered.clear();
+
+        for (int i = 0; i < completions.size(); i++) {
+            SimPlayer sim = completions.get(i);
+            sim.state = State.WANDER;
+            sim.dungeon = null;
+        }
+        completions.clear();
+
+        stormEnded = false;
+        stormStarted = false;
+    }
+
+    private void record(long tick, long nanos, long bytes) {
+        tickNanos.add(nanos);
+        tickBytes.add(bytes);
+        activePortals.add(portalManager.getActivePortals().size());
+        if (tick % 20 == 0) {
+            for (Portal portal : portalManager.getActivePortals()) {
+                portalsSeen.add(portal.getId());
+            }
+        }
+    }
+
+    private void advanceStorms() {
+        Iterator<TravelingStorm> iterator = storms.iterator();
+        while (iterator.hasNext()) {
+            TravelingStorm storm = iterator.next();
+            storm.decrementRemaining(1);
+            if (storm.isExpired()) {
+                iterator.remove();
+                stormEnded = true;
+                stormsEndedCount++;
+                continue;
+            }
+
+            storm.move(1.0);
+            if (storm.hasReachedTarget()) {
+                storm.setTargetLocation(randomLocation());
+            }
+        }
+
+        while (storms.size() < options.storms()) {
+            storms.add(newStorm(false));
+            stormStarted = true;
+            stormsStartedCount++;
+        }
+    }
+
+    private void wander(SimPlayer sim, long tick, boolean decide) {
+        sim.heading += (random.nextDouble() - 0.5) * 0.3;
+        double dx = Math.cos(sim.heading) * WALK_SPEED;
+        double dz = Math.sin(sim.heading) * WALK_SPEED;
+        double half = options.worldSize() / 2.0;
+        if (Math.abs(sim.location.getX() + dx) > half || Math.abs(sim.location.getZ() + dz) > half) {
+            sim.heading += Math.PI;
+            dx = -dx;
+            dz = -dz;
+        }
+        walk(sim, dx, dz);
+
+        if (decide && tick >= sim.seekAfterTick && random.nextDouble() < options.seekChance()) {
+            Portal portal = nearestBuiltPortal(sim.location);
+            if (portal != null) {
+                sim.state = State.SEEK;
+                sim.target = portal;
+                sim.attempts = 0;
+            }
+        }
+    }
+
+    private void seek(SimPlayer sim, long tick) {
+        Portal portal = sim.target;
+        if (!portal.isActive()) {
+            sim.state = State.WANDER;
+            sim.target = null;
+            return;
+        }
+
+        Location goal = portal.getLocation();
+        double dx = goal.getX() - sim.location.getX();
+        double dz = goal.getZ() - sim.location.getZ();
+        double distance = Math.sqrt(dx * dx + dz * dz);
+        if (distance > CLICK_RANGE) {
+            double step = Math.min(SPRINT_SPEED, distance - CLICK_RANGE + 0.1);
+            walk(sim, dx / distance * step, dz / distance * step);
+            return;
+        }
+
+        if (tick >= sim.nextClickTick) {
+            sim.nextClickTick = tick + CLICK_INTERVAL;
+            clicks.add(new PlayerInteractEvent(sim.player, Action.RIGHT_CLICK_BLOCK, null,
+                                               portalBlock(portal), BlockFace.NORTH));
+            clickers.add(sim);
+        }
+    }
+
+    private Portal nearestBuiltPortal(Location location) {
+        Portal nearest = null;
+        double nearestDistance = SEEK_RANGE * SEEK_RANGE;
+        for (Portal portal : portalManager.getActivePortals()) {
+            if (!portal.isBuilt()) {
+                continue;
+            }
+            double distance = portal.getLocation().distanceSquared(location);
+            if (distance < nearestDistance) {
+                nearest = portal;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * The structure's first nether portal block, which is what players click.
+     */
+    private Block portalBlock(Portal portal) {
+        PortalStructure structure = portal.getStructure();
+        int index = 0;
+        for (int i = 0; i < structure.size(); i++) {
+            if (structure.material(i) == Material.NETHER_PORTAL) {
+                index = i;
+                break;
+            }
+        }
+
+        Location anchor = portal.getLocation();
+        return world.world().getBlockAt(anchor.getBlockX() + structure.dx(index),
+                                        anchor.getBlockY() + structure.dy(index),
+                                        anchor.getBlockZ() + structure.dz(index));
+    }
+
+    private void walk(SimPlayer sim, double dx, double dz) {
+        Location from = sim.location.clone();
+        sim.location.add(dx, 0, dz);
+        moves.add(new PlayerMoveEvent(sim.player, from, sim.location.clone()));
+    }
+
+    private void teleport(SimPlayer sim, Location to) {
+        Location from = sim.location.clone();
+        sim.location.setWorld(to.getWorld());
+        sim.location.setX(to.getX());
+        sim.location.setY(to.getY());
+        sim.location.setZ(to.getZ());
+        moves.add(new PlayerMoveEvent(sim.player, from, to.clone()));
+    }
+
+    private TravelingStorm newStorm(boolean underway) {
+        int duration = 900 + random.nextInt(1500); // 15 to 40 minutes
+        int remaining = underway ? 1 + random.nextInt(duration) : duration;
+        double speed = 0.5 + random.nextDouble() * 1.5;
+        return Stubs.storm(randomLocation(), randomLocation(), speed, duration, remaining);
+    }
+
+    private Location spawnLocation() {
+        if (!storms.isEmpty() && random.nextDouble() < NEAR_STORM_SHARE) {
+            Location center = storms.get(random.nextInt(storms.size())).getCurrentLocation();
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double distance = random.nextDouble() * 250;
+            return new Location(world.world(), center.getX() + Math.cos(angle) * distance, SimWorld.GROUND_Y + 1,
+                                center.getZ() + Math.sin(angle) * distance);
+        }
+        return randomLocation();
+    }
+
+    private Location randomLocation() {
+        double half = options.worldSize() / 2.0;
+        return new Location(world.world(), random.nextDouble(-half, half), SimWorld.GROUND_Y + 1,
+                            random.nextDouble(-half, half));
+    }
+
+    private double averageRecentMillis() {
+        long sum = 0;
+        for (long nanos : recentNanos) {
+            sum += nanos;
+        }
+        return sum / (double) MSPT_WINDOW / 1_000_000.0;
+    }
+
+    private void snapshotAsyncThreads(Map<Long, Long> into) {
+        for (Thread thread : scheduler.getAsyncThreads()) {
+            long bytes = threads.getThreadAllocatedBytes(thread.threadId());
+            if (bytes >= 0) {
+                into.put(thread.threadId(), bytes);
+            }
+        }
+    }
+
+    private void tearDown() throws IOException {
+        if (entryQueue != null) {
+            entryQueue.shutdown();
+        }
+        if (portalManager != null) {
+            portalManager.shutdown();
+            blocksLeft = world.changedBlocks();
+        }
+        if (loadGovernor != null) {
+            loadGovernor.shutdown();
+        }
+        if (rewardManager != null) {
+            rewardManager.shutdown();
+        }
+        if (dataManager != null) {
+            dataManager.saveData();
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        Stubs.setScheduler(null);
+
+        if (dataFolder != null) {
+            try (Stream<Path> paths = Files.walk(dataFolder.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    private void report(PrintStream out) {
+        int ticks = tickNanos.size();
+        double seconds = ticks / 20.0;
+
+        out.println("Stormcraft-Dungeons load simulation");
+        out.printf("  players=%d storms=%d max_portals=%d ticks=%d (+%d warmup) storage=%s base_mspt=%.1f realtime=%s seed=%d%n",
+                   options.players(), options.storms(), options.maxPortals(), options.ticks(), options.warmupTicks(),
+                   options.storage(), options.baseMspt(), options.realtime(), options.seed());
+        out.printf("  simulated %.0f s in %.1f s wall time%n", seconds, wallNanos / 1e9);
+
+        out.println();
+        out.println("Activity (measured ticks)");
+        out.printf("  moves %d, clicks %d, entries %d, completions %d%n", moveCount, clickCount, entryCount, completionCount);
+        out.printf("  storms started %d, ended %d%n", stormsStartedCount, stormsEndedCount);
+        out.printf("  portals seen %d, active mean %.1f, peak %d; load level at end %s%n",
+                   portalsSeen.size(), activePortals.mean(), activePortals.max(), loadGovernor.getLevel());
+
+        out.println();
+        out.println("Main thread, per tick (plugin work only)");
+        out.printf("  time   mean %s  p50 %s  p90 %s  p99 %s  p99.9 %s  max %s%n",
+                   millis(tickNanos.mean()), millis(tickNanos.percentile(0.5)), millis(tickNanos.percentile(0.9)),
+                   millis(tickNanos.percentile(0.99)), millis(tickNanos.percentile(0.999)), millis(tickNanos.max()));
+        out.printf("  ticks over 5 ms: %d, over the 50 ms budget: %d%n",
+                   tickNanos.countAbove(TimeUnit.MILLISECONDS.toNanos(5)), tickNanos.countAbove(TICK_BUDGET_NANOS));
+        out.printf("  alloc  mean %s  p50 %s  p90 %s  p99 %s  max %s  (%.2f MB/s at 20 TPS)%n",
+                   kilobytes(tickBytes.mean()), kilobytes(tickBytes.percentile(0.5)), kilobytes(tickBytes.percentile(0.9)),
+                   kilobytes(tickBytes.percentile(0.99)), kilobytes(tickBytes.max()),
+                   tickBytes.mean() * 20 / (1024 * 1024));
+
+        out.println();
+        out.println("Async threads");
+        out.printf("  alloc  %.1f MB total, %s per tick (%.2f MB/s at 20 TPS)%n",
+                   asyncBytes / (1024.0 * 1024.0), kilobytes(ticks == 0 ? 0 : (double) asyncBytes / ticks),
+                   seconds == 0 ? 0 : asyncBytes / seconds / (1024 * 1024));
+
+        out.println();
+        out.println("Plugin timers (whole run, including warmup)");
+        for (Timer timer : Metrics.getTimers()) {
+            Timer.Snapshot snapshot = timer.snapshot();
+            if (snapshot.count() == 0) {
+                continue;
+            }
+            out.printf("  %-50s n=%-8d mean %s  p50 %s  p99 %s  max %s%n",
+                       timer.getName() + (timer.getLabels().isEmpty() ? "" : "{" + timer.getLabels() + "}"),
+                       snapshot.count(), millis(snapshot.meanNanos()), millis(snapshot.quantileNanos(0.5)),
+                       millis(snapshot.quantileNanos(0.99)), millis(snapshot.maxNanos()));
+        }
+
+        out.println();
+        out.printf("Structure blocks left after shutdown: %d%n", blocksLeft);
+    }
+
+    private void writeCsv(Path file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("tick,nanos,alloc_bytes,active_portals");
+            for (int i = 0; i < tickNanos.size(); i++) {
+                writer.println((options.warmupTicks() + i + 1) + "," + tickNanos.get(i) + ","
+                               + tickBytes.get(i) + "," + activePortals.get(i));
+            }
+        }
+    }
+
+    private static String millis(double nanos) {
+        return String.format("%.3f ms", nanos / 1e6);
+    }
+
+    private static String kilobytes(double bytes) {
+        return String.format("%.1f KB", bytes / 1024);
+    }
+}
@@ -0,0 +1,76 @@
+package dev.ked.stormcraft.dungeons.sim;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line for {@link LoadSimulation}: {@code --name value} pairs, all optional.
+ */
+record SimOptions(int players, int storms, int maxPortals, int ticks, int warmupTicks, int worldSize,
+                  double seekChance, int dungeonSeconds, String storage, double baseMspt,
+                  boolean realtime, long seed, Path csv) {
+
+    static final String USAGE = """
+        Options (defaults in brackets):
+          --players N          simulated players [500]
+          --storms N           concurrent storms, replaced as they end [30]
+          --max-portals N      storms.max_portals [60]
+          --ticks N            measured ticks [12000]
+          --warmup N           ticks run before measuring [2400]
+          --world-size N       side of the square world, in blocks [4000]
+          --seek-chance P      chance per second that a wandering player heads for a portal [0.02]
+          --dungeon-seconds N  mean time spent inside a dungeon [120]
+          --storage TYPE       sqlite or journal [sqlite]
+          --base-mspt MS       MSPT the rest of the server is assumed to use, fed to the load governor [0]
+          --realtime           pace ticks at 20 per second so wall-clock caches and debounces behave as live
+          --seed N             random seed [1]
+          --csv FILE           also write one line per measured tick
+        """;
+
+    static SimOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (!name.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + name);
+            }
+            if (name.equals("--realtime")) {
+                values.put(name, "true");
+            } else if (i + 1 < args.length) {
+                values.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for " + name);
+            }
+        }
+
+        SimOptions options = new SimOptions(
+            intValue(values, "--players", 500),
+            intValue(values, "--storms", 30),
+            intValue(values, "--max-portals", 60),
+            intValue(values, "--ticks", 12000),
+            intValue(values, "--warmup", 2400),
+            intValue(values, "--world-size", 4000),
+            Double.parseDouble(value(values, "--seek-chance", "0.02")),
+            intValue(values, "--dungeon-seconds", 120),
+            value(values, "--storage", "sqlite"),
+            Double.parseDouble(value(values, "--base-mspt", "0")),
+            Boolean.parseBoolean(value(values, "--realtime", "false")),
+            Long.parseLong(value(values, "--seed", "1")),
+            values.containsKey("--csv") ? Path.of(values.remove("--csv")) : null);
+
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option(s) " + values.keySet());
+        }
+        return options;
+    }
+
+    private static int intValue(Map<String, String> values, String name, int fallback) {
+        return Integer.parseInt(value(values, name, Integer.toString(fallback)));
+    }
+
+    private static String value(Map<String, String> values, String name, String fallback) {
+        String value = values.remove(name);
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,166 @@
+package dev.ked.stormcraft.dungeons.sim;
+
+import dev.ked.stormcraft.dungeons.bench.Stubs;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A Bukkit scheduler driven one tick at a time by the simulation. Sync tasks run on the calling
+ * thread in due order, like the server's main thread; async tasks run on a small pool whose threads
+ * are exposed so their allocations can be accounted separately. Work handed to the main thread
+ * executor from other threads runs at the start of the next tick.
+ */
+final class SimScheduler {
+
+    private final PriorityQueue<Task> queue;
+    private final ConcurrentLinkedQueue<Runnable> mainThreadQueue;
+    private final List<Thread> asyncThreads;
+    private final ExecutorService async;
+    private final BukkitScheduler scheduler;
+    private long currentTick;
+    private long sequence;
+    private int nextTaskId = 1;
+
+    SimScheduler(int asyncThreads) {
+        this.queue = new PriorityQueue<>();
+        this.mainThreadQueue = new ConcurrentLinkedQueue<>();
+        this.asyncThreads = new ArrayList<>();
+        this.async = Executors.newFixedThreadPool(asyncThreads, runnable -> {
+            Thread thread = new Thread(runnable, "Sim-Async-" + this.asyncThreads.size());
+            thread.setDaemon(true);
+            synchronized (this.asyncThreads) {
+                this.asyncThreads.add(thread);
+            }
+            return thread;
+        });
+        this.scheduler = Stubs.proxy(BukkitScheduler.class, (proxy, method, args) -> switch (method.getName()) {
+            case "runTask" -> schedule((Plugin) args[0], args[1], 0, -1);
+            case "runTaskLater" -> schedule((Plugin) args[0], args[1], (long) args[2], -1);
+            case "runTaskTimer" -> schedule((Plugin) args[0], args[1], (long) args[2], (long) args[3]);
+            case "runTaskAsynchronously" -> runAsync((Plugin) args[0], args[1]);
+            case "getMainThreadExecutor" -> (Executor) mainThreadQueue::add;
+            case "isCurrentlyRunning", "isQueued" -> false;
+            default -> Stubs.defaultValue(method.getReturnType());
+        });
+    }
+
+    BukkitScheduler asBukkitScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Run everything due on this tick: first work posted to the main thread executor, then sync
+     * tasks in the order they became due. Tasks scheduled while running wait for a later tick.
+     */
+    void runTick(long tick) {
+        currentTick = tick;
+
+        Runnable posted;
+        while ((posted = mainThreadQueue.poll()) != null) {
+            posted.run();
+        }
+
+        while (!queue.isEmpty() && queue.peek().due <= tick) {
+            Task task = queue.poll();
+            if (task.cancelled) {
+                continue;
+            }
+
+            if (task.period > 0) {
+                task.due = tick + task.period;
+                task.order = sequence++;
+                queue.add(task);
+            }
+            task.body.run();
+        }
+    }
+
+    /**
+     * Threads that have run async tasks so far.
+     */
+    List<Thread> getAsyncThreads() {
+        synchronized (asyncThreads) {
+            return List.copyOf(asyncThreads);
+        }
+    }
+
+    void shutdown() {
+        async.shutdown();
+        try {
+            async.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BukkitTask schedule(Plugin owner, Object body, long delay, long period) {
+        Task task = new Task(owner, nextTaskId++, true);
+        task.body = toRunnable(body, task);
+        task.due = currentTick + Math.max(1, delay);
+        task.period = period;
+        task.order = sequence++;
+        queue.add(task);
+        return task.handle;
+    }
+
+    private BukkitTask runAsync(Plugin owner, Object body) {
+        Task task = new Task(owner, nextTaskId++, false);
+        task.body = toRunnable(body, task);
+        async.execute(() -> {
+            if (!task.cancelled) {
+                task.body.run();
+            }
+        });
+        return task.handle;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Runnable toRunnable(Object body, Task task) {
+        if (body instanceof Runnable runnable) {
+            return runnable;
+        }
+        Consumer<? super BukkitTask> consumer = (Consumer<? super BukkitTask>) body;
+        return () -> consumer.accept(task.handle);
+    }
+
+    private static final class Task implements Comparable<Task> {
+
+        private final BukkitTask handle;
+        private Runnable body;
+        private long due;
+        private long period;
+        private long order;
+        private volatile boolean cancelled;
+
+        private Task(Plugin owner, int id, boolean sync) {
+            this.handle = Stubs.proxy(BukkitTask.class, (proxy, method, args) -> switch (method.getName()) {
+                case "getTaskId" -> id;
+                case "getOwner" -> owner;
+                case "isSync" -> sync;
+                case "isCancelled" -> cancelled;
+                case "cancel" -> {
+                    cancelled = true;
+                    yield null;
+                }
+                default -> Stubs.defaultValue(method.getReturnType());
+            });
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byDue = Long.compare(due, other.due);
+            return byDue != 0 ? byDue : Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dev.ked.stormcraft.dungeons.sim;
+
+import dev.ked.stormcraft.dungeons.bench.Stubs;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A flat world (grass up to {@link #GROUND_Y}, air above) with every chunk loaded, recording only the
+ * blocks that differ from the terrain. Chunk snapshots are live views over the same record, so site
+ * searches see structures already standing.
+ */
+final class SimWorld {
+
+    static final int GROUND_Y = 64;
+    private static final int SCAN_TOP = GROUND_Y + 40;
+
+    private final World world;
+    private final UUID uid;
+    private final Map<Long, BlockData> changed;
+    private final BlockData grass;
+    private final BlockData air;
+
+    SimWorld(String name) {
+        this.uid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        this.changed = new ConcurrentHashMap<>();
+        this.grass = Bukkit.createBlockData(Material.GRASS_BLOCK);
+        this.air = Bukkit.createBlockData(Material.AIR);
+        this.world = Stubs.proxy(World.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getUID" -> uid;
+            case "getName" -> name;
+            case "isChunkLoaded" -> true;
+            case "getMinHeight" -> -64;
+            case "getMaxHeight" -> 320;
+            case "getBlockAt" -> args.length == 1
+                ? block((Location) args[0])
+                : block((int) args[0], (int) args[1], (int) args[2]);
+            case "getChunkAt" -> chunk((int) args[0], (int) args[1]);
+            case "getChunkAtAsync" -> CompletableFuture.completedFuture(args[0] instanceof Integer
+                ? chunk((int) args[0], (int) args[1])
+                : chunk(((Location) args[0]).getBlockX() >> 4, ((Location) args[0]).getBlockZ() >> 4));
+            case "getHighestBlockYAt" -> highestY((int) args[0], (int) args[1]);
+            default -> Stubs.defaultValue(method.getReturnType());
+        });
+    }
+
+    World world() {
+        return world;
+    }
+
+    /**
+     * Number of blocks that currently differ from the flat terrain.
+     */
+    int changedBlocks() {
+        return changed.size();
+    }
+
+    private BlockData dataAt(int x, int y, int z) {
+        BlockData data = changed.get(key(x, y, z));
+        if (data != null) {
+            return data;
+        }
+        return y <= GROUND_Y ? grass : air;
+    }
+
+    private void setData(int x, int y, int z, BlockData data) {
+        BlockData natural = y <= GROUND_Y ? grass : air;
+        if (data.getMaterial() == natural.getMaterial()) {
+            changed.remove(key(x, y, z));
+        } else {
+            changed.put(key(x, y, z), data);
+        }
+    }
+
+    private int highestY(int x, int z) {
+        for (int y = SCAN_TOP; y > GROUND_Y; y--) {
+            if (!dataAt(x, y, z).getMaterial().isAir()) {
+                return y;
+            }
+        }
+        return GROUND_Y;
+    }
+
+    private Block block(Location location) {
+        return block(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    private Block block(int x, int y, int z) {
+        return Stubs.proxy(Block.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getX" -> x;
+            case "getY" -> y;
+            case "getZ" -> z;
+            case "getWorld" -> world;
+            case "getLocation" -> new Location(world, x, y, z);
+            case "getType" -> dataAt(x, y, z).getMaterial();
+            case "getBlockData" -> dataAt(x, y, z);
+            case "isEmpty" -> dataAt(x, y, z).getMaterial().isAir();
+            case "setBlockData" -> {
+                setData(x, y, z, (BlockData) args[0]);
+                yield null;
+            }
+            case "setType" -> {
+                setData(x, y, z, Bukkit.createBlockData((Material) args[0]));
+                yield null;
+            }
+            case "getChunk" -> chunk(x >> 4, z >> 4);
+            default -> Stubs.defaultValue(method.getReturnType());
+        });
+    }
+
+    private Chunk chunk(int chunkX, int chunkZ) {
+        ChunkSnapshot snapshot = Stubs.proxy(ChunkSnapshot.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getX" -> chunkX;
+            case "getZ" -> chunkZ;
+            case "getWorldName" -> world.getName();
+            case "getHighestBlockYAt" -> highestY((chunkX << 4) + (int) args[0], (chunkZ << 4) + (int) args[1]);
+            case "getBlockType" -> dataAt((chunkX << 4) + (int) args[0], (int) args[1], (chunkZ << 4) + (int) args[2]).getMaterial();
+            case "getBlockData" -> dataAt((chunkX << 4) + (int) args[0], (int) args[1], (chunkZ << 4) + (int) args[2]);
+            default -> Stubs.defaultValue(method.getReturnType());
+        });
+
+        return Stubs.proxy(Chunk.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getX" -> chunkX;
+            case "getZ" -> chunkZ;
+            case "getWorld" -> world;
+            case "isLoaded" -> true;
+            case "getChunkSnapshot" -> snapshot;
+            case "getBlock" -> block((chunkX << 4) + (int) args[0], (int) args[1], (chunkZ << 4) + (int) args[2]);
+            default -> Stubs.defaultValue(method.getReturnType());
+        });
+    }
+
+    private static long key(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+}
@@ -0,0 +1,70 @@
+package dev.ked.stormcraft.dungeons.sim;
+
+import java.util.Arrays;
+
+/**
+ * One value per measured tick, kept in full so percentiles are exact rather than bucketed.
+ */
+final class TickSeries {
+
+    private final long[] values;
+    private int size;
+    private long[] sorted;
+
+    TickSeries(int capacity) {
+        this.values = new long[capacity];
+    }
+
+    void add(long value) {
+        values[size++] = value;
+        sorted = null;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    double mean() {
+        if (size == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        return (double) sum / size;
+    }
+
+    /**
+     * Nearest-rank percentile, quantile in [0, 1].
+     */
+    long percentile(double quantile) {
+        if (size == 0) {
+            return 0;
+        }
+        if (sorted == null) {
+            sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+        }
+        int rank = (int) Math.ceil(quantile * size);
+        return sorted[Math.max(0, Math.min(size - 1, rank - 1))];
+    }
+
+    long max() {
+        return percentile(1.0);
+    }
+
+    int countAbove(long threshold) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (values[i] > threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,92 @@
+package dev.ked.stormcraft.dungeons.storm;
+
+import dev.ked.stormcraft.dungeons.bench.Stubs;
+import dev.ked.stormcraft.dungeons.integration.StormcraftIntegration;
+import dev.ked.stormcraft.model.TravelingStorm;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storm intensity: the raw computation, the per-tick tracker refresh that applies it to every
+ * storm, and the spawn-time prediction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StormIntensityBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int storms;
+
+    private StormcraftIntegration integration;
+    private StormTracker tracker;
+    private List<TravelingStorm> travelingStorms;
+
+    @Setup
+    public void setUp() {
+        Stubs.installServer();
+        World world = Stubs.world("world");
+        SplittableRandom random = new SplittableRandom(42);
+
+        travelingStorms = new ArrayList<>(storms);
+        for (int i = 0; i < storms; i++) {
+            int duration = random.nextInt(300, 1800);
+            Location location = new Location(world, random.nextInt(-5000, 5000), 80, random.nextInt(-5000, 5000));
+            travelingStorms.add(Stubs.storm(location, duration, random.nextInt(1, duration)));
+        }
+
+        integration = Stubs.stormcraft(travelingStorms);
+        tracker = new StormTracker(integration);
+    }
+
+    @Benchmark
+    public void computeIntensity(Blackhole blackhole) {
+        for (int i = 0; i < travelingStorms.size(); i++) {
+            blackhole.consume(integration.getStormIntensity(travelingStorms.get(i)));
+        }
+    }
+
+    /**
+     * One tick's snapshot refresh across all storms.
+     */
+    @Benchmark
+    public List<TrackedStorm> syncTick() {
+        Stubs.advanceTick();
+        return tracker.getStorms();
+    }
+
+    /**
+     * Repeated reads within a tick, which should be served from the snapshot.
+     */
+    @Benchmark
+    public List<TrackedStorm> syncSameTick() {
+        return tracker.getStorms();
+    }
+
+    @Benchmark
+    public void secondsUntilIntensity(Blackhole blackhole) {
+        for (TrackedStorm storm : tracker.getStorms()) {
+            blackhole.consume(storm.secondsUntilIntensity(60));
+        }
+    }
+}
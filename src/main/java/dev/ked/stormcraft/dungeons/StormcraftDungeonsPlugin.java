@@ -4,16 +4,26 @@ import dev.ked.stormcraft.StormcraftPlugin;
 import dev.ked.stormcraft.dungeons.command.DungeonCommand;
 import dev.ked.stormcraft.dungeons.config.ConfigManager;
 import dev.ked.stormcraft.dungeons.data.DataManager;
+import dev.ked.stormcraft.dungeons.entry.EntryQueue;
 import dev.ked.stormcraft.dungeons.integration.EssenceIntegration;
 import dev.ked.stormcraft.dungeons.integration.MythicDungeonsIntegration;
 import dev.ked.stormcraft.dungeons.integration.StormcraftIntegration;
 import dev.ked.stormcraft.dungeons.listener.DungeonEventListener;
+import dev.ked.stormcraft.dungeons.listener.PlayerDataListener;
+import dev.ked.stormcraft.dungeons.listener.PlayerTrackingListener;
+import dev.ked.stormcraft.dungeons.listener.PortalIntegrityListener;
 import dev.ked.stormcraft.dungeons.listener.PortalInteractListener;
 import dev.ked.stormcraft.dungeons.listener.StormEventListener;
+import dev.ked.stormcraft.dungeons.load.LoadGovernor;
+import dev.ked.stormcraft.dungeons.metrics.MetricsExporter;
 import dev.ked.stormcraft.dungeons.portal.PortalManager;
 import dev.ked.stormcraft.dungeons.requirement.RequirementChecker;
 import dev.ked.stormcraft.dungeons.reward.RewardManager;
+import dev.ked.stormcraft.dungeons.spatial.SpatialGrid;
+import dev.ked.stormcraft.dungeons.storm.StormTracker;
+import dev.ked.stormcraft.dungeons.sync.SyncService;
 import net.milkbowl.vault.economy.Economy;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -22,11 +32,17 @@ public class StormcraftDungeonsPlugin extends JavaPlugin {
     private ConfigManager configManager;
     private DataManager dataManager;
     private StormcraftIntegration stormcraftIntegration;
+    private StormTracker stormTracker;
     private MythicDungeonsIntegration mythicDungeonsIntegration;
     private EssenceIntegration essenceIntegration;
     private PortalManager portalManager;
     private RequirementChecker requirementChecker;
+    private EntryQueue entryQueue;
     private RewardManager rewardManager;
+    private SpatialGrid<Player> playerGrid;
+    private LoadGovernor loadGovernor;
+    private MetricsExporter metricsExporter;
+    private SyncService syncService;
     private Economy economy;
 
     @Override
@@ -56,12 +72,19 @@ public class StormcraftDungeonsPlugin extends JavaPlugin {
         setupEssence();
 
         // Initialize data manager
-        dataManager = new DataManager(this);
-        dataManager.loadData();
+        dataManager = new DataManager(this, configManager);
+        if (!dataManager.loadData()) {
+            // Completions would be silently dropped; better to stop than to run without storage
+            getLogger().severe("Completion storage could not be opened! Disabling plugin.");
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
 
         // Initialize core systems
+        stormTracker = new StormTracker(stormcraftIntegration);
+
         requirementChecker = new RequirementChecker(this, configManager,
-                                                   stormcraftIntegration,
+                                                   stormTracker,
                                                    essenceIntegration,
                                                    dataManager,
                                                    economy);
@@ -70,10 +93,26 @@ public class StormcraftDungeonsPlugin extends JavaPlugin {
                                          essenceIntegration,
                                          dataManager,
                                          economy);
+        rewardManager.start();
+
+        // Track online players by chunk region for proximity queries
+        playerGrid = new SpatialGrid<>((player, scratch) -> player.getLocation(scratch));
+        for (Player player : getServer().getOnlinePlayers()) {
+            playerGrid.update(player, player.getLocation());
+        }
+
+        // Throttles portal work when tick time rises
+        loadGovernor = new LoadGovernor(this, configManager);
 
         portalManager = new PortalManager(this, configManager,
                                          stormcraftIntegration,
-                                         requirementChecker);
+                                         stormTracker,
+                                         requirementChecker,
+                                         playerGrid,
+                                         loadGovernor);
+
+        // Spreads portal entry work over ticks
+        entryQueue = new EntryQueue(this, configManager, requirementChecker, mythicDungeonsIntegration);
 
         // Register listeners
         registerListeners();
@@ -81,9 +120,21 @@ public class StormcraftDungeonsPlugin extends JavaPlugin {
         // Register commands
         registerCommands();
 
+        // Share completions and portal openings with other servers
+        if (configManager.getSnapshot().getSyncSettings().enabled()) {
+            syncService = new SyncService(this, configManager, dataManager, portalManager);
+            if (!syncService.start()) {
+                syncService = null;
+            }
+        }
+
         // Start portal spawning task
+        loadGovernor.start();
         portalManager.start();
 
+        metricsExporter = new MetricsExporter(this, configManager.getSnapshot().getMetricsSettings());
+        metricsExporter.start();
+
         getLogger().info("Stormcraft-Dungeons enabled successfully!");
     }
 
@@ -91,16 +142,37 @@ public class StormcraftDungeonsPlugin extends JavaPlugin {
     public void onDisable() {
         getLogger().info("Stopping Stormcraft-Dungeons...");
 
+        if (entryQueue != null) {
+            entryQueue.shutdown();
+        }
+
         // Stop portal manager
         if (portalManager != null) {
             portalManager.shutdown();
         }
+        if (loadGovernor != null) {
+            loadGovernor.shutdown();
+        }
+
+        // Pay out queued rewards before player data is saved
+        if (rewardManager != null) {
+            rewardManager.shutdown();
+        }
+
+        // Send the last completions and portal closures before player data is saved
+        if (syncService != null) {
+            syncService.shutdown();
+        }
 
         // Save player data
         if (dataManager != null) {
             dataManager.saveData();
         }
 
+        if (metricsExporter != null) {
+            metricsExporter.shutdown();
+        }
+
         getLogger().info("Stormcraft-Dungeons disabled.");
     }
 
@@ -178,12 +250,19 @@ public class StormcraftDungeonsPlugin extends JavaPlugin {
     }
 
     private void registerListeners() {
+        getServer().getPluginManager().registerEvents(
+            new PlayerDataListener(dataManager, rewardManager), this);
+        getServer().getPluginManager().registerEvents(
+            new PlayerTrackingListener(playerGrid), this);
         getServer().getPluginManager().registerEvents(
             new StormEventListener(this, portalManager), this);
         getServer().getPluginManager().registerEvents(
-            new PortalInteractListener(this, portalManager, requirementChecker, mythicDungeonsIntegration), this);
+            new PortalInteractListener(this, portalManager, requirementChecker, entryQueue), this);
         getServer().getPluginManager().registerEvents(
-            new DungeonEventListener(this, rewardManager), this);
+            new PortalIntegrityListener(portalManager), this);
+
+        // Completion events are resolved and registered by class
+        new DungeonEventListener(this, rewardManager).register();
     }
 
     private void registerCommands() {
@@ -205,6 +284,10 @@ public class StormcraftDungeonsPlugin extends JavaPlugin {
         return stormcraftIntegration;
     }
 
+    public StormTracker getStormTracker() {
+        return stormTracker;
+    }
+
     public MythicDungeonsIntegration getMythicDungeonsIntegration() {
         return mythicDungeonsIntegration;
     }
@@ -225,6 +308,18 @@ public class StormcraftDungeonsPlugin extends JavaPlugin {
         return rewardManager;
     }
 
+    public SpatialGrid<Player> getPlayerGrid() {
+        return playerGrid;
+    }
+
+    public LoadGovernor getLoadGovernor() {
+        return loadGovernor;
+    }
+
+    public SyncService getSyncService() {
+        return syncService;
+    }
+
     public Economy getEconomy() {
         return economy;
     }
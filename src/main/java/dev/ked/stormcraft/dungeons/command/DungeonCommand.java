@@ -1,9 +1,17 @@
 package dev.ked.stormcraft.dungeons.command;
 
 import dev.ked.stormcraft.dungeons.StormcraftDungeonsPlugin;
+import dev.ked.stormcraft.dungeons.config.DungeonDefinition;
 import dev.ked.stormcraft.dungeons.data.DataManager;
+import dev.ked.stormcraft.dungeons.data.Leaderboards;
+import dev.ked.stormcraft.dungeons.load.LoadGovernor;
+import dev.ked.stormcraft.dungeons.load.LoadLevel;
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
 import dev.ked.stormcraft.dungeons.portal.Portal;
 import dev.ked.stormcraft.dungeons.portal.PortalManager;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -14,12 +22,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Main command handler for /dungeon.
  */
 public class DungeonCommand implements CommandExecutor, TabCompleter {
 
+    private static final int TOP_SIZE = 10;
+
     private final StormcraftDungeonsPlugin plugin;
     private final PortalManager portalManager;
     private final DataManager dataManager;
@@ -43,9 +54,15 @@ public class DungeonCommand implements CommandExecutor, TabCompleter {
             case "list":
                 return handleList(sender);
             case "stats":
-                return handleStats(sender);
+                return handleStats(sender, args);
             case "nearest":
                 return handleNearest(sender);
+            case "top":
+                return handleTop(sender, args);
+            case "status":
+                return handleStatus(sender);
+            case "perf":
+                return handlePerf(sender);
             case "reload":
                 return handleReload(sender);
             case "clear":
@@ -61,8 +78,14 @@ public class DungeonCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage("§6§l[Dungeons] §fHelp");
         sender.sendMessage("§e/dungeon list §7- List active portals");
         sender.sendMessage("§e/dungeon stats §7- Show your completions");
+        if (sender.hasPermission("stormcraft.dungeons.stats.others")) {
+            sender.sendMessage("§e/dungeon stats <player> §7- Show another player's completions");
+        }
         sender.sendMessage("§e/dungeon nearest §7- Find nearest portal");
+        sender.sendMessage("§e/dungeon top [dungeon] §7- Show the most completions");
         if (sender.hasPermission("stormcraft.dungeons.admin")) {
+            sender.sendMessage("§c/dungeon status §7- Show server load throttling");
+            sender.sendMessage("§c/dungeon perf §7- Show timings and counters");
             sender.sendMessage("§c/dungeon reload §7- Reload configuration");
             sender.sendMessage("§c/dungeon clear §7- Remove all portals");
         }
@@ -78,10 +101,7 @@ public class DungeonCommand implements CommandExecutor, TabCompleter {
 
         sender.sendMessage("§6[Dungeons] §fActive Portals:");
         for (Portal portal : portals) {
-            String dungeonName = plugin.getConfigManager().getConfig().getString(
-                "dungeons." + portal.getDungeonName() + ".display_name",
-                portal.getDungeonName()
-            );
+            String dungeonName = plugin.getConfigManager().getSnapshot().getDisplayName(portal.getDungeonName());
 
             String location = String.format("%d, %d, %d",
                 portal.getLocation().getBlockX(),
@@ -105,7 +125,11 @@ public class DungeonCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
-    private boolean handleStats(CommandSender sender) {
+    private boolean handleStats(CommandSender sender, String[] args) {
+        if (args.length >= 2) {
+            return handleStatsOther(sender, args[1]);
+        }
+
         if (!(sender instanceof Player)) {
             sender.sendMessage("§cOnly players can view stats!");
             return true;
@@ -120,17 +144,55 @@ public class DungeonCommand implements CommandExecutor, TabCompleter {
         }
 
         sender.sendMessage("§6[Dungeons] §fYour Statistics:");
-        for (Map.Entry<String, Integer> entry : completions.entrySet()) {
-            String dungeonName = plugin.getConfigManager().getConfig().getString(
-                "dungeons." + entry.getKey() + ".display_name",
-                entry.getKey()
-            );
-            sender.sendMessage(String.format("§e• %s: §f%d completions", dungeonName, entry.getValue()));
+        sendCompletions(sender, completions);
+        return true;
+    }
+
+    /**
+     * Offline players are read from storage asynchronously; the reply is sent back on the main thread.
+     */
+    private boolean handleStatsOther(CommandSender sender, String targetName) {
+        if (!sender.hasPermission("stormcraft.dungeons.stats.others")) {
+            sender.sendMessage("§cYou don't have permission to use this command!");
+            return true;
         }
 
+        // Cached lookup only, never a blocking profile request
+        OfflinePlayer target = plugin.getServer().getOfflinePlayerIfCached(targetName);
+        if (target == null) {
+            sender.sendMessage("§c" + targetName + " has never joined this server!");
+            return true;
+        }
+
+        String name = target.getName() != null ? target.getName() : targetName;
+        dataManager.lookupCompletions(target.getUniqueId()).whenComplete((completions, error) ->
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    sender.sendMessage("§cFailed to load stats for " + name);
+                    plugin.getLogger().warning("Failed to load completions for " + name + ": " + error.getMessage());
+                    return;
+                }
+
+                if (completions.isEmpty()) {
+                    sender.sendMessage("§6[Dungeons] §7" + name + " hasn't completed any dungeons yet");
+                    return;
+                }
+
+                sender.sendMessage("§6[Dungeons] §f" + name + "'s Statistics:");
+                sendCompletions(sender, completions);
+            })
+        );
+
         return true;
     }
 
+    private void sendCompletions(CommandSender sender, Map<String, Integer> completions) {
+        for (Map.Entry<String, Integer> entry : completions.entrySet()) {
+            String dungeonName = plugin.getConfigManager().getSnapshot().getDisplayName(entry.getKey());
+            sender.sendMessage(String.format("§e• %s: §f%d completions", dungeonName, entry.getValue()));
+        }
+    }
+
     private boolean handleNearest(CommandSender sender) {
         if (!(sender instanceof Player)) {
             sender.sendMessage("§cOnly players can find nearest portal!");
@@ -145,10 +207,7 @@ public class DungeonCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        String dungeonName = plugin.getConfigManager().getConfig().getString(
-            "dungeons." + nearest.getDungeonName() + ".display_name",
-            nearest.getDungeonName()
-        );
+        String dungeonName = plugin.getConfigManager().getSnapshot().getDisplayName(nearest.getDungeonName());
 
         double distance = player.getLocation().distance(nearest.getLocation());
         String location = String.format("%d, %d, %d",
@@ -163,6 +222,107 @@ public class DungeonCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleTop(CommandSender sender, String[] args) {
+        int dungeonId = Leaderboards.OVERALL;
+        String title = "All Dungeons";
+        if (args.length >= 2 && !args[1].equalsIgnoreCase("overall")) {
+            DungeonDefinition dungeon = plugin.getConfigManager().getDungeon(args[1].toLowerCase());
+            if (dungeon == null) {
+                sender.sendMessage("§cUnknown dungeon: " + args[1]);
+                return true;
+            }
+            dungeonId = dungeon.id();
+            title = dungeon.displayName();
+        }
+
+        Leaderboards leaderboards = dataManager.getLeaderboards();
+        List<Leaderboards.Entry> top = leaderboards.top(dungeonId, TOP_SIZE);
+        if (top.isEmpty()) {
+            sender.sendMessage("§6[Dungeons] §7No completions yet");
+            return true;
+        }
+
+        sender.sendMessage(String.format("§6[Dungeons] §fTop %s §7(%d players)", title, leaderboards.size(dungeonId)));
+        boolean listed = false;
+        for (Leaderboards.Entry entry : top) {
+            boolean self = sender instanceof Player && ((Player) sender).getUniqueId().equals(entry.playerId());
+            listed |= self;
+            sender.sendMessage(String.format("§e#%d %s%s §7- §f%d completions",
+                entry.rank(), self ? "§a" : "§f", playerName(entry.playerId()), entry.count()));
+        }
+
+        if (sender instanceof Player && !listed) {
+            Leaderboards.Entry own = leaderboards.get(((Player) sender).getUniqueId(), dungeonId);
+            if (own != null) {
+                sender.sendMessage(String.format("§7You: §e#%d §7- §f%d completions", own.rank(), own.count()));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Name from the server's player cache; never a blocking profile request.
+     */
+    private String playerName(UUID playerId) {
+        String name = plugin.getServer().getOfflinePlayer(playerId).getName();
+        return name != null ? name : playerId.toString().substring(0, 8);
+    }
+
+    private boolean handleStatus(CommandSender sender) {
+        if (!sender.hasPermission("stormcraft.dungeons.admin")) {
+            sender.sendMessage("§cYou don't have permission to use this command!");
+            return true;
+        }
+
+        LoadGovernor governor = plugin.getLoadGovernor();
+        LoadLevel level = governor.getLevel();
+
+        sender.sendMessage("§6[Dungeons] §fStatus:");
+        sender.sendMessage(String.format("§e• Load level: %s%s §7(%.1f mspt)",
+            level.getColor(), level, governor.getLastMspt()));
+        sender.sendMessage(String.format("§e• Particles: §f%s",
+            level.getRenderEvery() == 0 ? "off"
+                : String.format("%.0f%% density, every %ds", level.getParticleDensity() * 100, level.getRenderEvery())));
+        int checkInterval = plugin.getConfigManager().getSnapshot().getPortals().checkInterval();
+        double spawnSeconds = checkInterval * level.getSpawnEvery() / 20.0;
+        if (level == LoadLevel.NORMAL) {
+            sender.sendMessage(String.format("§e• Spawn checks: §fas storms reach intensity, reconciled every %.0fs", spawnSeconds));
+        } else {
+            sender.sendMessage(String.format("§e• Spawn checks: §fevery %.0fs only §7(storm-driven spawns deferred)", spawnSeconds));
+        }
+        sender.sendMessage(String.format("§e• Cleanup: §fevery %ds", level.getCleanupEvery() * 30));
+        sender.sendMessage(String.format("§e• Active portals: §f%d", portalManager.getActivePortals().size()));
+        return true;
+    }
+
+    private boolean handlePerf(CommandSender sender) {
+        if (!sender.hasPermission("stormcraft.dungeons.admin")) {
+            sender.sendMessage("§cYou don't have permission to use this command!");
+            return true;
+        }
+
+        sender.sendMessage("§6[Dungeons] §fTimings since startup §7(count, mean / p50 / p99 / max in ms):");
+        for (Timer timer : Metrics.getTimers()) {
+            Timer.Snapshot snapshot = timer.snapshot();
+            if (snapshot.count() == 0) {
+                continue;
+            }
+            sender.sendMessage(String.format("§e• %s §f%d§7x  §f%.3f §7/ §f%.3f §7/ §f%.3f §7/ §f%.3f",
+                metricName(timer.getName(), timer.getLabels()), snapshot.count(),
+                snapshot.meanNanos() / 1e6, snapshot.quantileNanos(0.5) / 1e6,
+                snapshot.quantileNanos(0.99) / 1e6, snapshot.maxNanos() / 1e6));
+        }
+
+        for (Counter counter : Metrics.getCounters()) {
+            sender.sendMessage(String.format("§e• %s §f%d", metricName(counter.getName(), counter.getLabels()), counter.get()));
+        }
+        return true;
+    }
+
+    private String metricName(String name, String labels) {
+        return labels.isEmpty() ? name : name + " §7" + labels.replace("\"", "");
+    }
+
     private boolean handleReload(CommandSender sender) {
         if (!sender.hasPermission("stormcraft.dungeons.admin")) {
             sender.sendMessage("§cYou don't have permission to use this command!");
@@ -191,9 +351,11 @@ public class DungeonCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            List<String> subcommands = Arrays.asList("list", "stats", "nearest", "help");
+            List<String> subcommands = Arrays.asList("list", "stats", "nearest", "top", "help");
             if (sender.hasPermission("stormcraft.dungeons.admin")) {
                 subcommands = new ArrayList<>(subcommands);
+                subcommands.add("status");
+                subcommands.add("perf");
                 subcommands.add("reload");
                 subcommands.add("clear");
             }
@@ -204,6 +366,24 @@ public class DungeonCommand implements CommandExecutor, TabCompleter {
                     completions.add(sub);
                 }
             }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("stats")
+                   && sender.hasPermission("stormcraft.dungeons.stats.others")) {
+            String input = args[1].toLowerCase();
+            for (Player online : plugin.getServer().getOnlinePlayers()) {
+                if (online.getName().toLowerCase().startsWith(input)) {
+                    completions.add(online.getName());
+                }
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("top")) {
+            String input = args[1].toLowerCase();
+            if ("overall".startsWith(input)) {
+                completions.add("overall");
+            }
+            for (DungeonDefinition dungeon : plugin.getConfigManager().getSnapshot().getDungeons()) {
+                if (dungeon.key().startsWith(input)) {
+                    completions.add(dungeon.key());
+                }
+            }
         }
 
         return completions;
@@ -1,15 +1,29 @@
 package dev.ked.stormcraft.dungeons.config;
 
+import org.bukkit.ChatColor;
+import org.bukkit.Particle;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Manages plugin configuration.
+ * config.yml is compiled into an immutable {@link ConfigSnapshot} which hot paths read instead of the YAML tree.
  */
 public class ConfigManager {
 
     private final JavaPlugin plugin;
+    private final DungeonIds dungeonIds = new DungeonIds();
     private FileConfiguration config;
+    private volatile ConfigSnapshot snapshot;
 
     public ConfigManager(JavaPlugin plugin) {
         this.plugin = plugin;
@@ -22,18 +36,23 @@ public class ConfigManager {
         plugin.saveDefaultConfig();
         plugin.reloadConfig();
         config = plugin.getConfig();
+        snapshot = compile(config);
 
-        plugin.getLogger().info("Configuration loaded");
+        plugin.getLogger().info("Configuration loaded (" + snapshot.getDungeons().size() + " dungeons)");
     }
 
     /**
-     * Reload all configuration files.
+     * Reload all configuration files. The new snapshot replaces the old one in a single swap.
      */
     public void reloadConfigs() {
         plugin.reloadConfig();
-        config = plugin.getConfig();
+        FileConfiguration reloaded = plugin.getConfig();
+        ConfigSnapshot compiled = compile(reloaded);
+
+        config = reloaded;
+        snapshot = compiled;
 
-        plugin.getLogger().info("Configuration reloaded");
+        plugin.getLogger().info("Configuration reloaded (" + compiled.getDungeons().size() + " dungeons)");
     }
 
     /**
@@ -42,4 +61,209 @@ public class ConfigManager {
     public FileConfiguration getConfig() {
         return config;
     }
+
+    /**
+     * Get the current compiled configuration.
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the dungeon id registry. Ids survive reloads.
+     */
+    public DungeonIds getDungeonIds() {
+        return dungeonIds;
+    }
+
+    /**
+     * Get a compiled dungeon definition, or null if not configured.
+     */
+    public DungeonDefinition getDungeon(String key) {
+        return snapshot.getDungeon(key);
+    }
+
+    private ConfigSnapshot compile(FileConfiguration config) {
+        PortalSettings portals = new PortalSettings(
+            config.getInt("portals.check_interval", 1200),
+            config.getInt("storms.max_portals", 5),
+            config.getBoolean("portals.particles.enabled", true),
+            parseParticle(config.getString("portals.particles.type", "PORTAL")),
+            config.getInt("portals.particles.count", 20),
+            config.getDouble("portals.particles.radius", 2.0),
+            config.getDouble("portals.particles.view_distance", 32.0),
+            config.getBoolean("portals.remove_on_storm_end", true),
+            config.getBoolean("portals.remove_when_too_far", true),
+            config.getDouble("portals.max_distance_from_storm", 300),
+            Math.max(1, config.getInt("portals.blocks_per_tick", 64)),
+            parseStructure(config.getConfigurationSection("portals.structure"), "portals", PortalStructure.defaultFrame())
+        );
+
+        RequirementSettings requirementSettings = new RequirementSettings(
+            config.getLong("requirements.cache_ttl_ms", 2000),
+            config.getLong("requirements.click_debounce_ms", 300)
+        );
+
+        StorageSettings storageSettings = new StorageSettings(
+            config.getString("storage.type", "sqlite").toLowerCase(),
+            TimeUnit.MINUTES.toMillis(config.getLong("storage.compaction_interval_minutes", 10))
+        );
+
+        LoadSettings loadSettings = new LoadSettings(
+            config.getBoolean("load.enabled", true),
+            config.getDouble("load.elevated_mspt", 40.0),
+            config.getDouble("load.high_mspt", 45.0),
+            config.getDouble("load.critical_mspt", 49.0),
+            config.getDouble("load.hysteresis_mspt", 3.0)
+        );
+
+        MetricsSettings metricsSettings = new MetricsSettings(
+            config.getBoolean("metrics.export_enabled", true),
+            config.getString("metrics.export_file", "metrics.prom"),
+            Math.max(1, config.getInt("metrics.export_interval_seconds", 30))
+        );
+
+        EntrySettings entrySettings = new EntrySettings(
+            Math.max(1, config.getInt("entry.players_per_tick", 8)),
+            config.getDouble("entry.max_millis_per_tick", 2.0),
+            Math.max(1, config.getInt("entry.max_queue_per_portal", 24)),
+            Math.max(1, config.getInt("entry.max_wait_seconds", 30))
+        );
+
+        SettlementSettings settlementSettings = new SettlementSettings(
+            Math.max(1, config.getInt("settlement.payouts_per_tick", 16)),
+            Math.max(0, config.getInt("settlement.dedupe_window_seconds", 120)),
+            Math.max(0, config.getInt("settlement.fan_out_window_seconds", 5))
+        );
+
+        SyncSettings syncSettings = new SyncSettings(
+            config.getBoolean("sync.enabled", false),
+            config.getString("sync.server_id", ""),
+            config.getString("sync.transport", "directory").toLowerCase(),
+            config.getString("sync.directory", "sync"),
+            Math.max(50, config.getLong("sync.flush_interval_ms", 1000)),
+            Math.max(50, config.getLong("sync.poll_interval_ms", 500)),
+            config.getBoolean("sync.announce_remote_portals", true)
+        );
+
+        Map<String, DungeonDefinition> dungeons = new LinkedHashMap<>();
+        ConfigurationSection dungeonsSection = config.getConfigurationSection("dungeons");
+        if (dungeonsSection != null) {
+            for (String key : dungeonsSection.getKeys(false)) {
+                ConfigurationSection section = dungeonsSection.getConfigurationSection(key);
+                if (section != null) {
+                    dungeons.put(key, compileDungeon(key, section, portals.defaultStructure()));
+                }
+            }
+        }
+
+        return new ConfigSnapshot(portals, requirementSettings, storageSettings, loadSettings, metricsSettings,
+                                  entrySettings, settlementSettings, syncSettings,
+                                  Collections.unmodifiableMap(dungeons),
+                                  config.getStringList("mythicdungeons.completion_events"));
+    }
+
+    private DungeonDefinition compileDungeon(String key, ConfigurationSection section, PortalStructure defaultStructure) {
+        String displayName = ChatColor.translateAlternateColorCodes('&', section.getString("display_name", key));
+
+        Map<String, Integer> requiredCompletions = new LinkedHashMap<>();
+        ConfigurationSection completionsSection = section.getConfigurationSection("requirements.required_completions");
+        if (completionsSection != null) {
+            for (String requiredDungeon : completionsSection.getKeys(false)) {
+                requiredCompletions.put(requiredDungeon, completionsSection.getInt(requiredDungeon));
+                dungeonIds.intern(requiredDungeon);
+            }
+        }
+
+        RequirementSpec requirements = new RequirementSpec(
+            optionalInt(section, "requirements.min_sel"),
+            optionalInt(section, "requirements.essence_cost"),
+            optionalInt(section, "requirements.max_distance_from_storm"),
+            section.getInt("requirements.min_storm_intensity", 0),
+            section.getString("requirements.permission"),
+            requiredCompletions
+        );
+
+        RewardSpec rewards = new RewardSpec(
+            section.getDouble("rewards.essence_base", 0),
+            section.getDouble("rewards.essence_variance", 0),
+            section.getDouble("rewards.completion_bonus", 0.0)
+        );
+
+        return new DungeonDefinition(
+            key,
+            dungeonIds.intern(key),
+            section.getBoolean("enabled", false),
+            displayName,
+            requirements,
+            rewards,
+            section.getBoolean("portal.enabled", true),
+            section.getDouble("portal.spawn_chance", 0.5),
+            section.getInt("requirements.min_storm_intensity", 40),
+            parseStructure(section.getConfigurationSection("portal.structure"), key, defaultStructure)
+        );
+    }
+
+    private Integer optionalInt(ConfigurationSection section, String path) {
+        return section.contains(path) ? section.getInt(path) : null;
+    }
+
+    /**
+     * Compile a structure section (a palette of single-character keys plus a list of layers),
+     * falling back when it is absent or invalid.
+     */
+    private PortalStructure parseStructure(ConfigurationSection section, String owner, PortalStructure fallback) {
+        if (section == null) {
+            return fallback;
+        }
+
+        Map<Character, String> palette = new HashMap<>();
+        ConfigurationSection paletteSection = section.getConfigurationSection("palette");
+        if (paletteSection != null) {
+            for (String symbol : paletteSection.getKeys(false)) {
+                if (symbol.length() != 1) {
+                    plugin.getLogger().warning("Ignoring palette key '" + symbol + "' in " + owner + " portal structure (must be one character)");
+                    continue;
+                }
+                palette.put(symbol.charAt(0), paletteSection.getString(symbol));
+            }
+        }
+
+        List<List<String>> layers = new ArrayList<>();
+        List<?> layerList = section.getList("layers");
+        if (layerList != null) {
+            for (Object layer : layerList) {
+                List<String> rows = new ArrayList<>();
+                if (layer instanceof List<?> list) {
+                    for (Object row : list) {
+                        rows.add(String.valueOf(row));
+                    }
+                } else if (layer != null) {
+                    rows.add(String.valueOf(layer));
+                }
+                layers.add(rows);
+            }
+        }
+
+        try {
+            return PortalStructure.compile(palette, layers);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Invalid portal structure for " + owner + ": " + e.getMessage() + ", using default");
+            return fallback;
+        }
+    }
+
+    private Particle parseParticle(String name) {
+        try {
+            Particle particle = Particle.valueOf(name.toUpperCase());
+            if (particle.getDataType() != Void.class) {
+                plugin.getLogger().warning("Particle type '" + name + "' needs extra data, using PORTAL");
+                return Particle.PORTAL;
+            }
+            return particle;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            plugin.getLogger().warning("Unknown particle type '" + name + "', using PORTAL");
+            return Particle.PORTAL;
+        }
+    }
 }
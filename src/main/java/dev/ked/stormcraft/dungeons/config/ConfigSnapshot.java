@@ -0,0 +1,97 @@
+package dev.ked.stormcraft.dungeons.config;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, fully typed view of config.yml. Replaced as a whole on reload.
+ */
+public final class ConfigSnapshot {
+
+    private final PortalSettings portals;
+    private final RequirementSettings requirementSettings;
+    private final StorageSettings storageSettings;
+    private final LoadSettings loadSettings;
+    private final MetricsSettings metricsSettings;
+    private final EntrySettings entrySettings;
+    private final SettlementSettings settlementSettings;
+    private final SyncSettings syncSettings;
+    private final Map<String, DungeonDefinition> dungeons;
+    private final List<String> completionEvents;
+
+    public ConfigSnapshot(PortalSettings portals, RequirementSettings requirementSettings,
+                          StorageSettings storageSettings, LoadSettings loadSettings,
+                          MetricsSettings metricsSettings, EntrySettings entrySettings,
+                          SettlementSettings settlementSettings, SyncSettings syncSettings,
+                          Map<String, DungeonDefinition> dungeons, List<String> completionEvents) {
+        this.portals = portals;
+        this.requirementSettings = requirementSettings;
+        this.storageSettings = storageSettings;
+        this.loadSettings = loadSettings;
+        this.metricsSettings = metricsSettings;
+        this.entrySettings = entrySettings;
+        this.settlementSettings = settlementSettings;
+        this.syncSettings = syncSettings;
+        this.dungeons = dungeons;
+        this.completionEvents = List.copyOf(completionEvents);
+    }
+
+    public PortalSettings getPortals() {
+        return portals;
+    }
+
+    public RequirementSettings getRequirementSettings() {
+        return requirementSettings;
+    }
+
+    public StorageSettings getStorageSettings() {
+        return storageSettings;
+    }
+
+    public LoadSettings getLoadSettings() {
+        return loadSettings;
+    }
+
+    public MetricsSettings getMetricsSettings() {
+        return metricsSettings;
+    }
+
+    public EntrySettings getEntrySettings() {
+        return entrySettings;
+    }
+
+    public SettlementSettings getSettlementSettings() {
+        return settlementSettings;
+    }
+
+    public SyncSettings getSyncSettings() {
+        return syncSettings;
+    }
+
+    /**
+     * Get a dungeon definition by key, or null if not configured.
+     */
+    public DungeonDefinition getDungeon(String key) {
+        return dungeons.get(key);
+    }
+
+    /**
+     * Get all dungeon definitions in config order.
+     */
+    public Collection<DungeonDefinition> getDungeons() {
+        return dungeons.values();
+    }
+
+    /**
+     * Get the display name for a dungeon key, falling back to the key itself.
+     */
+    public String getDisplayName(String key) {
+        DungeonDefinition dungeon = dungeons.get(key);
+        return dungeon != null ? dungeon.displayName() : key;
+    }
+
+    public List<String> getCompletionEvents() {
+        return completionEvents;
+    }
+}
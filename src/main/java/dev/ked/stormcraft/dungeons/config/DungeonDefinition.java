@@ -0,0 +1,18 @@
+package dev.ked.stormcraft.dungeons.config;
+
+/**
+ * Compiled configuration for a single dungeon.
+ */
+public record DungeonDefinition(
+    String key,
+    int id,
+    boolean enabled,
+    String displayName,
+    RequirementSpec requirements,
+    RewardSpec rewards,
+    boolean portalEnabled,
+    double spawnChance,
+    int minSpawnIntensity,
+    PortalStructure structure
+) {
+}
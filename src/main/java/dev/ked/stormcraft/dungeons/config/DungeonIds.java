@@ -0,0 +1,54 @@
+package dev.ked.stormcraft.dungeons.config;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only registry of dungeon keys to small dense ids.
+ * Ids are never reused or reassigned, so they stay valid across config reloads.
+ * Lookups are lock-free; interning a new key takes a lock.
+ */
+public final class DungeonIds {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+
+    /**
+     * Get the id for a key, or -1 if it has never been interned.
+     */
+    public int idOf(String key) {
+        Integer id = ids.get(key);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Get the id for a key, assigning the next free id if it is new.
+     */
+    public int intern(String key) {
+        Integer id = ids.get(key);
+        return id != null ? id : internSlow(key);
+    }
+
+    private synchronized int internSlow(String key) {
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+
+        int next = names.length;
+        String[] grown = Arrays.copyOf(names, next + 1);
+        grown[next] = key;
+        names = grown; // Publish the name before the id so nameOf never misses
+        ids.put(key, next);
+        return next;
+    }
+
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return names.length;
+    }
+}
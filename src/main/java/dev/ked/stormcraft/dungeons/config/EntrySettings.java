@@ -0,0 +1,13 @@
+package dev.ked.stormcraft.dungeons.config;
+
+/**
+ * Compiled portal entry queue settings. The per-tick limits bound how much entry work one tick
+ * does; the queue limit and wait bound how many players can be waiting at one portal.
+ */
+public record EntrySettings(
+    int playersPerTick,
+    double maxMillisPerTick,
+    int maxQueuePerPortal,
+    int maxWaitSeconds
+) {
+}
@@ -0,0 +1,13 @@
+package dev.ked.stormcraft.dungeons.config;
+
+/**
+ * Compiled load governor settings. Thresholds are average milliseconds per tick.
+ */
+public record LoadSettings(
+    boolean enabled,
+    double elevatedMspt,
+    double highMspt,
+    double criticalMspt,
+    double hysteresisMspt
+) {
+}
@@ -0,0 +1,11 @@
+package dev.ked.stormcraft.dungeons.config;
+
+/**
+ * Compiled metrics export settings. Relative export paths are under the plugin folder.
+ */
+public record MetricsSettings(
+    boolean exportEnabled,
+    String exportFile,
+    int exportIntervalSeconds
+) {
+}
@@ -0,0 +1,22 @@
+package dev.ked.stormcraft.dungeons.config;
+
+import org.bukkit.Particle;
+
+/**
+ * Compiled global portal settings.
+ */
+public record PortalSettings(
+    int checkInterval,
+    int maxPortals,
+    boolean particlesEnabled,
+    Particle particleType,
+    int particleCount,
+    double particleRadius,
+    double particleViewDistance,
+    boolean removeOnStormEnd,
+    boolean removeWhenTooFar,
+    double maxDistanceFromStorm,
+    int blocksPerTick,
+    PortalStructure defaultStructure
+) {
+}
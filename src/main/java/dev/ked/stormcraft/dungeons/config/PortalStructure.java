@@ -0,0 +1,174 @@
+package dev.ked.stormcraft.dungeons.config;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled portal structure: the blocks to place relative to the anchor, in placement order
+ * (bottom layer first), each referring to a shared palette of block states.
+ * The anchor is the bottom layer's centre column, one block above the ground.
+ */
+public final class PortalStructure {
+
+    /** Marks a block the structure leaves untouched. */
+    public static final char SKIP = '.';
+
+    private final byte[] dx;
+    private final byte[] dy;
+    private final byte[] dz;
+    private final short[] paletteIndex;
+    private final BlockData[] palette;
+    private final int minX;
+    private final int maxX;
+    private final int minZ;
+    private final int maxZ;
+    private final int height;
+
+    private PortalStructure(byte[] dx, byte[] dy, byte[] dz, short[] paletteIndex, BlockData[] palette,
+                            int width, int depth, int height) {
+        this.dx = dx;
+        this.dy = dy;
+        this.dz = dz;
+        this.paletteIndex = paletteIndex;
+        this.palette = palette;
+        this.minX = -(width / 2);
+        this.maxX = minX + width - 1;
+        this.minZ = -(depth / 2);
+        this.maxZ = minZ + depth - 1;
+        this.height = height;
+    }
+
+    /**
+     * The original 3x3 obsidian frame with a single portal block in the middle.
+     */
+    public static PortalStructure defaultFrame() {
+        Map<Character, String> palette = Map.of(
+            'O', "minecraft:obsidian",
+            'P', "minecraft:nether_portal[axis=x]"
+        );
+        return compile(palette, List.of(List.of("OOO"), List.of("OPO"), List.of("OOO")));
+    }
+
+    /**
+     * Compile layers (bottom to top) of rows (along Z) of characters (along X) against a palette of
+     * block state strings. Throws IllegalArgumentException on unknown characters or states.
+     */
+    public static PortalStructure compile(Map<Character, String> paletteSpec, List<List<String>> layers) {
+        if (layers.isEmpty()) {
+            throw new IllegalArgumentException("structure has no layers");
+        }
+
+        int depth = 0;
+        int width = 0;
+        for (List<String> rows : layers) {
+            depth = Math.max(depth, rows.size());
+            for (String row : rows) {
+                width = Math.max(width, row.length());
+            }
+        }
+        if (width > 32 || depth > 32 || layers.size() > 32) {
+            throw new IllegalArgumentException("structure is larger than 32x32x32");
+        }
+
+        Map<Character, Short> indexByChar = new HashMap<>();
+        List<BlockData> palette = new ArrayList<>();
+        int originX = width / 2;
+        int originZ = depth / 2;
+
+        List<int[]> blocks = new ArrayList<>();
+        for (int y = 0; y < layers.size(); y++) {
+            List<String> rows = layers.get(y);
+            for (int z = 0; z < rows.size(); z++) {
+                String row = rows.get(z);
+                for (int x = 0; x < row.length(); x++) {
+                    char symbol = row.charAt(x);
+                    if (symbol == SKIP || symbol == ' ') {
+                        continue;
+                    }
+
+                    Short index = indexByChar.get(symbol);
+                    if (index == null) {
+                        String state = paletteSpec.get(symbol);
+                        if (state == null) {
+                            throw new IllegalArgumentException("no palette entry for '" + symbol + "'");
+                        }
+                        index = (short) palette.size();
+                        palette.add(Bukkit.createBlockData(state));
+                        indexByChar.put(symbol, index);
+                    }
+
+                    blocks.add(new int[]{x - originX, y, z - originZ, index});
+                }
+            }
+        }
+
+        int size = blocks.size();
+        byte[] dx = new byte[size];
+        byte[] dy = new byte[size];
+        byte[] dz = new byte[size];
+        short[] paletteIndex = new short[size];
+        for (int i = 0; i < size; i++) {
+            int[] block = blocks.get(i);
+            dx[i] = (byte) block[0];
+            dy[i] = (byte) block[1];
+            dz[i] = (byte) block[2];
+            paletteIndex[i] = (short) block[3];
+        }
+
+        return new PortalStructure(dx, dy, dz, paletteIndex, palette.toArray(new BlockData[0]),
+                                   width, depth, layers.size());
+    }
+
+    public int size() {
+        return paletteIndex.length;
+    }
+
+    public int dx(int index) {
+        return dx[index];
+    }
+
+    public int dy(int index) {
+        return dy[index];
+    }
+
+    public int dz(int index) {
+        return dz[index];
+    }
+
+    /**
+     * The block state to place at a structure index. Shared; clone before mutating.
+     */
+    public BlockData blockData(int index) {
+        return palette[paletteIndex[index]];
+    }
+
+    public Material material(int index) {
+        return palette[paletteIndex[index]].getMaterial();
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
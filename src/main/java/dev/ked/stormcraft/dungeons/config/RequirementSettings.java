@@ -0,0 +1,10 @@
+package dev.ked.stormcraft.dungeons.config;
+
+/**
+ * Compiled requirement check settings.
+ */
+public record RequirementSettings(
+    long cacheTtlMillis,
+    long clickDebounceMillis
+) {
+}
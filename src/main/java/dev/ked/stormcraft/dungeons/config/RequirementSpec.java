@@ -0,0 +1,24 @@
+package dev.ked.stormcraft.dungeons.config;
+
+import java.util.Map;
+
+/**
+ * Compiled entry requirements for a dungeon. Optional limits are null when not configured.
+ */
+public record RequirementSpec(
+    Integer minSel,
+    Integer essenceCost,
+    Integer maxDistanceFromStorm,
+    int minStormIntensity,
+    String permission,
+    Map<String, Integer> requiredCompletions
+) {
+
+    public RequirementSpec {
+        requiredCompletions = Map.copyOf(requiredCompletions);
+    }
+
+    public boolean hasEssenceCost() {
+        return essenceCost != null && essenceCost > 0;
+    }
+}
@@ -0,0 +1,11 @@
+package dev.ked.stormcraft.dungeons.config;
+
+/**
+ * Compiled completion rewards for a dungeon.
+ */
+public record RewardSpec(
+    double essenceBase,
+    double essenceVariance,
+    double completionBonus
+) {
+}
@@ -0,0 +1,13 @@
+package dev.ked.stormcraft.dungeons.config;
+
+/**
+ * Compiled reward settlement settings. Settled runs are remembered for the dedupe window, so a run
+ * reported again within it is not paid twice. Completions without a run id are only treated as
+ * the same run within the much shorter fan-out window.
+ */
+public record SettlementSettings(
+    int payoutsPerTick,
+    int dedupeWindowSeconds,
+    int fanOutWindowSeconds
+) {
+}
@@ -0,0 +1,10 @@
+package dev.ked.stormcraft.dungeons.config;
+
+/**
+ * Compiled completion storage settings. Only read at startup.
+ */
+public record StorageSettings(
+    String type,
+    long compactionIntervalMillis
+) {
+}
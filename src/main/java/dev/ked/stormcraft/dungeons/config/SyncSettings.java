@@ -0,0 +1,16 @@
+package dev.ked.stormcraft.dungeons.config;
+
+/**
+ * Compiled cross-server sync settings. An empty server id falls back to one derived from the
+ * server port; relative directories are inside the plugin folder.
+ */
+public record SyncSettings(
+    boolean enabled,
+    String serverId,
+    String transport,
+    String directory,
+    long flushIntervalMillis,
+    long pollIntervalMillis,
+    boolean announceRemotePortals
+) {
+}
@@ -0,0 +1,93 @@
+package dev.ked.stormcraft.dungeons.data;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * One player's completion counts, indexed by dungeon id.
+ * Counts live in fixed-size chunks that are never copied once created, so growing for a
+ * newly registered dungeon cannot lose a concurrent increment. Reads and increments are lock-free.
+ */
+final class CompletionCounts {
+
+    private static final int CHUNK_SHIFT = 4;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle COUNT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private volatile int[][] chunks;
+
+    CompletionCounts(int expectedIds) {
+        this.chunks = new int[Math.max(1, (expectedIds + CHUNK_MASK) >>> CHUNK_SHIFT)][];
+    }
+
+    int get(int id) {
+        int[][] current = chunks;
+        int chunkIndex = id >>> CHUNK_SHIFT;
+        if (chunkIndex >= current.length) {
+            return 0;
+        }
+
+        int[] chunk = current[chunkIndex];
+        return chunk == null ? 0 : (int) COUNT.getVolatile(chunk, id & CHUNK_MASK);
+    }
+
+    /**
+     * Add one to a count and return the new value.
+     */
+    int increment(int id) {
+        return (int) COUNT.getAndAdd(chunk(id), id & CHUNK_MASK, 1) + 1;
+    }
+
+    void set(int id, int count) {
+        COUNT.setVolatile(chunk(id), id & CHUNK_MASK, count);
+    }
+
+    /**
+     * Visit every non-zero count.
+     */
+    void forEach(IdCountConsumer action) {
+        int[][] current = chunks;
+        for (int chunkIndex = 0; chunkIndex < current.length; chunkIndex++) {
+            int[] chunk = current[chunkIndex];
+            if (chunk == null) {
+                continue;
+            }
+
+            for (int offset = 0; offset < CHUNK_SIZE; offset++) {
+                int count = (int) COUNT.getVolatile(chunk, offset);
+                if (count != 0) {
+                    action.accept((chunkIndex << CHUNK_SHIFT) | offset, count);
+                }
+            }
+        }
+    }
+
+    private int[] chunk(int id) {
+        int chunkIndex = id >>> CHUNK_SHIFT;
+        int[][] current = chunks;
+        if (chunkIndex < current.length && current[chunkIndex] != null) {
+            return current[chunkIndex];
+        }
+        return createChunk(chunkIndex);
+    }
+
+    private synchronized int[] createChunk(int chunkIndex) {
+        int[][] current = chunks;
+        if (chunkIndex < current.length && current[chunkIndex] != null) {
+            return current[chunkIndex];
+        }
+
+        // Only the outer array is copied; existing chunks keep their identity
+        int[][] grown = Arrays.copyOf(current, Math.max(current.length, chunkIndex + 1));
+        grown[chunkIndex] = new int[CHUNK_SIZE];
+        chunks = grown;
+        return grown[chunkIndex];
+    }
+
+    @FunctionalInterface
+    interface IdCountConsumer {
+        void accept(int id, int count);
+    }
+}
@@ -0,0 +1,326 @@
+package dev.ked.stormcraft.dungeons.data;
+
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only completion journal with periodic compaction into a YAML snapshot.
+ *
+ * Increments are queued by the caller and written by a single background thread in batches,
+ * with one fsync per batch. The writer keeps its own copy of the counts so compaction never
+ * touches the main thread. Journals are numbered by generation: the snapshot records the first
+ * generation it does not include, so a crash at any point during compaction replays correctly.
+ */
+public final class CompletionJournal {
+
+    private static final Timer WRITE_TIMER = Metrics.timer("storage_write", "backend=\"journal\"", "Completion writes on the storage thread");
+    private static final Counter WRITE_ERRORS = Metrics.counter("storage_write_errors", "backend=\"journal\"", "Failed completion writes");
+
+    private static final int MAX_BATCH = 1024;
+    private static final Entry SHUTDOWN = new Entry(null, null);
+
+    private final File dataFolder;
+    private final File snapshotFile;
+    private final Logger logger;
+    private final long compactionIntervalMillis;
+
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+
+    // Owned by the writer thread once started
+    private final Map<UUID, Map<String, Integer>> mirror = new HashMap<>();
+    private long generation;
+    private FileChannel channel;
+    private long pendingEntries; // Journal entries not yet folded into the snapshot
+
+    private Thread writer;
+
+    public CompletionJournal(File dataFolder, Logger logger, long compactionIntervalMillis) {
+        this.dataFolder = dataFolder;
+        this.snapshotFile = new File(dataFolder, "playerdata.yml");
+        this.logger = logger;
+        this.compactionIntervalMillis = compactionIntervalMillis;
+    }
+
+    /**
+     * Load the snapshot and replay any journals written since. Must be called before {@link #start()}.
+     * Returns a fresh map owned by the caller.
+     */
+    public Map<UUID, Map<String, Integer>> load() throws IOException {
+        dataFolder.mkdirs();
+
+        YamlConfiguration snapshot = YamlConfiguration.loadConfiguration(snapshotFile);
+        generation = snapshot.getLong("journal_generation", 0);
+
+        ConfigurationSection completionsSection = snapshot.getConfigurationSection("completions");
+        if (completionsSection != null) {
+            for (String uuidStr : completionsSection.getKeys(false)) {
+                try {
+                    UUID uuid = UUID.fromString(uuidStr);
+                    Map<String, Integer> dungeonCounts = new HashMap<>();
+
+                    ConfigurationSection playerSection = completionsSection.getConfigurationSection(uuidStr);
+                    if (playerSection != null) {
+                        for (String dungeonName : playerSection.getKeys(false)) {
+                            dungeonCounts.put(dungeonName, playerSection.getInt(dungeonName, 0));
+                        }
+                    }
+
+                    mirror.put(uuid, dungeonCounts);
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Invalid UUID in playerdata: " + uuidStr);
+                }
+            }
+        }
+
+        // Replay journals this snapshot does not include, oldest first, and drop stale ones
+        long latest = generation;
+        for (long journalGeneration : listJournalGenerations()) {
+            if (journalGeneration < generation) {
+                Files.deleteIfExists(journalFile(journalGeneration).toPath());
+                continue;
+            }
+            pendingEntries += replay(journalFile(journalGeneration));
+            latest = Math.max(latest, journalGeneration);
+        }
+        generation = latest;
+
+        Map<UUID, Map<String, Integer>> copy = new HashMap<>(mirror.size() * 2);
+        for (Map.Entry<UUID, Map<String, Integer>> entry : mirror.entrySet()) {
+            copy.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * Start the background writer.
+     */
+    public void start() throws IOException {
+        channel = FileChannel.open(journalFile(generation).toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        writer = new Thread(this::run, "StormcraftDungeons-Journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue a completion increment. Never blocks.
+     */
+    public void append(UUID playerId, String dungeonName) {
+        queue.offer(new Entry(playerId, dungeonName));
+    }
+
+    /**
+     * Flush queued entries and stop the writer. Compaction is left to the next startup.
+     */
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+
+        queue.offer(SHUTDOWN);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writer.isAlive()) {
+            logger.warning("Completion journal writer did not finish in time; " + queue.size() + " entries pending");
+        }
+        writer = null;
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        // Fold anything replayed at startup into the snapshot straight away
+        long lastCompaction = pendingEntries > 0 ? 0 : System.currentTimeMillis();
+        boolean stopping = false;
+
+        while (!stopping) {
+            try {
+                Entry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+
+            if (batch.remove(SHUTDOWN)) {
+                stopping = true;
+                queue.drainTo(batch); // Anything queued behind the marker
+                batch.remove(SHUTDOWN);
+            }
+
+            try {
+                if (!batch.isEmpty()) {
+                    long start = WRITE_TIMER.start();
+                    writeBatch(batch);
+                    WRITE_TIMER.stop(start);
+                    batch.clear();
+                }
+
+                long now = System.currentTimeMillis();
+                if (!stopping && pendingEntries > 0 && now - lastCompaction >= compactionIntervalMillis) {
+                    compact();
+                    lastCompaction = now;
+                }
+            } catch (IOException e) {
+                WRITE_ERRORS.increment();
+                logger.log(Level.SEVERE, "Failed to write completion journal", e);
+                batch.clear();
+            }
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close completion journal: " + e.getMessage());
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) throws IOException {
+        StringBuilder lines = new StringBuilder(batch.size() * 56);
+        for (Entry entry : batch) {
+            lines.append(entry.playerId).append(' ').append(entry.dungeonName).append('\n');
+            mirror.computeIfAbsent(entry.playerId, id -> new HashMap<>())
+                  .merge(entry.dungeonName, 1, Integer::sum);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        pendingEntries += batch.size();
+    }
+
+    /**
+     * Roll to a new journal generation, write the snapshot, then delete the old journal.
+     */
+    private void compact() throws IOException {
+        long previous = generation;
+
+        // New entries go to the next generation from here on
+        channel.close();
+        generation = previous + 1;
+        channel = FileChannel.open(journalFile(generation).toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        YamlConfiguration snapshot = new YamlConfiguration();
+        snapshot.set("journal_generation", generation);
+        for (Map.Entry<UUID, Map<String, Integer>> entry : mirror.entrySet()) {
+            String uuidStr = entry.getKey().toString();
+            for (Map.Entry<String, Integer> dungeonEntry : entry.getValue().entrySet()) {
+                snapshot.set("completions." + uuidStr + "." + dungeonEntry.getKey(), dungeonEntry.getValue());
+            }
+        }
+
+        File temp = new File(dataFolder, "playerdata.yml.tmp");
+        snapshot.save(temp);
+        Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Everything before the new generation is now in the snapshot
+        for (long journalGeneration : listJournalGenerations()) {
+            if (journalGeneration <= previous) {
+                Files.deleteIfExists(journalFile(journalGeneration).toPath());
+            }
+        }
+        pendingEntries = 0;
+    }
+
+    /**
+     * Replay the complete lines of a journal. A crash mid-write can leave an unterminated tail,
+     * which is cut off so the next append does not run on from it.
+     */
+    private long replay(File journal) throws IOException {
+        byte[] bytes = Files.readAllBytes(journal.toPath());
+        long replayed = 0;
+
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            String line = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+            start = i + 1;
+
+            int space = line.indexOf(' ');
+            if (space <= 0 || space == line.length() - 1) {
+                logger.warning("Skipping corrupt journal line in " + journal.getName());
+                continue;
+            }
+
+            try {
+                UUID uuid = UUID.fromString(line.substring(0, space));
+                mirror.computeIfAbsent(uuid, id -> new HashMap<>())
+                      .merge(line.substring(space + 1), 1, Integer::sum);
+                replayed++;
+            } catch (IllegalArgumentException e) {
+                logger.warning("Skipping corrupt journal line in " + journal.getName());
+            }
+        }
+
+        if (start < bytes.length) {
+            // Torn write from a crash
+            logger.warning("Dropping " + (bytes.length - start) + " byte(s) of unfinished entry at the end of " + journal.getName());
+            try (FileChannel torn = FileChannel.open(journal.toPath(), StandardOpenOption.WRITE)) {
+                torn.truncate(start);
+                torn.force(false);
+            }
+        }
+
+        return replayed;
+    }
+
+    private List<Long> listJournalGenerations() {
+        List<Long> generations = new ArrayList<>();
+        File[] files = dataFolder.listFiles((dir, name) -> name.startsWith("completions-") && name.endsWith(".journal"));
+        if (files == null) {
+            return generations;
+        }
+
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                generations.add(Long.parseLong(name.substring("completions-".length(), name.length() - ".journal".length())));
+            } catch (NumberFormatException ignored) {
+                // Not one of ours
+            }
+        }
+
+        generations.sort(null);
+        return generations;
+    }
+
+    private File journalFile(long journalGeneration) {
+        return new File(dataFolder, "completions-" + journalGeneration + ".journal");
+    }
+
+    private record Entry(UUID playerId, String dungeonName) {
+    }
+}
@@ -0,0 +1,44 @@
+package dev.ked.stormcraft.dungeons.data;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Backing store for dungeon completion counts.
+ * {@link #loadPlayer} may block and must not be called on the main thread;
+ * {@link #recordCompletion} must never block.
+ */
+public interface CompletionStorage {
+
+    /**
+     * Open the store. Called once on the main thread during startup.
+     */
+    void open() throws IOException;
+
+    /**
+     * Read one player's completion counts. Returns an empty map for unknown players.
+     */
+    Map<String, Integer> loadPlayer(UUID playerId) throws IOException;
+
+    /**
+     * Visit every stored count, one call per player and dungeon, in no particular order. Blocks
+     * until done; the visitor may run on another thread. Pending increments are included.
+     */
+    void scanAll(CompletionVisitor visitor) throws IOException;
+
+    /**
+     * Queue a single completion increment for persistence.
+     */
+    void recordCompletion(UUID playerId, String dungeonName);
+
+    /**
+     * Flush pending writes and release resources.
+     */
+    void close();
+
+    @FunctionalInterface
+    interface CompletionVisitor {
+        void accept(UUID playerId, String dungeonName, int count);
+    }
+}
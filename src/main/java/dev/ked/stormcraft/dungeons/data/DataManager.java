@@ -1,119 +1,250 @@
 package dev.ked.stormcraft.dungeons.data;
 
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import dev.ked.stormcraft.dungeons.config.ConfigManager;
+import dev.ked.stormcraft.dungeons.config.DungeonIds;
+import dev.ked.stormcraft.dungeons.config.StorageSettings;
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 
 /**
  * Manages player completion data persistence.
+ * Only online players are held in memory; they are loaded before login and evicted after quit.
+ * In memory, counts are indexed by dungeon id rather than name; see {@link DungeonIds}.
+ * Leaderboards cover every stored player and are built from storage once at startup.
  */
 public class DataManager {
 
+    private static final Timer LOAD_TIMER = Metrics.timer("storage_load", "Reading one player's completions from storage");
+    private static final Timer RECORD_TIMER = Metrics.timer("storage_record", "Handing a completion to storage (caller side)");
+    private static final Timer LEADERBOARD_BUILD_TIMER = Metrics.timer("leaderboard_build", "Building leaderboards from storage at startup");
+    private static final Counter STORAGE_ERRORS = Metrics.counter("storage_errors", "Failed storage reads");
+    private static final long LOGIN_GRACE_TICKS = 20L * 60; // Pre-login to join, generously
+
     private final JavaPlugin plugin;
-    private final File dataFile;
-    private FileConfiguration dataConfig;
+    private final CompletionStorage storage;
+    private final DungeonIds dungeonIds;
+
+    // Online players: UUID -> counts by dungeon id
+    private final Map<UUID, CompletionCounts> completionData;
+    private final Leaderboards leaderboards;
 
-    // Cache: UUID -> (DungeonName -> CompletionCount)
-    private final Map<UUID, Map<String, Integer>> completionData;
+    // Notified after every completion increment made here, and after increments from other servers
+    private final List<BiConsumer<UUID, String>> completionListeners = new CopyOnWriteArrayList<>();
+    private final List<BiConsumer<UUID, String>> remoteCompletionListeners = new CopyOnWriteArrayList<>();
 
-    public DataManager(JavaPlugin plugin) {
+    public DataManager(JavaPlugin plugin, ConfigManager configManager) {
         this.plugin = plugin;
-        this.dataFile = new File(plugin.getDataFolder(), "playerdata.yml");
-        this.completionData = new HashMap<>();
+        this.storage = createStorage(configManager.getSnapshot().getStorageSettings());
+        this.dungeonIds = configManager.getDungeonIds();
+        this.completionData = new ConcurrentHashMap<>();
+        this.leaderboards = new Leaderboards();
+    }
+
+    private CompletionStorage createStorage(StorageSettings settings) {
+        switch (settings.type()) {
+            case "journal":
+                return new JournalCompletionStorage(plugin.getDataFolder(), plugin.getLogger(),
+                                                    settings.compactionIntervalMillis());
+            case "sqlite":
+                return new SqliteCompletionStorage(plugin.getDataFolder(), plugin.getLogger(),
+                                                   settings.compactionIntervalMillis());
+            default:
+                plugin.getLogger().warning("Unknown storage type '" + settings.type() + "', using sqlite");
+                return new SqliteCompletionStorage(plugin.getDataFolder(), plugin.getLogger(),
+                                                   settings.compactionIntervalMillis());
+        }
     }
 
     /**
-     * Load player data from file.
+     * Open the storage backend and load anyone already online (plugin reloads).
+     * Returns false if the backend could not be opened, in which case nothing can be recorded.
      */
-    public void loadData() {
-        if (!dataFile.exists()) {
-            plugin.getDataFolder().mkdirs();
-            try {
-                dataFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Failed to create playerdata.yml: " + e.getMessage());
-                return;
-            }
+    public boolean loadData() {
+        try {
+            storage.open();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to open completion storage: " + e.getMessage());
+            return false;
         }
 
-        dataConfig = YamlConfiguration.loadConfiguration(dataFile);
-
-        // Load into cache
-        if (dataConfig.contains("completions")) {
-            var completionsSection = dataConfig.getConfigurationSection("completions");
-            if (completionsSection != null) {
-                for (String uuidStr : completionsSection.getKeys(false)) {
-                    try {
-                        UUID uuid = UUID.fromString(uuidStr);
-                        Map<String, Integer> dungeonCounts = new HashMap<>();
-
-                        var playerSection = completionsSection.getConfigurationSection(uuidStr);
-                        if (playerSection != null) {
-                            for (String dungeonName : playerSection.getKeys(false)) {
-                                int count = playerSection.getInt(dungeonName, 0);
-                                dungeonCounts.put(dungeonName, count);
-                            }
-                        }
-
-                        completionData.put(uuid, dungeonCounts);
-                    } catch (IllegalArgumentException e) {
-                        plugin.getLogger().warning("Invalid UUID in playerdata: " + uuidStr);
-                    }
-                }
-            }
-        }
+        buildLeaderboards();
 
-        plugin.getLogger().info("Loaded completion data for " + completionData.size() + " players");
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            UUID playerId = player.getUniqueId();
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> loadPlayer(playerId));
+        }
+        return true;
     }
 
     /**
-     * Save player data to file.
+     * Flush pending writes and close the storage backend.
      */
     public void saveData() {
-        dataConfig.set("completions", null); // Clear existing
-
-        for (Map.Entry<UUID, Map<String, Integer>> entry : completionData.entrySet()) {
-            String uuidStr = entry.getKey().toString();
-            for (Map.Entry<String, Integer> dungeonEntry : entry.getValue().entrySet()) {
-                dataConfig.set("completions." + uuidStr + "." + dungeonEntry.getKey(), dungeonEntry.getValue());
-            }
-        }
+        storage.close();
+        plugin.getLogger().info("Saved completion data");
+    }
 
+    /**
+     * Load a player's completions into memory. Blocks; call from an async thread such as pre-login.
+     */
+    public void loadPlayer(UUID playerId) {
         try {
-            dataConfig.save(dataFile);
-            plugin.getLogger().info("Saved completion data for " + completionData.size() + " players");
+            completionData.put(playerId, toCounts(loadFromStorage(playerId)));
         } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save playerdata.yml: " + e.getMessage());
+            plugin.getLogger().warning("Failed to load completions for " + playerId + ": " + e.getMessage());
         }
     }
 
+    /**
+     * Evict a player's completions once they have left, or once their login has been refused.
+     * Identity-checked so a reconnect that has already reloaded the player is left alone.
+     */
+    public void unloadPlayer(UUID playerId) {
+        evictIfOffline(playerId, 1L);
+    }
+
+    /**
+     * Evict completions loaded at pre-login if the player has not joined by the time a login
+     * could take, e.g. because the connection dropped before the login finished. Any thread.
+     */
+    public void expireIfNotJoined(UUID playerId) {
+        evictIfOffline(playerId, LOGIN_GRACE_TICKS);
+    }
+
+    private void evictIfOffline(UUID playerId, long delayTicks) {
+        CompletionCounts loaded = completionData.get(playerId);
+        if (loaded == null) {
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            if (plugin.getServer().getPlayer(playerId) == null) {
+                completionData.remove(playerId, loaded);
+            }
+        }, delayTicks);
+    }
+
     /**
      * Get the number of times a player has completed a dungeon.
+     * Players that are not loaded report zero.
      */
     public int getCompletionCount(UUID playerId, String dungeonName) {
-        return completionData.getOrDefault(playerId, new HashMap<>()).getOrDefault(dungeonName, 0);
+        int dungeonId = dungeonIds.idOf(dungeonName);
+        return dungeonId < 0 ? 0 : getCompletionCount(playerId, dungeonId);
+    }
+
+    /**
+     * Get the number of times a player has completed a dungeon, by dungeon id. Does not allocate.
+     */
+    public int getCompletionCount(UUID playerId, int dungeonId) {
+        CompletionCounts counts = completionData.get(playerId);
+        return counts == null ? 0 : counts.get(dungeonId);
     }
 
     /**
      * Increment a player's completion count for a dungeon.
      */
     public void incrementCompletion(UUID playerId, String dungeonName) {
-        completionData.putIfAbsent(playerId, new HashMap<>());
-        Map<String, Integer> dungeonCounts = completionData.get(playerId);
-        dungeonCounts.put(dungeonName, dungeonCounts.getOrDefault(dungeonName, 0) + 1);
+        addCompletions(playerId, dungeonName, 1);
+
+        for (BiConsumer<UUID, String> listener : completionListeners) {
+            listener.accept(playerId, dungeonName);
+        }
+    }
+
+    /**
+     * Apply completions that happened on another server. Stored and ranked like local ones, but
+     * only remote listeners are notified, so they are not sent back out.
+     */
+    public void applyRemoteCompletions(UUID playerId, String dungeonName, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        addCompletions(playerId, dungeonName, amount);
+
+        for (BiConsumer<UUID, String> listener : remoteCompletionListeners) {
+            listener.accept(playerId, dungeonName);
+        }
     }
 
     /**
-     * Get all completion data for a player.
+     * Register a callback invoked after a player's completion count changes on this server.
+     */
+    public void addCompletionListener(BiConsumer<UUID, String> listener) {
+        completionListeners.add(listener);
+        remoteCompletionListeners.add(listener);
+    }
+
+    /**
+     * Register a callback invoked only for completions on this server, e.g. to send them elsewhere.
+     */
+    public void addLocalCompletionListener(BiConsumer<UUID, String> listener) {
+        completionListeners.add(listener);
+    }
+
+    private void addCompletions(UUID playerId, String dungeonName, int amount) {
+        int dungeonId = dungeonIds.intern(dungeonName);
+        CompletionCounts counts = completionData.get(playerId);
+        if (counts != null) {
+            for (int i = 0; i < amount; i++) {
+                counts.increment(dungeonId);
+            }
+        }
+        leaderboards.add(playerId, dungeonId, amount);
+
+        long start = RECORD_TIMER.start();
+        for (int i = 0; i < amount; i++) {
+            storage.recordCompletion(playerId, dungeonName);
+        }
+        RECORD_TIMER.stop(start);
+    }
+
+    /**
+     * Get all completion data for a loaded player.
      */
     public Map<String, Integer> getPlayerCompletions(UUID playerId) {
-        return new HashMap<>(completionData.getOrDefault(playerId, new HashMap<>()));
+        return toMap(completionData.get(playerId));
+    }
+
+    /**
+     * Look up any player's completions, online or not. Storage reads happen off the main thread;
+     * the future may complete on an async thread.
+     */
+    public CompletableFuture<Map<String, Integer>> lookupCompletions(UUID playerId) {
+        CompletionCounts counts = completionData.get(playerId);
+        if (counts != null) {
+            return CompletableFuture.completedFuture(toMap(counts));
+        }
+
+        CompletableFuture<Map<String, Integer>> future = new CompletableFuture<>();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(loadFromStorage(playerId));
+            } catch (IOException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Completion leaderboards, current as of the last increment. Main thread only.
+     */
+    public Leaderboards getLeaderboards() {
+        return leaderboards;
     }
 
     /**
@@ -122,4 +253,50 @@ public class DataManager {
     public boolean isFirstCompletion(UUID playerId, String dungeonName) {
         return getCompletionCount(playerId, dungeonName) == 0;
     }
+
+    /**
+     * One pass over storage. Blocks startup briefly rather than serving partial leaderboards.
+     */
+    private void buildLeaderboards() {
+        long start = LEADERBOARD_BUILD_TIMER.start();
+        try {
+            storage.scanAll((playerId, dungeonName, count) ->
+                leaderboards.add(playerId, dungeonIds.intern(dungeonName), count));
+            plugin.getLogger().info(String.format("Built leaderboards for %d players in %d ms",
+                leaderboards.size(Leaderboards.OVERALL), (System.nanoTime() - start) / 1_000_000));
+        } catch (IOException e) {
+            STORAGE_ERRORS.increment();
+            plugin.getLogger().warning("Failed to build leaderboards: " + e.getMessage());
+        } finally {
+            LEADERBOARD_BUILD_TIMER.stop(start);
+        }
+    }
+
+    private Map<String, Integer> loadFromStorage(UUID playerId) throws IOException {
+        long start = LOAD_TIMER.start();
+        try {
+            return storage.loadPlayer(playerId);
+        } catch (IOException e) {
+            STORAGE_ERRORS.increment();
+            throw e;
+        } finally {
+            LOAD_TIMER.stop(start);
+        }
+    }
+
+    private CompletionCounts toCounts(Map<String, Integer> dungeonCounts) {
+        CompletionCounts counts = new CompletionCounts(dungeonIds.size());
+        for (Map.Entry<String, Integer> entry : dungeonCounts.entrySet()) {
+            counts.set(dungeonIds.intern(entry.getKey()), entry.getValue());
+        }
+        return counts;
+    }
+
+    private Map<String, Integer> toMap(CompletionCounts counts) {
+        Map<String, Integer> dungeonCounts = new HashMap<>();
+        if (counts != null) {
+            counts.forEach((dungeonId, count) -> dungeonCounts.put(dungeonIds.nameOf(dungeonId), count));
+        }
+        return dungeonCounts;
+    }
 }
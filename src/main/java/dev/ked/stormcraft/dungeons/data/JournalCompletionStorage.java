@@ -0,0 +1,66 @@
+package dev.ked.stormcraft.dungeons.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Flat-file storage on top of {@link CompletionJournal}.
+ * The journal format has no per-player index, so every player is held in memory.
+ */
+public class JournalCompletionStorage implements CompletionStorage {
+
+    private final CompletionJournal journal;
+    private final Map<UUID, Map<String, Integer>> completions = new ConcurrentHashMap<>();
+
+    public JournalCompletionStorage(File dataFolder, Logger logger, long compactionIntervalMillis) {
+        this.journal = new CompletionJournal(dataFolder, logger, compactionIntervalMillis);
+    }
+
+    @Override
+    public void open() throws IOException {
+        completions.putAll(journal.load());
+        journal.start();
+    }
+
+    @Override
+    public Map<String, Integer> loadPlayer(UUID playerId) {
+        Map<String, Integer> dungeonCounts = completions.get(playerId);
+        if (dungeonCounts == null) {
+            return new HashMap<>();
+        }
+        synchronized (dungeonCounts) {
+            return new HashMap<>(dungeonCounts);
+        }
+    }
+
+    @Override
+    public void scanAll(CompletionVisitor visitor) {
+        for (Map.Entry<UUID, Map<String, Integer>> entry : completions.entrySet()) {
+            Map<String, Integer> dungeonCounts = entry.getValue();
+            synchronized (dungeonCounts) {
+                for (Map.Entry<String, Integer> dungeonEntry : dungeonCounts.entrySet()) {
+                    visitor.accept(entry.getKey(), dungeonEntry.getKey(), dungeonEntry.getValue());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void recordCompletion(UUID playerId, String dungeonName) {
+        Map<String, Integer> dungeonCounts = completions.computeIfAbsent(playerId, id -> new HashMap<>());
+        synchronized (dungeonCounts) {
+            dungeonCounts.merge(dungeonName, 1, Integer::sum);
+        }
+        journal.append(playerId, dungeonName);
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+}
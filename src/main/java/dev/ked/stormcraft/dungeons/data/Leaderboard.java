@@ -0,0 +1,176 @@
+package dev.ked.stormcraft.dungeons.data;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Completion counts for one dungeon (or all of them) ranked highest first, over dense player ids.
+ *
+ * Players with the same count form a bucket, an intrusive linked list in the order they reached the
+ * count, so whoever got there first is listed first. Nonempty buckets are kept in a tree map by
+ * count, and a Fenwick tree over counts answers how many players are above a given count. An
+ * increment moves one player to the next bucket in O(log n); a rank is O(log c), c being the highest
+ * count; the top k are read in O(k + log n). Players with no completions are not ranked.
+ */
+final class Leaderboard {
+
+    private static final int NONE = -1;
+
+    private int[] counts = new int[0]; // By player id
+    private int[] next = new int[0];   // Towards the back of the player's bucket
+    private int[] previous = new int[0];
+    private final TreeMap<Integer, Bucket> buckets = new TreeMap<>();
+    private int[] fenwick = new int[65]; // 1-based by count: players with exactly that count
+    private int ranked;
+
+    /**
+     * Number of players with at least one completion.
+     */
+    int size() {
+        return ranked;
+    }
+
+    int count(int playerId) {
+        return playerId < counts.length ? counts[playerId] : 0;
+    }
+
+    /**
+     * Raise a player's count by amount. Ties are broken in favour of whoever reached the count first.
+     */
+    void add(int playerId, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        ensurePlayer(playerId);
+
+        int oldCount = counts[playerId];
+        int newCount = oldCount + amount;
+        if (oldCount > 0) {
+            unlink(playerId, oldCount);
+            fenwickAdd(oldCount, -1);
+        } else {
+            ranked++;
+        }
+
+        counts[playerId] = newCount;
+        fenwickAdd(newCount, 1); // Before append, so a rebuild does not count the player twice
+        append(playerId, newCount);
+    }
+
+    /**
+     * 1-based competition rank (players tied on a count share the rank), or 0 if unranked.
+     */
+    int rank(int playerId) {
+        int count = count(playerId);
+        return count == 0 ? 0 : ranked - atMost(count) + 1;
+    }
+
+    /**
+     * Player ids of the top limit players, best first.
+     */
+    int[] top(int limit) {
+        int[] top = new int[Math.min(limit, ranked)];
+        int filled = 0;
+        for (Map.Entry<Integer, Bucket> entry : buckets.descendingMap().entrySet()) {
+            for (int id = entry.getValue().head; id != NONE && filled < top.length; id = next[id]) {
+                top[filled++] = id;
+            }
+            if (filled == top.length) {
+                break;
+            }
+        }
+        return top;
+    }
+
+    private void ensurePlayer(int playerId) {
+        if (playerId < counts.length) {
+            return;
+        }
+        int capacity = Math.max(playerId + 1, Math.max(16, counts.length * 2));
+        counts = Arrays.copyOf(counts, capacity);
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+    }
+
+    private void append(int playerId, int count) {
+        Bucket bucket = buckets.computeIfAbsent(count, c -> new Bucket());
+        previous[playerId] = bucket.tail;
+        next[playerId] = NONE;
+        if (bucket.tail != NONE) {
+            next[bucket.tail] = playerId;
+        } else {
+            bucket.head = playerId;
+        }
+        bucket.tail = playerId;
+        bucket.size++;
+    }
+
+    private void unlink(int playerId, int count) {
+        Bucket bucket = buckets.get(count);
+        int before = previous[playerId];
+        int after = next[playerId];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            bucket.head = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        } else {
+            bucket.tail = before;
+        }
+        if (--bucket.size == 0) {
+            buckets.remove(count);
+        }
+    }
+
+    private void fenwickAdd(int count, int delta) {
+        if (count >= fenwick.length) {
+            growFenwick(count);
+        }
+        for (int i = count; i < fenwick.length; i += i & -i) {
+            fenwick[i] += delta;
+        }
+    }
+
+    /**
+     * Players whose count is at most the given count.
+     */
+    private int atMost(int count) {
+        int sum = 0;
+        for (int i = Math.min(count, fenwick.length - 1); i > 0; i -= i & -i) {
+            sum += fenwick[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Rebuild the Fenwick tree large enough for count from the bucket sizes, in O(c).
+     */
+    private void growFenwick(int count) {
+        int length = fenwick.length;
+        while (length <= count) {
+            length *= 2;
+        }
+
+        int[] grown = new int[length];
+        for (Map.Entry<Integer, Bucket> entry : buckets.entrySet()) {
+            grown[entry.getKey()] = entry.getValue().size;
+        }
+        // Exact counts to Fenwick sums in place
+        for (int i = 1; i < length; i++) {
+            int parent = i + (i & -i);
+            if (parent < length) {
+                grown[parent] += grown[i];
+            }
+        }
+        fenwick = grown;
+    }
+
+    private static final class Bucket {
+        private int head = NONE;
+        private int tail = NONE;
+        private int size;
+    }
+}
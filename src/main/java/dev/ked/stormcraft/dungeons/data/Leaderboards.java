@@ -0,0 +1,89 @@
+package dev.ked.stormcraft.dungeons.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Completion leaderboards: one per dungeon id plus an overall one counting every completion.
+ * Built from storage at startup and kept current by {@link DataManager#incrementCompletion}, so
+ * queries never scan. Players are mapped to dense ids shared by every board. Main thread only.
+ */
+public final class Leaderboards {
+
+    /** Dungeon id of the overall leaderboard. */
+    public static final int OVERALL = -1;
+
+    /**
+     * One leaderboard line. Rank is 1-based; players tied on a count share it.
+     */
+    public record Entry(UUID playerId, int count, int rank) {
+    }
+
+    private final Map<UUID, Integer> playerIds = new HashMap<>();
+    private final List<UUID> players = new ArrayList<>();
+    private final Leaderboard overall = new Leaderboard();
+    private final List<Leaderboard> byDungeon = new ArrayList<>();
+
+    /**
+     * Add completions to a player's count for a dungeon id and to their overall count.
+     */
+    void add(UUID playerId, int dungeonId, int amount) {
+        int id = playerIds.computeIfAbsent(playerId, uuid -> {
+            players.add(uuid);
+            return players.size() - 1;
+        });
+
+        while (byDungeon.size() <= dungeonId) {
+            byDungeon.add(new Leaderboard());
+        }
+        byDungeon.get(dungeonId).add(id, amount);
+        overall.add(id, amount);
+    }
+
+    /**
+     * The top limit players of a dungeon id, or of {@link #OVERALL}, best first.
+     */
+    public List<Entry> top(int dungeonId, int limit) {
+        Leaderboard board = board(dungeonId);
+        if (board == null) {
+            return List.of();
+        }
+
+        int[] ids = board.top(limit);
+        List<Entry> entries = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            entries.add(new Entry(players.get(id), board.count(id), board.rank(id)));
+        }
+        return entries;
+    }
+
+    /**
+     * A player's line on a dungeon id's leaderboard, or of {@link #OVERALL}; null if unranked.
+     */
+    public Entry get(UUID playerId, int dungeonId) {
+        Leaderboard board = board(dungeonId);
+        Integer id = playerIds.get(playerId);
+        if (board == null || id == null || board.count(id) == 0) {
+            return null;
+        }
+        return new Entry(playerId, board.count(id), board.rank(id));
+    }
+
+    /**
+     * Number of ranked players on a dungeon id's leaderboard, or of {@link #OVERALL}.
+     */
+    public int size(int dungeonId) {
+        Leaderboard board = board(dungeonId);
+        return board == null ? 0 : board.size();
+    }
+
+    private Leaderboard board(int dungeonId) {
+        if (dungeonId == OVERALL) {
+            return overall;
+        }
+        return dungeonId >= 0 && dungeonId < byDungeon.size() ? byDungeon.get(dungeonId) : null;
+    }
+}
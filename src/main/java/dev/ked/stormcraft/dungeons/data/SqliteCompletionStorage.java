@@ -0,0 +1,215 @@
+package dev.ked.stormcraft.dungeons.data;
+
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded SQLite storage, one row per (player, dungeon).
+ * The connection is owned by a single worker thread; reads wait on it, writes are fire-and-forget.
+ */
+public class SqliteCompletionStorage implements CompletionStorage {
+
+    private static final Timer WRITE_TIMER = Metrics.timer("storage_write", "backend=\"sqlite\"", "Completion writes on the storage thread");
+    private static final Counter WRITE_ERRORS = Metrics.counter("storage_write_errors", "backend=\"sqlite\"", "Failed completion writes");
+
+    private static final String CREATE_TABLE =
+        "CREATE TABLE IF NOT EXISTS completions (" +
+        " player_uuid TEXT NOT NULL," +
+        " dungeon TEXT NOT NULL," +
+        " count INTEGER NOT NULL," +
+        " PRIMARY KEY (player_uuid, dungeon))";
+    private static final String SELECT_PLAYER =
+        "SELECT dungeon, count FROM completions WHERE player_uuid = ?";
+    private static final String SELECT_ALL =
+        "SELECT player_uuid, dungeon, count FROM completions";
+    private static final String INCREMENT =
+        "INSERT INTO completions (player_uuid, dungeon, count) VALUES (?, ?, 1) " +
+        "ON CONFLICT (player_uuid, dungeon) DO UPDATE SET count = count + 1";
+    private static final String UPSERT =
+        "INSERT INTO completions (player_uuid, dungeon, count) VALUES (?, ?, ?) " +
+        "ON CONFLICT (player_uuid, dungeon) DO UPDATE SET count = excluded.count";
+
+    private final File dataFolder;
+    private final File databaseFile;
+    private final Logger logger;
+    private final long legacyCompactionIntervalMillis;
+    private final ExecutorService worker;
+
+    // Only touched from the worker thread
+    private Connection connection;
+    private PreparedStatement selectPlayer;
+    private PreparedStatement increment;
+
+    public SqliteCompletionStorage(File dataFolder, Logger logger, long legacyCompactionIntervalMillis) {
+        this.dataFolder = dataFolder;
+        this.databaseFile = new File(dataFolder, "completions.db");
+        this.logger = logger;
+        this.legacyCompactionIntervalMillis = legacyCompactionIntervalMillis;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "StormcraftDungeons-SQLite");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void open() throws IOException {
+        dataFolder.mkdirs();
+        await(worker.submit(() -> {
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute(CREATE_TABLE);
+            }
+            selectPlayer = connection.prepareStatement(SELECT_PLAYER);
+            increment = connection.prepareStatement(INCREMENT);
+            importLegacyData();
+            return null;
+        }));
+    }
+
+    @Override
+    public Map<String, Integer> loadPlayer(UUID playerId) throws IOException {
+        return await(worker.submit(() -> {
+            Map<String, Integer> dungeonCounts = new HashMap<>();
+            selectPlayer.setString(1, playerId.toString());
+            try (ResultSet results = selectPlayer.executeQuery()) {
+                while (results.next()) {
+                    dungeonCounts.put(results.getString(1), results.getInt(2));
+                }
+            }
+            return dungeonCounts;
+        }));
+    }
+
+    /**
+     * Runs on the worker after every write already queued, so those are included.
+     */
+    @Override
+    public void scanAll(CompletionVisitor visitor) throws IOException {
+        await(worker.submit(() -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet results = statement.executeQuery(SELECT_ALL)) {
+                while (results.next()) {
+                    try {
+                        visitor.accept(UUID.fromString(results.getString(1)), results.getString(2), results.getInt(3));
+                    } catch (IllegalArgumentException e) {
+                        logger.warning("Skipping completion row with invalid player id " + results.getString(1));
+                    }
+                }
+            }
+            return null;
+        }));
+    }
+
+    @Override
+    public void recordCompletion(UUID playerId, String dungeonName) {
+        worker.execute(() -> {
+            long start = WRITE_TIMER.start();
+            try {
+                increment.setString(1, playerId.toString());
+                increment.setString(2, dungeonName);
+                increment.executeUpdate();
+            } catch (SQLException e) {
+                WRITE_ERRORS.increment();
+                logger.log(Level.SEVERE, "Failed to record completion of " + dungeonName + " for " + playerId, e);
+            } finally {
+                WRITE_TIMER.stop(start);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        worker.execute(() -> {
+            try {
+                if (connection != null) {
+                    connection.close();
+                }
+            } catch (SQLException e) {
+                logger.warning("Failed to close completion database: " + e.getMessage());
+            }
+        });
+        worker.shutdown();
+
+        try {
+            if (!worker.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warning("Completion database did not finish pending writes in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One-time import of playerdata.yml and its journals into an empty database.
+     */
+    private void importLegacyData() throws SQLException, IOException {
+        if (!new File(dataFolder, "playerdata.yml").exists()) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement();
+             ResultSet results = statement.executeQuery("SELECT 1 FROM completions LIMIT 1")) {
+            if (results.next()) {
+                return;
+            }
+        }
+
+        Map<UUID, Map<String, Integer>> legacy =
+            new CompletionJournal(dataFolder, logger, legacyCompactionIntervalMillis).load();
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT)) {
+            for (Map.Entry<UUID, Map<String, Integer>> entry : legacy.entrySet()) {
+                for (Map.Entry<String, Integer> dungeonEntry : entry.getValue().entrySet()) {
+                    upsert.setString(1, entry.getKey().toString());
+                    upsert.setString(2, dungeonEntry.getKey());
+                    upsert.setInt(3, dungeonEntry.getValue());
+                    upsert.addBatch();
+                }
+            }
+            upsert.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+
+        logger.info("Imported completion data for " + legacy.size() + " players from playerdata.yml");
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for completion database", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package dev.ked.stormcraft.dungeons.entry;
+
+import dev.ked.stormcraft.dungeons.config.ConfigManager;
+import dev.ked.stormcraft.dungeons.config.EntrySettings;
+import dev.ked.stormcraft.dungeons.integration.MythicDungeonsIntegration;
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
+import dev.ked.stormcraft.dungeons.portal.Portal;
+import dev.ked.stormcraft.dungeons.requirement.RequirementChecker;
+import dev.ked.stormcraft.dungeons.requirement.RequirementResult;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Portal entry requests, queued per portal and worked through a few players per tick. Clicking a
+ * portal only joins the queue; requirement checks, entry costs and the MythicDungeons GUI happen
+ * here, so a crowd at a fresh portal is spread over several ticks instead of landing on one.
+ * Portals take turns so one busy portal cannot starve the others. Party members waiting at the
+ * same portal share a request: they are checked together and enter only if all of them qualify.
+ * The task only runs while something is queued. Main thread only.
+ */
+public class EntryQueue {
+
+    private static final String BYPASS_PERMISSION = "stormcraft.dungeons.bypass";
+
+    private static final Timer BATCH_TIMER = Metrics.timer("entry_batch", "Portal entry requests processed in one tick");
+    private static final Counter ADMITTED = Metrics.counter("entry_admitted", "Players sent to a dungeon from a portal queue");
+    private static final Counter REFUSED = Metrics.counter("entry_refused", "Queued players turned back by requirements or entry costs");
+    private static final Counter QUEUE_FULL = Metrics.counter("entry_queue_full", "Portal clicks turned away by a full queue");
+    private static final Counter EXPIRED = Metrics.counter("entry_expired", "Queued players dropped after waiting too long");
+
+    public enum Status {
+        /** Added to the portal's queue (or to their party's request). */
+        QUEUED,
+        /** Already waiting at this portal. */
+        ALREADY_QUEUED,
+        /** The portal's queue is full. */
+        FULL
+    }
+
+    /**
+     * Outcome of a click. Position counts waiting players, 1 being next; 0 when the queue was full.
+     */
+    public record Ticket(Status status, int position) {
+    }
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final RequirementChecker requirementChecker;
+    private final MythicDungeonsIntegration mythicDungeons;
+
+    private final Map<UUID, Line> lines;        // By portal id, in turn order
+    private final Map<UUID, Request> waiting;   // By player id; a player waits at one portal at a time
+    private BukkitTask task;
+
+    public EntryQueue(JavaPlugin plugin, ConfigManager configManager,
+                      RequirementChecker requirementChecker,
+                      MythicDungeonsIntegration mythicDungeons) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.requirementChecker = requirementChecker;
+        this.mythicDungeons = mythicDungeons;
+        this.lines = new LinkedHashMap<>();
+        this.waiting = new HashMap<>();
+    }
+
+    /**
+     * Queue a player for a portal. Joining another portal's queue leaves the previous one; a
+     * party member joins a request their party already has waiting at the portal.
+     */
+    public Ticket enqueue(Player player, Portal portal) {
+        UUID playerId = player.getUniqueId();
+        Request current = waiting.get(playerId);
+        if (current != null) {
+            if (current.portal == portal) {
+                return new Ticket(Status.ALREADY_QUEUED, lines.get(portal.getId()).positionOf(current));
+            }
+            remove(playerId);
+        }
+
+        Line line = lines.get(portal.getId());
+        if (line == null) {
+            line = new Line();
+            lines.put(portal.getId(), line);
+        }
+
+        Object party = mythicDungeons != null ? mythicDungeons.getParty(player) : null;
+        if (party != null) {
+            for (Request request : line.requests) {
+                if (party.equals(request.party)) {
+                    // Parties stay together even past the queue limit
+                    request.players.add(player);
+                    line.players++;
+                    waiting.put(playerId, request);
+                    return new Ticket(Status.QUEUED, line.positionOf(request));
+                }
+            }
+        }
+
+        if (line.players >= configManager.getSnapshot().getEntrySettings().maxQueuePerPortal()) {
+            QUEUE_FULL.increment();
+            return new Ticket(Status.FULL, 0);
+        }
+
+        Request request = new Request(portal, party, Bukkit.getCurrentTick());
+        request.players.add(player);
+        line.requests.addLast(request);
+        line.players++;
+        waiting.put(playerId, request);
+        ensureRunning();
+        return new Ticket(Status.QUEUED, line.players);
+    }
+
+    /**
+     * Take a player out of whatever queue they are in, e.g. on quit.
+     */
+    public void remove(UUID playerId) {
+        Request request = waiting.remove(playerId);
+        if (request == null) {
+            return;
+        }
+
+        request.players.removeIf(player -> player.getUniqueId().equals(playerId));
+        Line line = lines.get(request.portal.getId());
+        line.players--;
+        if (request.players.isEmpty()) {
+            line.requests.remove(request);
+            if (line.requests.isEmpty()) {
+                lines.remove(request.portal.getId());
+            }
+        }
+    }
+
+    /**
+     * Drop every queued request without processing it. For shutdown.
+     */
+    public void shutdown() {
+        lines.clear();
+        waiting.clear();
+        stop();
+    }
+
+    private void tick() {
+        EntrySettings settings = configManager.getSnapshot().getEntrySettings();
+        long start = BATCH_TIMER.start();
+        long deadline = start + (long) (settings.maxMillisPerTick() * 1_000_000);
+        try {
+            expire(Bukkit.getCurrentTick() - settings.maxWaitSeconds() * 20L);
+
+            // One request per portal per round; a party counts all its members against the budget
+            int budget = settings.playersPerTick();
+            boolean first = true;
+            while (budget > 0 && !lines.isEmpty()) {
+                Iterator<Line> iterator = lines.values().iterator();
+                while (iterator.hasNext() && budget > 0) {
+                    if (!first && System.nanoTime() >= deadline) {
+                        return;
+                    }
+
+                    Line line = iterator.next();
+                    Request request = line.requests.pollFirst();
+                    line.players -= request.players.size();
+                    if (line.requests.isEmpty()) {
+                        iterator.remove();
+                    }
+                    for (Player player : request.players) {
+                        waiting.remove(player.getUniqueId());
+                    }
+
+                    budget -= admit(request);
+                    first = false;
+                }
+            }
+        } finally {
+            BATCH_TIMER.stop(start);
+            if (lines.isEmpty()) {
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Drop requests queued before the cutoff tick. Requests join at the back, so only the front of
+     * each queue needs looking at.
+     */
+    private void expire(long cutoffTick) {
+        Iterator<Line> iterator = lines.values().iterator();
+        while (iterator.hasNext()) {
+            Line line = iterator.next();
+            while (!line.requests.isEmpty() && line.requests.peekFirst().queuedAt < cutoffTick) {
+                Request request = line.requests.pollFirst();
+                line.players -= request.players.size();
+                EXPIRED.add(request.players.size());
+                for (Player player : request.players) {
+                    waiting.remove(player.getUniqueId());
+                    player.sendMessage("§c✗ You waited too long at the portal. Click it again to rejoin the line.");
+                }
+            }
+            if (line.requests.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Check and admit one request. Returns the number of players it covered.
+     */
+    private int admit(Request request) {
+        request.players.removeIf(player -> !player.isOnline());
+        List<Player> players = request.players;
+        if (players.isEmpty()) {
+            return 0;
+        }
+
+        Portal portal = request.portal;
+        if (!portal.isActive()) {
+            for (Player player : players) {
+                player.sendMessage("§c✗ The portal closed before you could enter.");
+            }
+            return players.size();
+        }
+
+        if (mythicDungeons == null || !mythicDungeons.isEnabled()) {
+            for (Player player : players) {
+                player.sendMessage("§c✗ Dungeon system is currently unavailable!");
+                player.sendMessage("§7MythicDungeons is not installed. Contact an administrator.");
+            }
+            return players.size();
+        }
+
+        // Everyone is checked before anyone pays, so a party enters together or not at all
+        List<String> blocking = new ArrayList<>(0);
+        for (Player player : players) {
+            if (player.hasPermission(BYPASS_PERMISSION)) {
+                continue;
+            }
+
+            RequirementResult result = requirementChecker.checkRequirements(player, portal);
+            if (result != null && !result.passed()) {
+                player.sendMessage("§c✗ You cannot enter this dungeon!");
+                player.sendMessage("§e⚠ Requirements:");
+                for (String failure : result.getFailureMessages()) {
+                    player.sendMessage("  " + failure);
+                }
+                blocking.add(player.getName());
+            }
+        }
+
+        if (!blocking.isEmpty()) {
+            REFUSED.add(players.size());
+            if (blocking.size() < players.size()) {
+                String names = String.join(", ", blocking);
+                for (Player player : players) {
+                    if (!blocking.contains(player.getName())) {
+                        player.sendMessage("§c✗ Your party cannot enter: §e" + names + " §cdoes not meet the requirements.");
+                    }
+                }
+            }
+            return players.size();
+        }
+
+        // A check can pass on a cached result after a balance has dropped, so a cost can still fail
+        // here; everyone charged so far is refunded and nobody enters
+        List<Player> charged = new ArrayList<>(players.size());
+        for (Player player : players) {
+            if (player.hasPermission(BYPASS_PERMISSION)) {
+                continue;
+            }
+            if (!requirementChecker.consumeEntryCosts(player, portal.getDungeonName())) {
+                for (Player refunded : charged) {
+                    requirementChecker.refundEntryCosts(refunded, portal.getDungeonName());
+                }
+                REFUSED.add(players.size());
+                player.sendMessage("§c✗ Failed to process entry cost!");
+                for (Player other : players) {
+                    if (other != player) {
+                        other.sendMessage("§c✗ Your party cannot enter: §e" + player.getName() + " §ccould not pay the entry cost.");
+                    }
+                }
+                return players.size();
+            }
+            charged.add(player);
+        }
+
+        for (Player player : players) {
+            mythicDungeons.openDungeonGUI(player, portal.getDungeonName());
+            player.sendMessage("§a✓ Entering " + portal.getDungeonName() + "...");
+            ADMITTED.increment();
+        }
+        return players.size();
+    }
+
+    private void ensureRunning() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * The requests waiting at one portal, oldest first.
+     */
+    private static final class Line {
+
+        private final ArrayDeque<Request> requests = new ArrayDeque<>();
+        private int players;
+
+        /**
+         * Position of the request's first player, counting every player queued ahead of it.
+         */
+        private int positionOf(Request target) {
+            int position = 1;
+            for (Request request : requests) {
+                if (request == target) {
+                    break;
+                }
+                position += request.players.size();
+            }
+            return position;
+        }
+    }
+
+    /**
+     * One player, or several members of a party, waiting to enter through a portal.
+     */
+    private static final class Request {
+
+        private final Portal portal;
+        private final Object party;  // null when not in a party
+        private final long queuedAt; // Server tick
+        private final List<Player> players = new ArrayList<>(1);
+
+        private Request(Portal portal, Object party, long queuedAt) {
+            this.portal = portal;
+            this.party = party;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
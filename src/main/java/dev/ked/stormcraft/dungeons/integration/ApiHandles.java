@@ -0,0 +1,64 @@
+package dev.ked.stormcraft.dungeons.integration;
+
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Resolves reflective API methods once into typed method handles bound to their target.
+ */
+public final class ApiHandles {
+
+    private ApiHandles() {
+    }
+
+    /**
+     * Bind a public instance method on the target to the exact type {@code (params) -> returnType}.
+     * Returns null if the method does not exist or cannot be adapted.
+     */
+    public static MethodHandle bind(Object target, List<String> missing, String name, Class<?> returnType, Class<?>... params) {
+        MethodHandle handle = find(target.getClass(), name, returnType, params);
+        if (handle == null) {
+            missing.add(name);
+            return null;
+        }
+        return handle.bindTo(target);
+    }
+
+    /**
+     * Latency timer for calls into another plugin's API, labelled e.g. {@code essence.getPlayerSEL}.
+     */
+    public static Timer callTimer(String call) {
+        return Metrics.timer("integration_call", "call=\"" + call + '"', "Calls into other plugins' APIs");
+    }
+
+    /**
+     * Failure counter for one integration's API calls.
+     */
+    public static Counter callErrors(String integration) {
+        return Metrics.counter("integration_call_errors", "integration=\"" + integration + '"', "Calls into other plugins' APIs that threw");
+    }
+
+    /**
+     * Resolve a public instance method, typed as {@code (receiver, params) -> returnType} with an Object receiver.
+     * Returns null if the method does not exist or cannot be adapted.
+     */
+    public static MethodHandle find(Class<?> targetClass, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            Method method = targetClass.getMethod(name, params);
+            method.setAccessible(true); // Implementation classes are often not public
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+
+            MethodType exactType = MethodType.methodType(returnType, params).insertParameterTypes(0, Object.class);
+            return MethodHandles.explicitCastArguments(handle, exactType);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
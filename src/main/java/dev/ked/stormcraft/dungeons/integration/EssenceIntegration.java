@@ -1,17 +1,42 @@
 package dev.ked.stormcraft.dungeons.integration;
 
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
 /**
  * Integration with Stormcraft-Essence for SEL and essence economy.
+ * API methods are resolved once at startup into typed method handles.
  */
 public class EssenceIntegration {
 
+    private static final Counter CALL_ERRORS = ApiHandles.callErrors("essence");
+    private static final Timer GET_PLAYER_SEL_CALLS = ApiHandles.callTimer("essence.getPlayerSEL");
+    private static final Timer GET_PLAYER_ESSENCE_CALLS = ApiHandles.callTimer("essence.getPlayerEssence");
+    private static final Timer WITHDRAW_ESSENCE_CALLS = ApiHandles.callTimer("essence.withdrawEssence");
+    private static final Timer DEPOSIT_ESSENCE_CALLS = ApiHandles.callTimer("essence.depositEssence");
+
     private final JavaPlugin plugin;
     private boolean enabled = false;
     private Object essenceAPI;
 
+    // Bound API methods (null when the installed Stormcraft-Essence lacks them)
+    private MethodHandle getPlayerSEL;      // (Player) -> int
+    private MethodHandle getPlayerEssence;  // (Player) -> double
+    private MethodHandle withdrawEssence;   // (Player, double) -> boolean
+    private MethodHandle depositEssence;    // (Player, double) -> void
+
+    // Notified after a withdrawal or deposit made through this integration
+    private final List<Consumer<UUID>> balanceListeners = new CopyOnWriteArrayList<>();
+
     public EssenceIntegration(JavaPlugin plugin) {
         this.plugin = plugin;
         initialize();
@@ -25,6 +50,7 @@ public class EssenceIntegration {
 
             if (essencePlugin != null) {
                 essenceAPI = essencePluginClass.getMethod("getAPI").invoke(essencePlugin);
+                bindMethods();
                 enabled = true;
                 plugin.getLogger().info("Stormcraft-Essence API initialized successfully");
             }
@@ -34,24 +60,66 @@ public class EssenceIntegration {
         }
     }
 
+    private void bindMethods() {
+        List<String> missing = new ArrayList<>();
+
+        getPlayerSEL = ApiHandles.bind(essenceAPI, missing, "getPlayerSEL", int.class, Player.class);
+        getPlayerEssence = ApiHandles.bind(essenceAPI, missing, "getPlayerEssence", double.class, Player.class);
+        withdrawEssence = ApiHandles.bind(essenceAPI, missing, "withdrawEssence", boolean.class, Player.class, double.class);
+        depositEssence = ApiHandles.bind(essenceAPI, missing, "depositEssence", void.class, Player.class, double.class);
+
+        if (!missing.isEmpty()) {
+            plugin.getLogger().warning("Stormcraft-Essence API is missing " + missing + " - related features disabled");
+        }
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
 
+    /**
+     * Whether the installed API can report Storm Exposure Levels.
+     */
+    public boolean supportsSEL() {
+        return enabled && getPlayerSEL != null;
+    }
+
+    /**
+     * Whether the installed API can report essence balances.
+     */
+    public boolean supportsBalance() {
+        return enabled && getPlayerEssence != null;
+    }
+
+    /**
+     * Whether the installed API can withdraw essence.
+     */
+    public boolean supportsWithdraw() {
+        return enabled && withdrawEssence != null;
+    }
+
+    /**
+     * Whether the installed API can deposit essence.
+     */
+    public boolean supportsDeposit() {
+        return enabled && depositEssence != null;
+    }
+
     /**
      * Get a player's Storm Exposure Level (SEL).
      */
     public int getPlayerSEL(Player player) {
-        if (!enabled) return 0;
+        if (!supportsSEL()) return 0;
 
+        long start = GET_PLAYER_SEL_CALLS.start();
         try {
-            Class<?> apiClass = essenceAPI.getClass();
-            Object result = apiClass.getMethod("getPlayerSEL", Player.class)
-                                   .invoke(essenceAPI, player);
-            return (int) result;
-        } catch (Exception e) {
+            return (int) getPlayerSEL.invokeExact(player);
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
             plugin.getLogger().warning("Failed to get SEL for " + player.getName() + ": " + e.getMessage());
             return 0;
+        } finally {
+            GET_PLAYER_SEL_CALLS.stop(start);
         }
     }
 
@@ -59,16 +127,17 @@ public class EssenceIntegration {
      * Get a player's essence balance.
      */
     public double getPlayerEssence(Player player) {
-        if (!enabled) return 0;
+        if (!supportsBalance()) return 0;
 
+        long start = GET_PLAYER_ESSENCE_CALLS.start();
         try {
-            Class<?> apiClass = essenceAPI.getClass();
-            Object result = apiClass.getMethod("getPlayerEssence", Player.class)
-                                   .invoke(essenceAPI, player);
-            return ((Number) result).doubleValue();
-        } catch (Exception e) {
+            return (double) getPlayerEssence.invokeExact(player);
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
             plugin.getLogger().warning("Failed to get essence for " + player.getName() + ": " + e.getMessage());
             return 0;
+        } finally {
+            GET_PLAYER_ESSENCE_CALLS.stop(start);
         }
     }
 
@@ -76,16 +145,21 @@ public class EssenceIntegration {
      * Withdraw essence from a player's balance.
      */
     public boolean withdrawEssence(Player player, double amount) {
-        if (!enabled) return false;
+        if (!supportsWithdraw()) return false;
 
+        long start = WITHDRAW_ESSENCE_CALLS.start();
         try {
-            Class<?> apiClass = essenceAPI.getClass();
-            Object result = apiClass.getMethod("withdrawEssence", Player.class, double.class)
-                                   .invoke(essenceAPI, player, amount);
-            return (boolean) result;
-        } catch (Exception e) {
+            boolean withdrawn = (boolean) withdrawEssence.invokeExact(player, amount);
+            if (withdrawn) {
+                notifyBalanceChanged(player);
+            }
+            return withdrawn;
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
             plugin.getLogger().warning("Failed to withdraw essence from " + player.getName() + ": " + e.getMessage());
             return false;
+        } finally {
+            WITHDRAW_ESSENCE_CALLS.stop(start);
         }
     }
 
@@ -93,14 +167,30 @@ public class EssenceIntegration {
      * Award essence to a player.
      */
     public void awardEssence(Player player, double amount) {
-        if (!enabled) return;
+        if (!supportsDeposit()) return;
 
+        long start = DEPOSIT_ESSENCE_CALLS.start();
         try {
-            Class<?> apiClass = essenceAPI.getClass();
-            apiClass.getMethod("depositEssence", Player.class, double.class)
-                   .invoke(essenceAPI, player, amount);
-        } catch (Exception e) {
+            depositEssence.invokeExact(player, amount);
+            notifyBalanceChanged(player);
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
             plugin.getLogger().warning("Failed to award essence to " + player.getName() + ": " + e.getMessage());
+        } finally {
+            DEPOSIT_ESSENCE_CALLS.stop(start);
+        }
+    }
+
+    /**
+     * Register a callback invoked after a player's balance is changed through this integration.
+     */
+    public void addBalanceListener(Consumer<UUID> listener) {
+        balanceListeners.add(listener);
+    }
+
+    private void notifyBalanceChanged(Player player) {
+        for (Consumer<UUID> listener : balanceListeners) {
+            listener.accept(player.getUniqueId());
         }
     }
 
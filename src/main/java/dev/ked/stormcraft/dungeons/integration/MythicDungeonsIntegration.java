@@ -1,17 +1,42 @@
 package dev.ked.stormcraft.dungeons.integration;
 
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Integration with MythicDungeons using reflection to avoid compile-time dependency.
+ * API methods are resolved once at startup into typed method handles.
  */
 public class MythicDungeonsIntegration {
 
+    private static final Counter CALL_ERRORS = ApiHandles.callErrors("mythicdungeons");
+    private static final Timer CAN_PLAYER_JOIN_DUNGEON_CALLS = ApiHandles.callTimer("mythicdungeons.canPlayerJoinDungeon");
+    private static final Timer OPEN_DUNGEON_GUI_CALLS = ApiHandles.callTimer("mythicdungeons.openDungeonGUI");
+    private static final Timer DUNGEON_EXISTS_CALLS = ApiHandles.callTimer("mythicdungeons.dungeonExists");
+    private static final Timer IS_PLAYER_IN_DUNGEON_CALLS = ApiHandles.callTimer("mythicdungeons.isPlayerInDungeon");
+    private static final Timer HAS_PLAYER_FINISHED_DUNGEON_CALLS = ApiHandles.callTimer("mythicdungeons.hasPlayerFinishedDungeon");
+    private static final Timer GET_PLAYER_DUNGEON_COMPLETIONS_CALLS = ApiHandles.callTimer("mythicdungeons.getPlayerDungeonCompletions");
+    private static final Timer GET_PARTY_CALLS = ApiHandles.callTimer("mythicdungeons.getParty");
+
     private final JavaPlugin plugin;
     private boolean enabled = false;
     private Object mythicDungeonsAPI;
 
+    // Bound API methods (null when the installed MythicDungeons lacks them)
+    private MethodHandle canPlayerJoinDungeon;        // (Player, String) -> boolean
+    private MethodHandle openDungeonGUI;              // (Player, String) -> void
+    private MethodHandle dungeonExists;               // (String) -> boolean
+    private MethodHandle isPlayerInDungeon;           // (Player) -> boolean
+    private MethodHandle hasPlayerFinishedDungeon;    // (Player, String) -> boolean
+    private MethodHandle getPlayerDungeonCompletions; // (Player, String) -> int
+    private MethodHandle getParty;                    // (Player) -> Object
+
     public MythicDungeonsIntegration(JavaPlugin plugin) {
         this.plugin = plugin;
         initialize();
@@ -24,6 +49,7 @@ public class MythicDungeonsIntegration {
             Object mdInstance = mdClass.getMethod("inst").invoke(null);
             mythicDungeonsAPI = mdClass.getMethod("getAPI").invoke(mdInstance);
 
+            bindMethods();
             enabled = true;
             plugin.getLogger().info("MythicDungeons API initialized successfully");
         } catch (Exception e) {
@@ -32,24 +58,55 @@ public class MythicDungeonsIntegration {
         }
     }
 
+    private void bindMethods() {
+        List<String> missing = new ArrayList<>();
+
+        canPlayerJoinDungeon = ApiHandles.bind(mythicDungeonsAPI, missing, "canPlayerJoinDungeon", boolean.class, Player.class, String.class);
+        openDungeonGUI = ApiHandles.bind(mythicDungeonsAPI, missing, "openDungeonGUI", void.class, Player.class, String.class);
+        dungeonExists = ApiHandles.bind(mythicDungeonsAPI, missing, "dungeonExists", boolean.class, String.class);
+        isPlayerInDungeon = ApiHandles.bind(mythicDungeonsAPI, missing, "isPlayerInDungeon", boolean.class, Player.class);
+        hasPlayerFinishedDungeon = ApiHandles.bind(mythicDungeonsAPI, missing, "hasPlayerFinishedDungeon", boolean.class, Player.class, String.class);
+        getPlayerDungeonCompletions = ApiHandles.bind(mythicDungeonsAPI, missing, "getPlayerDungeonCompletions", int.class, Player.class, String.class);
+        getParty = ApiHandles.bind(mythicDungeonsAPI, missing, "getParty", Object.class, Player.class);
+
+        if (!missing.isEmpty()) {
+            plugin.getLogger().warning("MythicDungeons API is missing " + missing + " - related features disabled");
+        }
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
 
+    /**
+     * Whether the installed API can open the dungeon GUI.
+     */
+    public boolean supportsDungeonGUI() {
+        return enabled && openDungeonGUI != null;
+    }
+
+    /**
+     * Whether the installed API can report per-player completion counts.
+     */
+    public boolean supportsCompletionCounts() {
+        return enabled && getPlayerDungeonCompletions != null;
+    }
+
     /**
      * Check if a player can enter a specific dungeon.
      */
     public boolean canEnterDungeon(Player player, String dungeonName) {
-        if (!enabled) return false;
+        if (!enabled || canPlayerJoinDungeon == null) return false;
 
+        long start = CAN_PLAYER_JOIN_DUNGEON_CALLS.start();
         try {
-            Class<?> apiClass = mythicDungeonsAPI.getClass();
-            Object result = apiClass.getMethod("canPlayerJoinDungeon", Player.class, String.class)
-                                   .invoke(mythicDungeonsAPI, player, dungeonName);
-            return (boolean) result;
-        } catch (Exception e) {
+            return (boolean) canPlayerJoinDungeon.invokeExact(player, dungeonName);
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
             plugin.getLogger().warning("Failed to check dungeon access for " + player.getName() + ": " + e.getMessage());
             return false;
+        } finally {
+            CAN_PLAYER_JOIN_DUNGEON_CALLS.stop(start);
         }
     }
 
@@ -57,18 +114,20 @@ public class MythicDungeonsIntegration {
      * Open the dungeon GUI for a player.
      */
     public void openDungeonGUI(Player player, String dungeonName) {
-        if (!enabled) {
+        if (!supportsDungeonGUI()) {
             player.sendMessage("§cMythicDungeons integration is not available!");
             return;
         }
 
+        long start = OPEN_DUNGEON_GUI_CALLS.start();
         try {
-            Class<?> apiClass = mythicDungeonsAPI.getClass();
-            apiClass.getMethod("openDungeonGUI", Player.class, String.class)
-                   .invoke(mythicDungeonsAPI, player, dungeonName);
-        } catch (Exception e) {
+            openDungeonGUI.invokeExact(player, dungeonName);
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
             plugin.getLogger().warning("Failed to open dungeon GUI for " + player.getName() + ": " + e.getMessage());
             player.sendMessage("§cFailed to open dungeon interface!");
+        } finally {
+            OPEN_DUNGEON_GUI_CALLS.stop(start);
         }
     }
 
@@ -76,16 +135,17 @@ public class MythicDungeonsIntegration {
      * Check if a dungeon exists.
      */
     public boolean dungeonExists(String dungeonName) {
-        if (!enabled) return false;
+        if (!enabled || dungeonExists == null) return false;
 
+        long start = DUNGEON_EXISTS_CALLS.start();
         try {
-            Class<?> apiClass = mythicDungeonsAPI.getClass();
-            Object result = apiClass.getMethod("dungeonExists", String.class)
-                                   .invoke(mythicDungeonsAPI, dungeonName);
-            return (boolean) result;
-        } catch (Exception e) {
+            return (boolean) dungeonExists.invokeExact(dungeonName);
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
             plugin.getLogger().warning("Failed to check dungeon existence: " + e.getMessage());
             return false;
+        } finally {
+            DUNGEON_EXISTS_CALLS.stop(start);
         }
     }
 
@@ -93,16 +153,17 @@ public class MythicDungeonsIntegration {
      * Check if a player is currently in a dungeon.
      */
     public boolean isPlayerInDungeon(Player player) {
-        if (!enabled) return false;
+        if (!enabled || isPlayerInDungeon == null) return false;
 
+        long start = IS_PLAYER_IN_DUNGEON_CALLS.start();
         try {
-            Class<?> apiClass = mythicDungeonsAPI.getClass();
-            Object result = apiClass.getMethod("isPlayerInDungeon", Player.class)
-                                   .invoke(mythicDungeonsAPI, player);
-            return (boolean) result;
-        } catch (Exception e) {
+            return (boolean) isPlayerInDungeon.invokeExact(player);
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
             plugin.getLogger().warning("Failed to check dungeon status for " + player.getName() + ": " + e.getMessage());
             return false;
+        } finally {
+            IS_PLAYER_IN_DUNGEON_CALLS.stop(start);
         }
     }
 
@@ -110,16 +171,16 @@ public class MythicDungeonsIntegration {
      * Check if a player has completed a specific dungeon before.
      */
     public boolean hasCompletedDungeon(Player player, String dungeonName) {
-        if (!enabled) return false;
+        if (!enabled || hasPlayerFinishedDungeon == null) return false;
 
+        long start = HAS_PLAYER_FINISHED_DUNGEON_CALLS.start();
         try {
-            Class<?> apiClass = mythicDungeonsAPI.getClass();
-            Object result = apiClass.getMethod("hasPlayerFinishedDungeon", Player.class, String.class)
-                                   .invoke(mythicDungeonsAPI, player, dungeonName);
-            return (boolean) result;
-        } catch (Exception e) {
-            // Method might not exist, return false
+            return (boolean) hasPlayerFinishedDungeon.invokeExact(player, dungeonName);
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
             return false;
+        } finally {
+            HAS_PLAYER_FINISHED_DUNGEON_CALLS.stop(start);
         }
     }
 
@@ -127,16 +188,35 @@ public class MythicDungeonsIntegration {
      * Get the number of times a player has completed a dungeon.
      */
     public int getCompletionCount(Player player, String dungeonName) {
-        if (!enabled) return 0;
+        if (!supportsCompletionCounts()) return 0;
 
+        long start = GET_PLAYER_DUNGEON_COMPLETIONS_CALLS.start();
         try {
-            Class<?> apiClass = mythicDungeonsAPI.getClass();
-            Object result = apiClass.getMethod("getPlayerDungeonCompletions", Player.class, String.class)
-                                   .invoke(mythicDungeonsAPI, player, dungeonName);
-            return (int) result;
-        } catch (Exception e) {
-            // Method might not exist or player has no completions
+            return (int) getPlayerDungeonCompletions.invokeExact(player, dungeonName);
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
+            // Player has no completions
             return 0;
+        } finally {
+            GET_PLAYER_DUNGEON_COMPLETIONS_CALLS.stop(start);
+        }
+    }
+
+    /**
+     * Get the party a player belongs to, or null if they are not in one. The result is only
+     * meaningful as a key: members of the same party get the same object.
+     */
+    public Object getParty(Player player) {
+        if (!enabled || getParty == null) return null;
+
+        long start = GET_PARTY_CALLS.start();
+        try {
+            return (Object) getParty.invokeExact(player);
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
+            return null;
+        } finally {
+            GET_PARTY_CALLS.stop(start);
         }
     }
 }
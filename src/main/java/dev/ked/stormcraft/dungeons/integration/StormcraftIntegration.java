@@ -1,18 +1,20 @@
 package dev.ked.stormcraft.dungeons.integration;
 
 import dev.ked.stormcraft.StormcraftPlugin;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
 import dev.ked.stormcraft.model.TravelingStorm;
-import org.bukkit.Location;
-import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.List;
 
 /**
- * Integration with the Stormcraft plugin for storm detection and tracking.
+ * Integration with the Stormcraft plugin for storm detection.
+ * Hot paths read storms through {@link dev.ked.stormcraft.dungeons.storm.StormTracker} instead.
  */
 public class StormcraftIntegration {
 
+    private static final Timer GET_ACTIVE_STORMS_CALLS = ApiHandles.callTimer("stormcraft.getActiveStorms");
+
     private final JavaPlugin plugin;
     private final StormcraftPlugin stormcraft;
 
@@ -25,7 +27,12 @@ public class StormcraftIntegration {
      * Get all currently active traveling storms.
      */
     public List<TravelingStorm> getActiveStorms() {
-        return stormcraft.getStormManager().getActiveStorms();
+        long start = GET_ACTIVE_STORMS_CALLS.start();
+        try {
+            return stormcraft.getStormManager().getActiveStorms();
+        } finally {
+            GET_ACTIVE_STORMS_CALLS.stop(start);
+        }
     }
 
     /**
@@ -52,107 +59,4 @@ public class StormcraftIntegration {
 
         return (int) (intensity * 100);
     }
-
-    /**
-     * Check if a player is near a storm (within specified radius).
-     */
-    public boolean isPlayerNearStorm(Player player, TravelingStorm storm, double maxDistance) {
-        Location playerLoc = player.getLocation();
-        Location stormLoc = storm.getCurrentLocation();
-
-        // Check if in same world
-        if (!playerLoc.getWorld().equals(stormLoc.getWorld())) {
-            return false;
-        }
-
-        return playerLoc.distance(stormLoc) <= maxDistance;
-    }
-
-    /**
-     * Find the nearest storm to a location.
-     */
-    public TravelingStorm getNearestStorm(Location location) {
-        List<TravelingStorm> storms = getActiveStorms();
-        if (storms.isEmpty()) {
-            return null;
-        }
-
-        TravelingStorm nearest = null;
-        double nearestDistance = Double.MAX_VALUE;
-
-        for (TravelingStorm storm : storms) {
-            Location stormLoc = storm.getCurrentLocation();
-            if (!stormLoc.getWorld().equals(location.getWorld())) {
-                continue;
-            }
-
-            double distance = location.distance(stormLoc);
-            if (distance < nearestDistance) {
-                nearest = storm;
-                nearestDistance = distance;
-            }
-        }
-
-        return nearest;
-    }
-
-    /**
-     * Check if there are any storms meeting minimum intensity requirements.
-     */
-    public boolean hasQualifyingStorm(int minIntensity) {
-        for (TravelingStorm storm : getActiveStorms()) {
-            if (getStormIntensity(storm) >= minIntensity) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Get a safe spawn location near the storm epicenter.
-     */
-    public Location getSafeSpawnNearStorm(TravelingStorm storm, double minDistance, double maxDistance) {
-        Location center = storm.getCurrentLocation();
-
-        // Try to find a safe location within the range
-        for (int attempt = 0; attempt < 10; attempt++) {
-            // Random angle
-            double angle = Math.random() * 2 * Math.PI;
-            // Random distance between min and max
-            double distance = minDistance + (Math.random() * (maxDistance - minDistance));
-
-            // Calculate offset
-            double x = Math.cos(angle) * distance;
-            double z = Math.sin(angle) * distance;
-
-            Location candidate = center.clone().add(x, 0, z);
-
-            // Find highest block at this location
-            candidate.setY(candidate.getWorld().getHighestBlockYAt(candidate) + 1);
-
-            // Check if location is safe (not in water, lava, etc.)
-            if (isSafeLocation(candidate)) {
-                return candidate;
-            }
-        }
-
-        // Fallback: just use storm center at ground level
-        Location fallback = center.clone();
-        fallback.setY(fallback.getWorld().getHighestBlockYAt(fallback) + 1);
-        return fallback;
-    }
-
-    private boolean isSafeLocation(Location loc) {
-        // Check block below is solid
-        if (!loc.clone().subtract(0, 1, 0).getBlock().getType().isSolid()) {
-            return false;
-        }
-
-        // Check location and above are air
-        if (!loc.getBlock().getType().isAir() || !loc.clone().add(0, 1, 0).getBlock().getType().isAir()) {
-            return false;
-        }
-
-        return true;
-    }
 }
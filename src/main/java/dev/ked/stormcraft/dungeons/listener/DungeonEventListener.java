@@ -1,96 +1,194 @@
 package dev.ked.stormcraft.dungeons.listener;
 
 import dev.ked.stormcraft.dungeons.StormcraftDungeonsPlugin;
+import dev.ked.stormcraft.dungeons.integration.ApiHandles;
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
 import dev.ked.stormcraft.dungeons.reward.RewardManager;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
+import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
 /**
- * Listens for MythicDungeons events using reflection to avoid compile-time dependency.
+ * Listens for MythicDungeons completion events without a compile-time dependency.
+ * The event classes are resolved at startup and registered directly, with their
+ * dungeon name, player and instance accessors cached as method handles per class.
+ * Several configured events can fire for one run; the reward ledger pays it once.
+ *
+ * A run is named by the instance's UUID when it exposes one, otherwise by a random UUID given to
+ * the instance object the first time one of its events is seen. Either way a run id is never
+ * reused by a later run, even after a restart, so the ledger's memory of settled runs (kept for
+ * the dedupe window) cannot swallow a new one. Events without an instance fall back to the short
+ * fan-out window.
  */
 public class DungeonEventListener implements Listener {
 
+    private static final Timer ACCESSOR_CALLS = ApiHandles.callTimer("mythicdungeons.completionEvent");
+    private static final Counter CALL_ERRORS = ApiHandles.callErrors("mythicdungeons.events");
+    private static final List<String> INSTANCE_ID_METHODS = List.of("getUUID", "getUuid", "getUniqueId", "getInstanceId");
+
     private final StormcraftDungeonsPlugin plugin;
     private final RewardManager rewardManager;
+    private final Map<Object, String> runIds;                          // Instance -> run id, dropped with the instance
+    private final Map<Class<?>, Optional<MethodHandle>> instanceIdAccessors; // (Object) -> Object
 
     public DungeonEventListener(StormcraftDungeonsPlugin plugin, RewardManager rewardManager) {
         this.plugin = plugin;
         this.rewardManager = rewardManager;
+        this.runIds = new WeakHashMap<>();
+        this.instanceIdAccessors = new HashMap<>();
     }
 
     /**
-     * Listen for dungeon completion using reflection.
-     * MythicDungeons fires events like DungeonCompleteEvent or similar.
+     * Resolve the configured completion event classes and register a handler for each one found.
      */
-    @EventHandler(priority = EventPriority.MONITOR)
-    public void onDungeonComplete(org.bukkit.event.Event event) {
-        // Check if this is a MythicDungeons completion event
-        String eventName = event.getEventName();
-
-        if (!eventName.contains("DungeonComplete") &&
-            !eventName.contains("DungeonFinish") &&
-            !eventName.contains("InstanceComplete")) {
-            return; // Not a dungeon completion event
+    public void register() {
+        List<String> eventClassNames = plugin.getConfigManager().getSnapshot().getCompletionEvents();
+        int registered = 0;
+
+        for (String className : eventClassNames) {
+            Class<? extends Event> eventClass = resolveEventClass(className);
+            if (eventClass == null) {
+                continue;
+            }
+
+            CompletionAccessor accessor = CompletionAccessor.resolve(eventClass);
+            if (accessor == null) {
+                plugin.getLogger().warning("Completion event " + className + " has no usable dungeon name or player accessors");
+                continue;
+            }
+
+            plugin.getServer().getPluginManager().registerEvent(eventClass, this, EventPriority.MONITOR,
+                (listener, event) -> {
+                    if (eventClass.isInstance(event)) {
+                        onDungeonComplete(event, accessor);
+                    }
+                }, plugin);
+            registered++;
         }
 
+        if (registered == 0) {
+            plugin.getLogger().warning("No MythicDungeons completion events found - completion rewards disabled");
+        } else {
+            plugin.getLogger().info("Listening for " + registered + " MythicDungeons completion event(s)");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<? extends Event> resolveEventClass(String className) {
         try {
-            // Use reflection to get dungeon name and players
-            Class<?> eventClass = event.getClass();
+            Class<?> eventClass = Class.forName(className);
+            if (!Event.class.isAssignableFrom(eventClass)) {
+                plugin.getLogger().warning("Configured completion event " + className + " is not a Bukkit event");
+                return null;
+            }
+            return (Class<? extends Event>) eventClass;
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
 
-            // Try to get dungeon name
-            String dungeonName = null;
-            try {
-                Object dungeon = eventClass.getMethod("getDungeon").invoke(event);
-                dungeonName = (String) dungeon.getClass().getMethod("getName").invoke(dungeon);
-            } catch (Exception e) {
-                // Try alternate method
-                try {
-                    dungeonName = (String) eventClass.getMethod("getDungeonName").invoke(event);
-                } catch (Exception e2) {
-                    plugin.getLogger().warning("Failed to get dungeon name from completion event");
-                    return;
-                }
+    /**
+     * Handle a resolved completion event.
+     */
+    private void onDungeonComplete(Event event, CompletionAccessor accessor) {
+        String dungeonName;
+        Object playersObj;
+        Object instance = null;
+
+        long start = ACCESSOR_CALLS.start();
+        try {
+            dungeonName = (String) accessor.dungeonName.invokeExact((Object) event);
+            playersObj = (Object) accessor.players.invokeExact((Object) event);
+            if (accessor.instance != null) {
+                instance = (Object) accessor.instance.invokeExact((Object) event);
             }
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
+            plugin.getLogger().warning("Error processing dungeon completion event: " + e.getMessage());
+            return;
+        } finally {
+            ACCESSOR_CALLS.stop(start);
+        }
 
-            // Try to get players
-            Object playersObj = null;
-            try {
-                playersObj = eventClass.getMethod("getPlayers").invoke(event);
-            } catch (Exception e) {
-                // Try alternate method
-                try {
-                    playersObj = eventClass.getMethod("getPartyMembers").invoke(event);
-                } catch (Exception e2) {
-                    plugin.getLogger().warning("Failed to get players from completion event");
-                    return;
+        if (dungeonName == null) {
+            plugin.getLogger().warning("Failed to get dungeon name from completion event");
+            return;
+        }
+
+        // Every event for the same running instance names the same run
+        String runId = instance != null ? runIdFor(dungeonName, instance) : null;
+
+        // Award rewards to all players
+        if (playersObj instanceof Iterable) {
+            for (Object playerObj : (Iterable<?>) playersObj) {
+                if (playerObj instanceof Player) {
+                    Player player = (Player) playerObj;
+                    awardPlayerRewards(player, dungeonName, runId);
                 }
             }
+        } else if (playersObj instanceof Player) {
+            Player player = (Player) playersObj;
+            awardPlayerRewards(player, dungeonName, runId);
+        }
+    }
 
-            // Award rewards to all players
-            if (playersObj instanceof Iterable) {
-                for (Object playerObj : (Iterable<?>) playersObj) {
-                    if (playerObj instanceof Player) {
-                        Player player = (Player) playerObj;
-                        awardPlayerRewards(player, dungeonName);
-                    }
+    /**
+     * The run id of a running instance: its own UUID if it has one, otherwise one made up the
+     * first time the instance is seen and kept while MythicDungeons holds on to the instance.
+     */
+    private String runIdFor(String dungeonName, Object instance) {
+        String runId = runIds.get(instance);
+        if (runId == null) {
+            UUID instanceId = instanceId(instance);
+            runId = dungeonName + '#' + (instanceId != null ? instanceId : UUID.randomUUID());
+            runIds.put(instance, runId);
+        }
+        return runId;
+    }
+
+    /**
+     * The instance's own UUID, or null if its class has no UUID accessor.
+     */
+    private UUID instanceId(Object instance) {
+        Optional<MethodHandle> accessor = instanceIdAccessors.computeIfAbsent(instance.getClass(), instanceClass -> {
+            for (String name : INSTANCE_ID_METHODS) {
+                MethodHandle handle = ApiHandles.find(instanceClass, name, Object.class);
+                if (handle != null) {
+                    return Optional.of(handle);
                 }
-            } else if (playersObj instanceof Player) {
-                Player player = (Player) playersObj;
-                awardPlayerRewards(player, dungeonName);
             }
+            return Optional.empty();
+        });
+        if (accessor.isEmpty()) {
+            return null;
+        }
 
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error processing dungeon completion event: " + e.getMessage());
-            e.printStackTrace();
+        try {
+            Object id = (Object) accessor.get().invokeExact(instance);
+            return id instanceof UUID uuid ? uuid : null; // Counters restart with the server
+        } catch (Throwable e) {
+            CALL_ERRORS.increment();
+            return null;
         }
     }
 
     /**
      * Award rewards to a player for completing a dungeon.
      */
-    private void awardPlayerRewards(Player player, String dungeonName) {
+    private void awardPlayerRewards(Player player, String dungeonName, String runId) {
         // Normalize dungeon name (remove spaces, lowercase)
         String normalizedName = dungeonName.toLowerCase().replace(" ", "_");
 
@@ -100,16 +198,80 @@ public class DungeonEventListener implements Listener {
             return;
         }
 
-        // Award rewards
-        rewardManager.awardCompletion(player, normalizedName);
-
-        plugin.getLogger().info(player.getName() + " completed " + dungeonName + " - rewards awarded");
+        // Queue rewards; repeats of an already settled run are dropped
+        if (rewardManager.settle(runId, player, normalizedName)) {
+            plugin.getLogger().info(player.getName() + " completed " + dungeonName + " - rewards queued");
+        }
     }
 
     /**
      * Check if a dungeon is configured in our config.
      */
     private boolean isDungeonConfigured(String dungeonName) {
-        return plugin.getConfigManager().getConfig().contains("dungeons." + dungeonName);
+        return plugin.getConfigManager().getDungeon(dungeonName) != null;
+    }
+
+    /**
+     * Cached accessors for one completion event class.
+     */
+    private static final class CompletionAccessor {
+
+        private static final MethodHandle NON_NULL;
+
+        static {
+            try {
+                NON_NULL = MethodHandles.lookup().findStatic(Objects.class, "nonNull",
+                    MethodType.methodType(boolean.class, Object.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final MethodHandle dungeonName; // (Object) -> String
+        private final MethodHandle players;     // (Object) -> Object
+        private final MethodHandle instance;    // (Object) -> Object, null if the event has no instance
+
+        private CompletionAccessor(MethodHandle dungeonName, MethodHandle players, MethodHandle instance) {
+            this.dungeonName = dungeonName;
+            this.players = players;
+            this.instance = instance;
+        }
+
+        static CompletionAccessor resolve(Class<?> eventClass) {
+            MethodHandle dungeonName = resolveDungeonName(eventClass);
+
+            MethodHandle players = ApiHandles.find(eventClass, "getPlayers", Object.class);
+            if (players == null) {
+                players = ApiHandles.find(eventClass, "getPartyMembers", Object.class);
+            }
+
+            if (dungeonName == null || players == null) {
+                return null;
+            }
+            return new CompletionAccessor(dungeonName, players, ApiHandles.find(eventClass, "getInstance", Object.class));
+        }
+
+        /**
+         * Prefer getDungeon().getName(), falling back to getDungeonName().
+         */
+        private static MethodHandle resolveDungeonName(Class<?> eventClass) {
+            try {
+                Class<?> dungeonClass = eventClass.getMethod("getDungeon").getReturnType();
+                MethodHandle getDungeon = ApiHandles.find(eventClass, "getDungeon", Object.class);
+                MethodHandle getName = ApiHandles.find(dungeonClass, "getName", String.class);
+                if (getDungeon != null && getName != null) {
+                    // Null dungeon -> null name
+                    MethodHandle nullSafeName = MethodHandles.guardWithTest(
+                        NON_NULL,
+                        getName,
+                        MethodHandles.dropArguments(MethodHandles.constant(String.class, null), 0, Object.class));
+                    return MethodHandles.filterReturnValue(getDungeon, nullSafeName);
+                }
+            } catch (NoSuchMethodException ignored) {
+                // Fall through to getDungeonName
+            }
+
+            return ApiHandles.find(eventClass, "getDungeonName", String.class);
+        }
     }
 }
@@ -0,0 +1,59 @@
+package dev.ked.stormcraft.dungeons.listener;
+
+import dev.ked.stormcraft.dungeons.data.DataManager;
+import dev.ked.stormcraft.dungeons.reward.RewardManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Loads completion data while players are still logging in and evicts it after they leave, or
+ * when a login that passed pre-login is refused or never completes. Rewards a player was not paid
+ * before leaving are queued again when they join.
+ */
+public class PlayerDataListener implements Listener {
+
+    private final DataManager dataManager;
+    private final RewardManager rewardManager;
+
+    public PlayerDataListener(DataManager dataManager, RewardManager rewardManager) {
+        this.dataManager = dataManager;
+        this.rewardManager = rewardManager;
+    }
+
+    /**
+     * Runs on the login thread, so the storage read never touches the main thread.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        dataManager.loadPlayer(event.getUniqueId());
+        dataManager.expireIfNotJoined(event.getUniqueId());
+    }
+
+    /**
+     * A refused login fires no quit event, so its data is evicted here.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            dataManager.unloadPlayer(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        rewardManager.releaseUnpaid(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        dataManager.unloadPlayer(event.getPlayer().getUniqueId());
+    }
+}
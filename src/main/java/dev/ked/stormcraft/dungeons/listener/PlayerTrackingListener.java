@@ -0,0 +1,56 @@
+package dev.ked.stormcraft.dungeons.listener;
+
+import dev.ked.stormcraft.dungeons.spatial.SpatialGrid;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Keeps the online player spatial grid up to date as players move between cells.
+ */
+public class PlayerTrackingListener implements Listener {
+
+    private final SpatialGrid<Player> playerGrid;
+
+    public PlayerTrackingListener(SpatialGrid<Player> playerGrid) {
+        this.playerGrid = playerGrid;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        playerGrid.update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        playerGrid.remove(event.getPlayer());
+    }
+
+    /**
+     * Also receives teleports. Only touches the grid when the player crosses a cell boundary.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+
+        if (from.getWorld() == to.getWorld()
+            && (from.getBlockX() >> SpatialGrid.CELL_SHIFT) == (to.getBlockX() >> SpatialGrid.CELL_SHIFT)
+            && (from.getBlockZ() >> SpatialGrid.CELL_SHIFT) == (to.getBlockZ() >> SpatialGrid.CELL_SHIFT)) {
+            return;
+        }
+
+        playerGrid.update(event.getPlayer(), to);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        playerGrid.update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+}
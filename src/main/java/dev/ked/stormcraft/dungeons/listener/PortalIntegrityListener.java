@@ -0,0 +1,127 @@
+package dev.ked.stormcraft.dungeons.listener;
+
+import dev.ked.stormcraft.dungeons.portal.Portal;
+import dev.ked.stormcraft.dungeons.portal.PortalManager;
+import org.bukkit.Chunk;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+import java.util.List;
+
+/**
+ * Tracks portal integrity from block events instead of polling the world.
+ * Player breaks and explosions count as damage; physics, fluids and pistons are not allowed
+ * to alter portal blocks at all. Also drives portal dormancy from chunk loads and unloads.
+ */
+public class PortalIntegrityListener implements Listener {
+
+    private final PortalManager portalManager;
+
+    public PortalIntegrityListener(PortalManager portalManager) {
+        this.portalManager = portalManager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        damage(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        damageAll(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        damageAll(event.blockList());
+    }
+
+    /**
+     * Fires constantly; bail out before any lookup when there are no portals.
+     * The lone portal block has no valid vanilla frame, so physics would otherwise pop it.
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onPhysics(BlockPhysicsEvent event) {
+        if (portalManager.hasPortals() && portalManager.getPortalAt(event.getBlock()) != null) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onFluidFlow(BlockFromToEvent event) {
+        if (portalManager.hasPortals() && portalManager.getPortalAt(event.getToBlock()) != null) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        if (touchesPortal(event.getBlocks())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        if (touchesPortal(event.getBlocks())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        portalManager.onChunkUnload(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        portalManager.onChunkLoad(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    private void damage(Block block) {
+        if (!portalManager.hasPortals()) {
+            return;
+        }
+
+        Portal portal = portalManager.getPortalAt(block);
+        if (portal != null) {
+            portalManager.onPortalBlockDamaged(portal, block);
+        }
+    }
+
+    private void damageAll(List<Block> blocks) {
+        if (!portalManager.hasPortals()) {
+            return;
+        }
+
+        for (Block block : blocks) {
+            damage(block);
+        }
+    }
+
+    private boolean touchesPortal(List<Block> blocks) {
+        if (!portalManager.hasPortals()) {
+            return false;
+        }
+
+        for (Block block : blocks) {
+            if (portalManager.getPortalAt(block) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
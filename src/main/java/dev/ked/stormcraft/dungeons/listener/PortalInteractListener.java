@@ -1,6 +1,6 @@
 package dev.ked.stormcraft.dungeons.listener;
 
-import dev.ked.stormcraft.dungeons.integration.MythicDungeonsIntegration;
+import dev.ked.stormcraft.dungeons.entry.EntryQueue;
 import dev.ked.stormcraft.dungeons.portal.Portal;
 import dev.ked.stormcraft.dungeons.portal.PortalManager;
 import dev.ked.stormcraft.dungeons.requirement.RequirementChecker;
@@ -8,11 +8,11 @@ import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.List;
-
 /**
  * Listens for player interactions with dungeon portals.
  */
@@ -21,15 +21,15 @@ public class PortalInteractListener implements Listener {
     private final JavaPlugin plugin;
     private final PortalManager portalManager;
     private final RequirementChecker requirementChecker;
-    private final MythicDungeonsIntegration mythicDungeonsIntegration;
+    private final EntryQueue entryQueue;
 
     public PortalInteractListener(JavaPlugin plugin, PortalManager portalManager,
                                   RequirementChecker requirementChecker,
-                                  MythicDungeonsIntegration mythicDungeonsIntegration) {
+                                  EntryQueue entryQueue) {
         this.plugin = plugin;
         this.portalManager = portalManager;
         this.requirementChecker = requirementChecker;
-        this.mythicDungeonsIntegration = mythicDungeonsIntegration;
+        this.entryQueue = entryQueue;
     }
 
     @EventHandler
@@ -45,7 +45,7 @@ public class PortalInteractListener implements Listener {
         }
 
         // Check if this is one of our dungeon portals
-        Portal portal = portalManager.getPortalAtLocation(event.getClickedBlock().getLocation());
+        Portal portal = portalManager.getPortalAt(event.getClickedBlock());
         if (portal == null) {
             return;
         }
@@ -55,45 +55,33 @@ public class PortalInteractListener implements Listener {
 
         Player player = event.getPlayer();
 
-        // Check if player can bypass requirements
-        if (player.hasPermission("stormcraft.dungeons.bypass")) {
-            openDungeonGUI(player, portal);
+        // Coalesce repeated clicks (and the off-hand duplicate) into one evaluation
+        if (requirementChecker.isDebounced(player, portal)) {
             return;
         }
 
-        // Check requirements
-        List<String> failures = requirementChecker.checkRequirements(player, portal);
-
-        if (failures != null && !failures.isEmpty()) {
-            // Requirements not met
-            player.sendMessage("§c✗ You cannot enter this dungeon!");
-            player.sendMessage("§e⚠ Requirements:");
-            for (String failure : failures) {
-                player.sendMessage("  " + failure);
+        // Requirements, costs and the GUI are handled by the queue a few players per tick
+        EntryQueue.Ticket ticket = entryQueue.enqueue(player, portal);
+        switch (ticket.status()) {
+            case FULL -> player.sendMessage("§c✗ Too many players are waiting at this portal. Try again shortly.");
+            case ALREADY_QUEUED -> player.sendMessage("§e⏳ You are #" + ticket.position() + " in line for this portal.");
+            case QUEUED -> {
+                if (ticket.position() > 1) {
+                    player.sendMessage("§e⏳ You are #" + ticket.position() + " in line for this portal.");
+                }
             }
-            return;
-        }
-
-        // All requirements met - consume entry costs
-        if (!requirementChecker.consumeEntryCosts(player, portal.getDungeonName())) {
-            player.sendMessage("§c✗ Failed to process entry cost!");
-            return;
         }
-
-        // Open dungeon GUI
-        openDungeonGUI(player, portal);
     }
 
-    private void openDungeonGUI(Player player, Portal portal) {
-        // Check if MythicDungeons is available
-        if (mythicDungeonsIntegration == null || !mythicDungeonsIntegration.isEnabled()) {
-            player.sendMessage("§c✗ Dungeon system is currently unavailable!");
-            player.sendMessage("§7MythicDungeons is not installed. Contact an administrator.");
-            return;
-        }
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        entryQueue.remove(event.getPlayer().getUniqueId());
+        requirementChecker.forget(event.getPlayer().getUniqueId());
+    }
 
-        // Open MythicDungeons interface
-        mythicDungeonsIntegration.openDungeonGUI(player, portal.getDungeonName());
-        player.sendMessage("§a✓ Entering " + portal.getDungeonName() + "...");
+    @EventHandler
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        // Permissions may be world-specific
+        requirementChecker.invalidate(event.getPlayer().getUniqueId());
     }
 }
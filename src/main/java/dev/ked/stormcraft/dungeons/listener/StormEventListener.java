@@ -22,13 +22,12 @@ public class StormEventListener implements Listener {
 
     @EventHandler
     public void onStormStart(StormcraftStormStartEvent event) {
-        // Portal spawning is handled by PortalManager's periodic check task
-        // This is just here for potential future use
+        // Schedules spawn evaluation for when the new storm is intense enough
+        portalManager.onStormStarted();
     }
 
     @EventHandler
     public void onStormEnd(StormcraftStormEndEvent event) {
-        // Portals will be cleaned up by PortalManager's cleanup task
-        // when it detects the storm has ended
+        portalManager.onStormEnded();
     }
 }
@@ -0,0 +1,112 @@
+package dev.ked.stormcraft.dungeons.load;
+
+import dev.ked.stormcraft.dungeons.config.ConfigManager;
+import dev.ked.stormcraft.dungeons.config.LoadSettings;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Samples the server's average tick time and picks a {@link LoadLevel}.
+ * Raising a level happens as soon as MSPT crosses its threshold; dropping back requires MSPT to
+ * fall a hysteresis margin below it, so the level does not flap around a threshold.
+ * Portal timers keep their base rates and ask {@link #shouldRun} whether to do work this time.
+ */
+public class LoadGovernor {
+
+    /**
+     * Work that can be slowed down under load.
+     */
+    public enum Task {
+        SPAWN,
+        RENDER,
+        CLEANUP
+    }
+
+    private static final LoadLevel[] LEVELS = LoadLevel.values();
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final int[] skipped = new int[Task.values().length];
+
+    private LoadLevel level = LoadLevel.NORMAL;
+    private double lastMspt;
+    private BukkitTask sampleTask;
+
+    public LoadGovernor(JavaPlugin plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+    }
+
+    /**
+     * Start sampling once a second.
+     */
+    public void start() {
+        sampleTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::sample, 20L, 20L);
+    }
+
+    public void shutdown() {
+        if (sampleTask != null) sampleTask.cancel();
+    }
+
+    /**
+     * Called by a timer each time it fires. Returns whether it should do its work this run.
+     */
+    public boolean shouldRun(Task task) {
+        int every = switch (task) {
+            case SPAWN -> level.getSpawnEvery();
+            case RENDER -> level.getRenderEvery();
+            case CLEANUP -> level.getCleanupEvery();
+        };
+        if (every <= 0) {
+            return false;
+        }
+
+        int index = task.ordinal();
+        if (++skipped[index] >= every) {
+            skipped[index] = 0;
+            return true;
+        }
+        return false;
+    }
+
+    public LoadLevel getLevel() {
+        return level;
+    }
+
+    public double getLastMspt() {
+        return lastMspt;
+    }
+
+    private void sample() {
+        LoadSettings settings = configManager.getSnapshot().getLoadSettings();
+        lastMspt = plugin.getServer().getAverageTickTime();
+
+        LoadLevel next = settings.enabled() ? nextLevel(settings, lastMspt) : LoadLevel.NORMAL;
+        if (next != level) {
+            plugin.getLogger().info(String.format("Load level %s -> %s (%.1f mspt)", level, next, lastMspt));
+            level = next;
+        }
+    }
+
+    private LoadLevel nextLevel(LoadSettings settings, double mspt) {
+        int next = level.ordinal();
+
+        while (next < LEVELS.length - 1 && mspt >= threshold(settings, LEVELS[next + 1])) {
+            next++;
+        }
+        while (next > 0 && mspt < threshold(settings, LEVELS[next]) - settings.hysteresisMspt()) {
+            next--;
+        }
+
+        return LEVELS[next];
+    }
+
+    private static double threshold(LoadSettings settings, LoadLevel level) {
+        return switch (level) {
+            case NORMAL -> 0;
+            case ELEVATED -> settings.elevatedMspt();
+            case HIGH -> settings.highMspt();
+            case CRITICAL -> settings.criticalMspt();
+        };
+    }
+}
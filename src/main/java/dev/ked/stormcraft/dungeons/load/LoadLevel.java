@@ -0,0 +1,49 @@
+package dev.ked.stormcraft.dungeons.load;
+
+/**
+ * Degradation levels, from no throttling to the minimum work needed to keep portals consistent.
+ * The "every" values are how many timer runs are skipped between real runs; zero means never.
+ */
+public enum LoadLevel {
+    NORMAL("§a", 1.0, 1, 1, 1),
+    ELEVATED("§e", 0.5, 2, 2, 2),
+    HIGH("§6", 0.25, 4, 4, 4),
+    CRITICAL("§c", 0.0, 0, 8, 4);
+
+    private final String color;
+    private final double particleDensity;
+    private final int renderEvery;
+    private final int spawnEvery;
+    private final int cleanupEvery;
+
+    LoadLevel(String color, double particleDensity, int renderEvery, int spawnEvery, int cleanupEvery) {
+        this.color = color;
+        this.particleDensity = particleDensity;
+        this.renderEvery = renderEvery;
+        this.spawnEvery = spawnEvery;
+        this.cleanupEvery = cleanupEvery;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    /**
+     * Fraction of the configured ring particles to draw.
+     */
+    public double getParticleDensity() {
+        return particleDensity;
+    }
+
+    public int getRenderEvery() {
+        return renderEvery;
+    }
+
+    public int getSpawnEvery() {
+        return spawnEvery;
+    }
+
+    public int getCleanupEvery() {
+        return cleanupEvery;
+    }
+}
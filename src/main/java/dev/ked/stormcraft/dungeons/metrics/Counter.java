@@ -0,0 +1,47 @@
+package dev.ked.stormcraft.dungeons.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic event counter. Safe to increment from any thread.
+ */
+public final class Counter {
+
+    private final String name;
+    private final String labels;
+    private final String help;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name, String labels, String help) {
+        this.name = name;
+        this.labels = labels;
+        this.help = help;
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Prometheus label pairs without braces, e.g. {@code call="essence.getPlayerSEL"}; empty if none.
+     */
+    public String getLabels() {
+        return labels;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+}
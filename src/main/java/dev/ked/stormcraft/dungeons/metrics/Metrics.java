@@ -0,0 +1,126 @@
+package dev.ked.stormcraft.dungeons.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide registry of counters and timers. Instrumented classes look their metrics up once
+ * into static fields, so recording never touches the registry.
+ */
+public final class Metrics {
+
+    /** Prefix for exported metric names. */
+    public static final String PREFIX = "stormcraft_dungeons_";
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name, String help) {
+        return counter(name, "", help);
+    }
+
+    /**
+     * Get or create a counter. Labels are Prometheus label pairs without braces.
+     */
+    public static Counter counter(String name, String labels, String help) {
+        return COUNTERS.computeIfAbsent(name + '{' + labels + '}', key -> new Counter(name, labels, help));
+    }
+
+    public static Timer timer(String name, String help) {
+        return timer(name, "", help);
+    }
+
+    /**
+     * Get or create a timer. Labels are Prometheus label pairs without braces.
+     */
+    public static Timer timer(String name, String labels, String help) {
+        return TIMERS.computeIfAbsent(name + '{' + labels + '}', key -> new Timer(name, labels, help));
+    }
+
+    /**
+     * All counters, sorted by name and labels.
+     */
+    public static List<Counter> getCounters() {
+        List<Counter> counters = new ArrayList<>(COUNTERS.values());
+        counters.sort(Comparator.comparing(Counter::getName).thenComparing(Counter::getLabels));
+        return counters;
+    }
+
+    /**
+     * All timers, sorted by name and labels.
+     */
+    public static List<Timer> getTimers() {
+        List<Timer> timers = new ArrayList<>(TIMERS.values());
+        timers.sort(Comparator.comparing(Timer::getName).thenComparing(Timer::getLabels));
+        return timers;
+    }
+
+    /**
+     * Render every metric in the Prometheus text exposition format. Timers are summaries in seconds
+     * with a separate max gauge.
+     */
+    public static String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+
+        String family = null;
+        for (Counter counter : getCounters()) {
+            String name = PREFIX + counter.getName() + "_total";
+            if (!name.equals(family)) {
+                family = name;
+                out.append("# HELP ").append(name).append(' ').append(counter.getHelp()).append('\n');
+                out.append("# TYPE ").append(name).append(" counter\n");
+            }
+            out.append(name).append(braces(counter.getLabels())).append(' ').append(counter.get()).append('\n');
+        }
+
+        family = null;
+        List<Timer> timers = getTimers();
+        for (Timer timer : timers) {
+            String name = PREFIX + timer.getName() + "_seconds";
+            if (!name.equals(family)) {
+                family = name;
+                out.append("# HELP ").append(name).append(' ').append(timer.getHelp()).append('\n');
+                out.append("# TYPE ").append(name).append(" summary\n");
+            }
+
+            Timer.Snapshot snapshot = timer.snapshot();
+            String labels = timer.getLabels();
+            for (double quantile : QUANTILES) {
+                String quantileLabel = "quantile=\"" + quantile + '"';
+                out.append(name).append(braces(labels.isEmpty() ? quantileLabel : labels + ',' + quantileLabel))
+                   .append(' ').append(seconds(snapshot.quantileNanos(quantile))).append('\n');
+            }
+            out.append(name).append("_sum").append(braces(labels)).append(' ').append(seconds(snapshot.sumNanos())).append('\n');
+            out.append(name).append("_count").append(braces(labels)).append(' ').append(snapshot.count()).append('\n');
+        }
+
+        family = null;
+        for (Timer timer : timers) {
+            String name = PREFIX + timer.getName() + "_max_seconds";
+            if (!name.equals(family)) {
+                family = name;
+                out.append("# TYPE ").append(name).append(" gauge\n");
+            }
+            out.append(name).append(braces(timer.getLabels())).append(' ')
+               .append(seconds(timer.snapshot().maxNanos())).append('\n');
+        }
+
+        return out.toString();
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : '{' + labels + '}';
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
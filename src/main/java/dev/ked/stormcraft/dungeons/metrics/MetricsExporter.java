@@ -0,0 +1,63 @@
+package dev.ked.stormcraft.dungeons.metrics;
+
+import dev.ked.stormcraft.dungeons.config.MetricsSettings;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Periodically writes {@link Metrics#toPrometheus()} to a file for a local scraper (for example
+ * node_exporter's textfile collector). Rendering and writing happen off the main thread; the file is
+ * replaced atomically so readers never see a partial write.
+ */
+public class MetricsExporter {
+
+    private final JavaPlugin plugin;
+    private final MetricsSettings settings;
+    private final File file;
+    private BukkitTask task;
+
+    public MetricsExporter(JavaPlugin plugin, MetricsSettings settings) {
+        this.plugin = plugin;
+        this.settings = settings;
+        File configured = new File(settings.exportFile());
+        this.file = configured.isAbsolute() ? configured : new File(plugin.getDataFolder(), settings.exportFile());
+    }
+
+    public void start() {
+        if (!settings.exportEnabled()) {
+            return;
+        }
+
+        long intervalTicks = settings.exportIntervalSeconds() * 20L;
+        task = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::export, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stop exporting, writing the final values first.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+            export();
+        }
+    }
+
+    private void export() {
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            parent.mkdirs();
+            File temp = new File(parent, file.getName() + ".tmp");
+            Files.writeString(temp.toPath(), Metrics.toPrometheus(), StandardCharsets.UTF_8);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to export metrics to " + file + ": " + e.getMessage());
+        }
+    }
+}
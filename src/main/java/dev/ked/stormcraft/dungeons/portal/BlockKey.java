@@ -0,0 +1,29 @@
+package dev.ked.stormcraft.dungeons.portal;
+
+/**
+ * Packs block coordinates into a single long (26 bits X, 26 bits Z, 12 bits Y).
+ */
+public final class BlockKey {
+
+    private BlockKey() {
+    }
+
+    /**
+     * Pack block coordinates into a key.
+     */
+    public static long pack(int x, int y, int z) {
+        return (((long) x & 0x3FFFFFFL) << 38) | (((long) z & 0x3FFFFFFL) << 12) | ((long) y & 0xFFFL);
+    }
+
+    public static int x(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int y(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int z(long key) {
+        return (int) (key << 26 >> 38);
+    }
+}
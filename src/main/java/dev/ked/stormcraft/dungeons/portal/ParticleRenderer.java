@@ -0,0 +1,94 @@
+package dev.ked.stormcraft.dungeons.portal;
+
+import dev.ked.stormcraft.dungeons.config.PortalSettings;
+import dev.ked.stormcraft.dungeons.spatial.SpatialGrid;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Draws the particle ring around each portal, sent only to players within view range.
+ * Ring offsets are computed once per settings snapshot; portals nobody can see are skipped
+ * after a single grid lookup. Main thread only.
+ */
+final class ParticleRenderer {
+
+    private static final double RING_HEIGHT = 1.5;
+
+    private final SpatialGrid<Player> playerGrid;
+    private final List<Player> viewers = new ArrayList<>();
+    private final Consumer<Player> collectViewer = viewers::add;
+
+    // Compiled from the settings below
+    private PortalSettings compiledFrom;
+    private double[] ringX = new double[0];
+    private double[] ringZ = new double[0];
+
+    ParticleRenderer(SpatialGrid<Player> playerGrid) {
+        this.playerGrid = playerGrid;
+    }
+
+    /**
+     * Render one frame for every active portal, drawing the given fraction of the ring.
+     */
+    void render(Collection<Portal> portals, PortalSettings settings, double density) {
+        if (!settings.particlesEnabled() || portals.isEmpty() || density <= 0) {
+            return;
+        }
+        if (settings != compiledFrom) {
+            compile(settings);
+        }
+
+        for (Portal portal : portals) {
+            if (!portal.isActive() || portal.isDormant()) {
+                continue;
+            }
+
+            Location location = portal.getLocation();
+            viewers.clear();
+            playerGrid.forEachWithin(location, settings.particleViewDistance(), collectViewer);
+            if (viewers.isEmpty()) {
+                continue;
+            }
+
+            double centerX = location.getX();
+            double centerY = location.getY() + RING_HEIGHT;
+            double centerZ = location.getZ();
+            int stride = density >= 1 ? 1 : (int) Math.round(1 / density);
+
+            for (int v = 0; v < viewers.size(); v++) {
+                Player viewer = viewers.get(v);
+                for (int i = 0; i < ringX.length; i += stride) {
+                    viewer.spawnParticle(settings.particleType(),
+                        centerX + ringX[i], centerY, centerZ + ringZ[i],
+                        1, 0, 0, 0, 0.1);
+                }
+
+                // Add some electric sparks
+                viewer.spawnParticle(Particle.ELECTRIC_SPARK, centerX, centerY, centerZ, 3, 0.5, 0.5, 0.5, 0.1);
+            }
+        }
+
+        viewers.clear();
+    }
+
+    private void compile(PortalSettings settings) {
+        int count = Math.max(0, settings.particleCount());
+        double radius = settings.particleRadius();
+
+        ringX = new double[count];
+        ringZ = new double[count];
+        for (int i = 0; i < count; i++) {
+            double angle = (2 * Math.PI * i) / count;
+            ringX[i] = Math.cos(angle) * radius;
+            ringZ[i] = Math.sin(angle) * radius;
+        }
+
+        compiledFrom = settings;
+    }
+}
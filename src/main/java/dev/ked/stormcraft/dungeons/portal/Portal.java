@@ -1,130 +1,223 @@
 package dev.ked.stormcraft.dungeons.portal;
 
-import dev.ked.stormcraft.model.TravelingStorm;
+import dev.ked.stormcraft.dungeons.config.PortalStructure;
+import dev.ked.stormcraft.dungeons.storm.TrackedStorm;
 import org.bukkit.Location;
-import org.bukkit.Material;
-import org.bukkit.Particle;
+import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
  * Represents a dungeon portal spawned during a storm.
+ * Block integrity is tracked from events rather than by reading blocks; while any of the portal's
+ * chunks is unloaded the portal is dormant and is neither rendered nor validated.
+ * The structure is placed and restored incrementally by {@link StructureBuilder}; the states it
+ * replaced are kept as indexes into a small palette so removal puts back exactly what was there.
  */
 public class Portal {
 
     private final UUID id;
     private final String dungeonName;
-    private final TravelingStorm storm;
+    private final TrackedStorm storm;
     private final Location location;
-    private final List<Block> portalBlocks;
+    private final World world;
+    private final PortalStructure structure;
+    private final long[] footprint; // Packed block keys (see BlockKey), in structure order
+    private final BitSet intact; // Bit i set while footprint[i] is intact
+    private int intactCount;
     private boolean active;
+    private boolean dormant;
 
-    public Portal(String dungeonName, TravelingStorm storm, Location location) {
+    // Original block states, recorded as blocks are placed
+    private int placed;
+    private final short[] originalIndex;
+    private final List<BlockData> originalPalette;
+    private Map<BlockData, Short> originalLookup; // Only needed while building
+
+    public Portal(String dungeonName, TrackedStorm storm, Location location, PortalStructure structure) {
         this.id = UUID.randomUUID();
         this.dungeonName = dungeonName;
         this.storm = storm;
         this.location = location;
-        this.portalBlocks = new ArrayList<>();
+        this.world = location.getWorld();
+        this.structure = structure;
         this.active = true;
+
+        int size = structure.size();
+        int baseX = location.getBlockX();
+        int baseY = location.getBlockY();
+        int baseZ = location.getBlockZ();
+        this.footprint = new long[size];
+        for (int i = 0; i < size; i++) {
+            footprint[i] = BlockKey.pack(baseX + structure.dx(i), baseY + structure.dy(i), baseZ + structure.dz(i));
+        }
+        this.intact = new BitSet(size);
+        intact.set(0, size);
+        this.intactCount = size;
+
+        this.originalIndex = new short[size];
+        this.originalPalette = new ArrayList<>(4);
+        this.originalLookup = new HashMap<>();
     }
 
     /**
-     * Spawn the physical portal structure.
+     * Place the next structure block without physics, remembering what it replaces.
      */
-    public void spawn() {
-        // Create a simple 3x3 nether portal frame
-        Location base = location.clone();
-
-        // Build frame (obsidian)
-        for (int y = 0; y < 3; y++) {
-            for (int x = -1; x <= 1; x++) {
-                Location blockLoc = base.clone().add(x, y, 0);
-
-                // Frame only on edges
-                if (x == -1 || x == 1 || y == 0 || y == 2) {
-                    blockLoc.getBlock().setType(Material.OBSIDIAN);
-                    portalBlocks.add(blockLoc.getBlock());
-                } else if (y == 1) {
-                    // Middle - portal blocks
-                    blockLoc.getBlock().setType(Material.NETHER_PORTAL);
-                    portalBlocks.add(blockLoc.getBlock());
-                }
-            }
+    void placeNext() {
+        Block block = blockAt(placed);
+        BlockData original = block.getBlockData();
+
+        Short index = originalLookup.get(original);
+        if (index == null) {
+            index = (short) originalPalette.size();
+            originalPalette.add(original);
+            originalLookup.put(original, index);
+        }
+        originalIndex[placed] = index;
+
+        block.setBlockData(structure.blockData(placed), false);
+        placed++;
+
+        if (placed == footprint.length) {
+            originalLookup = null;
         }
     }
 
     /**
-     * Remove the portal structure.
+     * Put back the most recently placed block's original state, without physics.
      */
-    public void remove() {
-        for (Block block : portalBlocks) {
-            block.setType(Material.AIR);
-        }
-        portalBlocks.clear();
-        active = false;
+    void restoreLast() {
+        placed--;
+        blockAt(placed).setBlockData(originalPalette.get(originalIndex[placed]), false);
+    }
+
+    /**
+     * Number of structure blocks currently placed; placement and restoration both work from here.
+     */
+    int getPlacedCount() {
+        return placed;
     }
 
     /**
-     * Render particle effects around the portal.
+     * Check if the chunk holding a structure block is loaded.
      */
-    public void renderParticles() {
-        if (!active) return;
-
-        Location particleLoc = location.clone().add(0, 1.5, 0);
-
-        // Spawn portal particles in a circle
-        for (int i = 0; i < 20; i++) {
-            double angle = (2 * Math.PI * i) / 20;
-            double x = Math.cos(angle) * 2.0;
-            double z = Math.sin(angle) * 2.0;
-
-            location.getWorld().spawnParticle(
-                Particle.PORTAL,
-                particleLoc.clone().add(x, 0, z),
-                1, 0, 0, 0, 0.1
-            );
+    boolean isBlockLoaded(int index) {
+        long key = footprint[index];
+        return world.isChunkLoaded(BlockKey.x(key) >> 4, BlockKey.z(key) >> 4);
+    }
+
+    /**
+     * The block states replaced so far, one per footprint block (null where nothing is placed yet).
+     */
+    String[] getOriginalStates() {
+        String[] states = new String[footprint.length];
+        for (int i = 0; i < placed; i++) {
+            states[i] = originalPalette.get(originalIndex[i]).getAsString();
         }
+        return states;
+    }
+
+    public boolean isBuilt() {
+        return placed == footprint.length;
+    }
 
-        // Add some electric sparks
-        location.getWorld().spawnParticle(
-            Particle.ELECTRIC_SPARK,
-            particleLoc,
-            3, 0.5, 0.5, 0.5, 0.1
-        );
+    private Block blockAt(int index) {
+        long key = footprint[index];
+        return world.getBlockAt(BlockKey.x(key), BlockKey.y(key), BlockKey.z(key));
     }
 
     /**
-     * Check if this portal is still valid (storm still active, blocks intact).
+     * Check if this portal is still valid (storm still active, blocks intact). Does not touch the world.
      */
     public boolean isValid() {
         if (!active) return false;
 
         // Check if storm is still active
-        if (storm.getRemainingSeconds() <= 0) {
+        if (!storm.isActive() || storm.getRemainingSeconds() <= 0) {
             return false;
         }
 
-        // Check if portal blocks are still intact
-        int intactBlocks = 0;
-        for (Block block : portalBlocks) {
-            if (block.getType() == Material.NETHER_PORTAL || block.getType() == Material.OBSIDIAN) {
-                intactBlocks++;
+        return isIntact();
+    }
+
+    /**
+     * Portal is intact if at least half the blocks are.
+     */
+    public boolean isIntact() {
+        return intactCount >= (footprint.length / 2);
+    }
+
+    /**
+     * Record that a footprint block was destroyed.
+     * Returns true if this is the damage that took the portal below the intact threshold.
+     */
+    public boolean markDamaged(long blockKey) {
+        for (int i = 0; i < footprint.length; i++) {
+            if (footprint[i] == blockKey) {
+                if (i >= placed || !intact.get(i)) {
+                    return false; // Not built yet, or already counted
+                }
+                boolean wasIntact = isIntact();
+                intact.clear(i);
+                intactCount--;
+                return wasIntact && !isIntact();
             }
         }
+        return false;
+    }
 
-        // Portal is valid if at least half the blocks are intact
-        return intactBlocks >= (portalBlocks.size() / 2);
+    /**
+     * Re-read the placed footprint blocks; blocks not yet placed count as intact.
+     * Only call while every chunk of the portal is loaded.
+     */
+    public void refreshIntegrity() {
+        intact.set(0, footprint.length);
+        intactCount = footprint.length;
+        for (int i = 0; i < placed; i++) {
+            if (blockAt(i).getType() != structure.material(i)) {
+                intact.clear(i);
+                intactCount--;
+            }
+        }
+    }
+
+    /**
+     * Check if any footprint block lies in the given chunk.
+     */
+    public boolean isInChunk(int chunkX, int chunkZ) {
+        for (long key : footprint) {
+            if ((BlockKey.x(key) >> 4) == chunkX && (BlockKey.z(key) >> 4) == chunkZ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if every chunk the portal occupies is loaded.
+     */
+    public boolean isLoaded() {
+        for (long key : footprint) {
+            if (!world.isChunkLoaded(BlockKey.x(key) >> 4, BlockKey.z(key) >> 4)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Check if a location is part of this portal.
+     * Check if a packed block key is part of this portal.
      */
-    public boolean isPortalBlock(Location loc) {
-        for (Block block : portalBlocks) {
-            if (block.getLocation().equals(loc)) {
+    public boolean isPortalBlock(long blockKey) {
+        for (long key : footprint) {
+            if (key == blockKey) {
                 return true;
             }
         }
@@ -140,7 +233,7 @@ public class Portal {
         return dungeonName;
     }
 
-    public TravelingStorm getStorm() {
+    public TrackedStorm getStorm() {
         return storm;
     }
 
@@ -148,6 +241,25 @@ public class Portal {
         return location;
     }
 
+    public PortalStructure getStructure() {
+        return structure;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public UUID getWorldId() {
+        return world.getUID();
+    }
+
+    /**
+     * Get the packed block keys occupied by this portal.
+     */
+    public long[] getFootprint() {
+        return footprint;
+    }
+
     public boolean isActive() {
         return active;
     }
@@ -155,4 +267,12 @@ public class Portal {
     public void setActive(boolean active) {
         this.active = active;
     }
+
+    public boolean isDormant() {
+        return dormant;
+    }
+
+    public void setDormant(boolean dormant) {
+        this.dormant = dormant;
+    }
 }
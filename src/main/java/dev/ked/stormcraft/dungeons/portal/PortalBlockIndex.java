@@ -0,0 +1,72 @@
+package dev.ked.stormcraft.dungeons.portal;
+
+import dev.ked.stormcraft.dungeons.util.LongHashTable;
+import org.bukkit.block.Block;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-world index from packed block coordinates to the portal occupying that block.
+ * Lookups are constant-time and do not allocate. Main thread only.
+ */
+final class PortalBlockIndex {
+
+    private final Map<UUID, LongHashTable<Portal>> worlds = new HashMap<>();
+
+    /**
+     * Index every block in the portal's footprint.
+     */
+    void add(Portal portal) {
+        LongHashTable<Portal> table = worlds.computeIfAbsent(portal.getWorldId(), id -> new LongHashTable<>());
+        for (long key : portal.getFootprint()) {
+            table.put(key, portal);
+        }
+    }
+
+    /**
+     * Drop every block in the portal's footprint from the index.
+     */
+    void remove(Portal portal) {
+        LongHashTable<Portal> table = worlds.get(portal.getWorldId());
+        if (table == null) {
+            return;
+        }
+
+        for (long key : portal.getFootprint()) {
+            table.remove(key, portal);
+        }
+
+        if (table.isEmpty()) {
+            worlds.remove(portal.getWorldId());
+        }
+    }
+
+    /**
+     * Get the portal occupying a block, if any.
+     */
+    Portal get(Block block) {
+        LongHashTable<Portal> table = worlds.get(block.getWorld().getUID());
+        if (table == null) {
+            return null;
+        }
+        return table.get(BlockKey.pack(block.getX(), block.getY(), block.getZ()));
+    }
+
+    /**
+     * Get the portal occupying a block position in a world, if any.
+     */
+    Portal get(UUID worldId, long key) {
+        LongHashTable<Portal> table = worlds.get(worldId);
+        return table == null ? null : table.get(key);
+    }
+
+    boolean isEmpty() {
+        return worlds.isEmpty();
+    }
+
+    void clear() {
+        worlds.clear();
+    }
+}
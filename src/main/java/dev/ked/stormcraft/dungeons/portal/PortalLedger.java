@@ -0,0 +1,283 @@
+package dev.ked.stormcraft.dungeons.portal;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Crash-safe record of every portal structure standing in the world, in portals.yml.
+ *
+ * Entries are added when a portal starts building, updated with the replaced block states once it
+ * is built, and dropped once its blocks are restored. Writes happen on a background thread and are
+ * coalesced: only the latest state is written, atomically. Anything still in the file at startup was
+ * left behind by a crash and is cleared as its chunks load.
+ */
+final class PortalLedger {
+
+    private final File file;
+    private final Logger logger;
+    private final Map<UUID, Entry> entries; // Main thread
+    private final AtomicReference<List<Entry>> pending;
+    private final ExecutorService writer;
+
+    PortalLedger(File dataFolder, Logger logger) {
+        this.file = new File(dataFolder, "portals.yml");
+        this.logger = logger;
+        this.entries = new LinkedHashMap<>();
+        this.pending = new AtomicReference<>();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "StormcraftDungeons-PortalLedger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Read the entries left by the previous run. They stay in the ledger until {@link #remove} is
+     * called for them, so a second crash before they are cleared loses nothing.
+     */
+    List<Entry> load() {
+        if (!file.exists()) {
+            return List.of();
+        }
+
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        ConfigurationSection portals = yaml.getConfigurationSection("portals");
+        if (portals == null) {
+            return List.of();
+        }
+
+        List<Entry> loaded = new ArrayList<>();
+        for (String key : portals.getKeys(false)) {
+            try {
+                Entry entry = Entry.read(UUID.fromString(key), portals.getConfigurationSection(key));
+                entries.put(entry.id(), entry);
+                loaded.add(entry);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                logger.warning("Skipping corrupt portal ledger entry " + key + ": " + e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Record a portal's current footprint and replaced block states.
+     */
+    void record(Portal portal) {
+        entries.put(portal.getId(), Entry.of(portal));
+        scheduleWrite();
+    }
+
+    /**
+     * Forget a portal whose blocks are gone.
+     */
+    void remove(UUID id) {
+        if (entries.remove(id) != null) {
+            scheduleWrite();
+        }
+    }
+
+    /**
+     * Write the final state and stop the writer.
+     */
+    void close() {
+        scheduleWrite();
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warning("Portal ledger writer did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduleWrite() {
+        // Only submit when no write is waiting; a waiting write will pick up this snapshot instead
+        if (pending.getAndSet(List.copyOf(entries.values())) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    private void writePending() {
+        List<Entry> snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+
+        try {
+            if (snapshot.isEmpty()) {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+
+            YamlConfiguration yaml = new YamlConfiguration();
+            for (Entry entry : snapshot) {
+                entry.write(yaml.createSection("portals." + entry.id()));
+            }
+
+            file.getParentFile().mkdirs();
+            File temp = new File(file.getParentFile(), "portals.yml.tmp");
+            yaml.save(temp);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to write portal ledger", e);
+        }
+    }
+
+    /**
+     * One portal's footprint: for each block, the material the portal put there and the state it
+     * replaced (null if not known yet, in which case the block is cleared to air).
+     */
+    record Entry(UUID id, UUID worldId, String dungeonName, long[] footprint, Material[] placed, String[] original) {
+
+        static Entry of(Portal portal) {
+            long[] footprint = portal.getFootprint();
+            Material[] placed = new Material[footprint.length];
+            for (int i = 0; i < footprint.length; i++) {
+                placed[i] = portal.getStructure().material(i);
+            }
+            return new Entry(portal.getId(), portal.getWorldId(), portal.getDungeonName(),
+                             footprint, placed, portal.getOriginalStates());
+        }
+
+        /**
+         * Check if any footprint block lies in the given chunk.
+         */
+        boolean isInChunk(int chunkX, int chunkZ) {
+            for (long key : footprint) {
+                if ((BlockKey.x(key) >> 4) == chunkX && (BlockKey.z(key) >> 4) == chunkZ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Check if every chunk of the footprint is loaded.
+         */
+        boolean isLoaded(World world) {
+            for (long key : footprint) {
+                if (!world.isChunkLoaded(BlockKey.x(key) >> 4, BlockKey.z(key) >> 4)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Put back the replaced state of every block that still holds what the portal placed there.
+         * Blocks players have since changed are left alone. Only call while every chunk is loaded.
+         */
+        void restore(World world) {
+            BlockData air = Bukkit.createBlockData(Material.AIR);
+            for (int i = 0; i < footprint.length; i++) {
+                long key = footprint[i];
+                Block block = world.getBlockAt(BlockKey.x(key), BlockKey.y(key), BlockKey.z(key));
+                if (block.getType() != placed[i]) {
+                    continue;
+                }
+
+                BlockData data = air;
+                if (original[i] != null) {
+                    try {
+                        data = Bukkit.createBlockData(original[i]);
+                    } catch (IllegalArgumentException e) {
+                        // State from a different game version; air is the safe fallback
+                    }
+                }
+                block.setBlockData(data, false);
+            }
+        }
+
+        private void write(ConfigurationSection section) {
+            section.set("world", worldId.toString());
+            section.set("dungeon", dungeonName);
+
+            List<Long> blocks = new ArrayList<>(footprint.length);
+            for (long key : footprint) {
+                blocks.add(key);
+            }
+            section.set("blocks", blocks);
+
+            String[] placedNames = new String[placed.length];
+            for (int i = 0; i < placed.length; i++) {
+                placedNames[i] = placed[i].name();
+            }
+            writePalette(section, "placed", placedNames);
+            writePalette(section, "original", original);
+        }
+
+        private static Entry read(UUID id, ConfigurationSection section) {
+            UUID worldId = UUID.fromString(section.getString("world"));
+
+            List<Long> blocks = section.getLongList("blocks");
+            long[] footprint = new long[blocks.size()];
+            for (int i = 0; i < footprint.length; i++) {
+                footprint[i] = blocks.get(i);
+            }
+
+            String[] placedNames = readPalette(section, "placed", footprint.length);
+            Material[] placed = new Material[footprint.length];
+            for (int i = 0; i < footprint.length; i++) {
+                placed[i] = placedNames[i] != null ? Material.matchMaterial(placedNames[i]) : null;
+            }
+
+            return new Entry(id, worldId, section.getString("dungeon"), footprint, placed,
+                             readPalette(section, "original", footprint.length));
+        }
+
+        /**
+         * Per-block strings as a palette plus one index per block (-1 for null).
+         */
+        private static void writePalette(ConfigurationSection section, String name, String[] values) {
+            Map<String, Integer> lookup = new HashMap<>();
+            List<String> palette = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>(values.length);
+            for (String value : values) {
+                if (value == null) {
+                    indexes.add(-1);
+                    continue;
+                }
+                indexes.add(lookup.computeIfAbsent(value, v -> {
+                    palette.add(v);
+                    return palette.size() - 1;
+                }));
+            }
+            section.set(name + "_palette", palette);
+            section.set(name, indexes);
+        }
+
+        private static String[] readPalette(ConfigurationSection section, String name, int length) {
+            List<String> palette = section.getStringList(name + "_palette");
+            List<Integer> indexes = section.getIntegerList(name);
+            String[] values = new String[length];
+            for (int i = 0; i < Math.min(length, indexes.size()); i++) {
+                int index = indexes.get(i);
+                values[i] = index >= 0 && index < palette.size() ? palette.get(index) : null;
+            }
+            return values;
+        }
+    }
+}
@@ -1,30 +1,62 @@
 package dev.ked.stormcraft.dungeons.portal;
 
 import dev.ked.stormcraft.dungeons.config.ConfigManager;
+import dev.ked.stormcraft.dungeons.config.ConfigSnapshot;
+import dev.ked.stormcraft.dungeons.config.DungeonDefinition;
+import dev.ked.stormcraft.dungeons.config.PortalStructure;
 import dev.ked.stormcraft.dungeons.integration.StormcraftIntegration;
+import dev.ked.stormcraft.dungeons.load.LoadGovernor;
+import dev.ked.stormcraft.dungeons.load.LoadLevel;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
 import dev.ked.stormcraft.dungeons.requirement.RequirementChecker;
-import dev.ked.stormcraft.model.TravelingStorm;
+import dev.ked.stormcraft.dungeons.spatial.SpatialGrid;
+import dev.ked.stormcraft.dungeons.storm.StormTracker;
+import dev.ked.stormcraft.dungeons.storm.TrackedStorm;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Manages dungeon portal spawning, rendering, and lifecycle.
  */
 public class PortalManager {
 
+    private static final Timer SPAWN_CHECK_TIMER = Metrics.timer("portal_spawn_check", "Spawn reconciliation pass over all storms");
+    private static final Timer RENDER_TIMER = Metrics.timer("portal_render", "Particle rendering pass over all portals");
+    private static final Timer CLEANUP_TIMER = Metrics.timer("portal_cleanup", "Invalid portal cleanup pass");
+
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
     private final StormcraftIntegration stormcraftIntegration;
+    private final StormTracker stormTracker;
     private final RequirementChecker requirementChecker;
+    private final SpatialGrid<Player> playerGrid;
+    private final LoadGovernor loadGovernor;
 
     private final Map<UUID, Portal> activePortals;
-    private final Set<String> portaledStorms; // Track which storms already have portals
+    private final PortalBlockIndex blockIndex;
+    private final SpatialGrid<Portal> portalGrid;
+    private final ParticleRenderer particleRenderer;
+    private final PortalSiteFinder siteFinder;
+    private final StructureBuilder structureBuilder;
+    private final PortalLedger ledger;
+    private final List<PortalLedger.Entry> orphans; // Left behind by a crash; cleared as their chunks load
+    private int pendingSpawns; // Site searches in flight, counted against max_portals
+    private final List<Portal> detachedPortals; // Retired while dormant; blocks cleared when their chunks load
+
+    // Notified on the main thread when a portal has finished building, and when one is removed
+    private final List<Consumer<Portal>> openListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Portal>> closeListeners = new CopyOnWriteArrayList<>();
 
     private BukkitTask spawnTask;
     private BukkitTask particleTask;
@@ -32,29 +64,62 @@ public class PortalManager {
 
     public PortalManager(JavaPlugin plugin, ConfigManager configManager,
                         StormcraftIntegration stormcraftIntegration,
-                        RequirementChecker requirementChecker) {
+                        StormTracker stormTracker,
+                        RequirementChecker requirementChecker,
+                        SpatialGrid<Player> playerGrid,
+                        LoadGovernor loadGovernor) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.stormcraftIntegration = stormcraftIntegration;
+        this.stormTracker = stormTracker;
         this.requirementChecker = requirementChecker;
+        this.playerGrid = playerGrid;
+        this.loadGovernor = loadGovernor;
         this.activePortals = new ConcurrentHashMap<>();
-        this.portaledStorms = ConcurrentHashMap.newKeySet();
+        this.blockIndex = new PortalBlockIndex();
+        this.portalGrid = new SpatialGrid<>((portal, scratch) -> portal.getLocation());
+        this.particleRenderer = new ParticleRenderer(playerGrid);
+        this.siteFinder = new PortalSiteFinder(plugin);
+        this.structureBuilder = new StructureBuilder(plugin, () -> configManager.getSnapshot().getPortals().blocksPerTick());
+        this.detachedPortals = new ArrayList<>();
+        this.ledger = new PortalLedger(plugin.getDataFolder(), plugin.getLogger());
+        this.orphans = new ArrayList<>();
     }
 
     /**
      * Start the portal manager tasks.
      */
     public void start() {
-        int checkInterval = configManager.getConfig().getInt("portals.check_interval", 100);
+        int checkInterval = configManager.getSnapshot().getPortals().checkInterval();
+
+        // Structures a crash left standing; the ones in already loaded chunks go on the first tick
+        orphans.addAll(ledger.load());
+        if (!orphans.isEmpty()) {
+            plugin.getLogger().info("Found " + orphans.size() + " portal(s) left from the last run; clearing as their chunks load");
+            Bukkit.getScheduler().runTask(plugin, this::reconcileLoadedOrphans);
+        }
 
-        // Portal spawning task (every 5 seconds by default)
-        spawnTask = Bukkit.getScheduler().runTaskTimer(plugin, this::checkForPortalSpawns, 20L, checkInterval);
+        // Storm start/end events drive spawning and removal; these timers are the safety net.
+        // Base rates; the load governor skips runs when the server is struggling, and above
+        // normal load the spawn timer is the only thing that spawns
+
+        // Storms already running when we start
+        Bukkit.getScheduler().runTask(plugin, this::scheduleSpawnEvaluations);
+
+        // Spawn reconciliation task (every 60 seconds by default)
+        spawnTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            if (loadGovernor.shouldRun(LoadGovernor.Task.SPAWN)) checkForPortalSpawns();
+        }, 20L, checkInterval);
 
         // Particle rendering task (every 20 ticks / 1 second)
-        particleTask = Bukkit.getScheduler().runTaskTimer(plugin, this::renderAllPortals, 20L, 20L);
+        particleTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            if (loadGovernor.shouldRun(LoadGovernor.Task.RENDER)) renderAllPortals();
+        }, 20L, 20L);
 
         // Cleanup task (every 30 seconds)
-        cleanupTask = Bukkit.getScheduler().runTaskTimer(plugin, this::cleanupInvalidPortals, 20L, 600L);
+        cleanupTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            if (loadGovernor.shouldRun(LoadGovernor.Task.CLEANUP)) cleanupInvalidPortals();
+        }, 20L, 600L);
 
         plugin.getLogger().info("Portal manager started");
     }
@@ -67,125 +132,405 @@ public class PortalManager {
         if (particleTask != null) particleTask.cancel();
         if (cleanupTask != null) cleanupTask.cancel();
 
-        // Remove all portals
+        // Remove all portals, restoring the blocks of those in loaded chunks now rather than over
+        // the next ticks. The rest stay in portals.yml and are cleared as their chunks load after
+        // the next start, so no chunk is loaded while the server stops
         for (Portal portal : new ArrayList<>(activePortals.values())) {
             removePortal(portal);
         }
+        for (Portal portal : detachedPortals) {
+            restoreStructure(portal);
+        }
+        detachedPortals.clear();
+        for (Portal portal : structureBuilder.flushLoaded()) {
+            ledger.record(portal); // With every state replaced so far
+        }
+        ledger.close();
 
         plugin.getLogger().info("Portal manager stopped");
     }
 
     /**
-     * Check if any storms qualify for portal spawning.
+     * Called when a storm starts. The storm list is read on the next tick so the new storm is in it.
      */
-    private void checkForPortalSpawns() {
-        List<TravelingStorm> storms = stormcraftIntegration.getActiveStorms();
-        int maxPortals = configManager.getConfig().getInt("storms.max_portals", 5);
+    public void onStormStarted() {
+        Bukkit.getScheduler().runTask(plugin, this::scheduleSpawnEvaluations);
+    }
 
-        // Don't spawn more portals if at max
-        if (activePortals.size() >= maxPortals) {
-            return;
+    /**
+     * Called when a storm ends. Portals of storms that are gone are removed on the next tick.
+     */
+    public void onStormEnded() {
+        Bukkit.getScheduler().runTask(plugin, this::removeEndedStormPortals);
+    }
+
+    /**
+     * Schedule a spawn evaluation for each storm at the moment its intensity first reaches
+     * the lowest spawn intensity of any enabled dungeon. Above normal load the evaluation is left
+     * to the reconciliation timer, which the load governor slows down.
+     */
+    private void scheduleSpawnEvaluations() {
+        int minIntensity = Integer.MAX_VALUE;
+        for (DungeonDefinition dungeon : configManager.getSnapshot().getDungeons()) {
+            if (dungeon.enabled() && dungeon.portalEnabled()) {
+                minIntensity = Math.min(minIntensity, dungeon.minSpawnIntensity());
+            }
+        }
+        if (minIntensity > 100) {
+            return; // Nothing can spawn
         }
 
-        for (TravelingStorm storm : storms) {
-            // Skip if this storm already has a portal
-            String stormId = getStormId(storm);
-            if (portaledStorms.contains(stormId)) {
+        for (TrackedStorm storm : stormTracker.getStorms()) {
+            if (storm.hasPortal() || storm.isSpawnScheduled()) {
                 continue;
             }
 
-            // Check each dungeon type
-            for (String dungeonKey : getDungeonKeys()) {
-                if (shouldSpawnPortal(storm, dungeonKey)) {
-                    spawnPortal(storm, dungeonKey);
-                    break; // Only one portal per storm
+            storm.setSpawnScheduled(true);
+            long delayTicks = storm.secondsUntilIntensity(minIntensity) * 20L + 1;
+            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                storm.setSpawnScheduled(false);
+                if (loadGovernor.getLevel() != LoadLevel.NORMAL) {
+                    return;
                 }
+                stormTracker.sync();
+                if (storm.isActive()) {
+                    evaluateStorm(storm, configManager.getSnapshot());
+                }
+            }, delayTicks);
+        }
+    }
+
+    /**
+     * Reconciliation: check if any storms qualify for portal spawning.
+     */
+    private void checkForPortalSpawns() {
+        long start = SPAWN_CHECK_TIMER.start();
+        try {
+            ConfigSnapshot config = configManager.getSnapshot();
+            for (TrackedStorm storm : stormTracker.getStorms()) {
+                evaluateStorm(storm, config);
             }
+        } finally {
+            SPAWN_CHECK_TIMER.stop(start);
         }
     }
 
     /**
-     * Check if a portal should spawn for this storm and dungeon.
+     * Roll for a portal on one storm, if it does not already have one.
      */
-    private boolean shouldSpawnPortal(TravelingStorm storm, String dungeonKey) {
-        String basePath = "dungeons." + dungeonKey;
+    private void evaluateStorm(TrackedStorm storm, ConfigSnapshot config) {
+        // Don't spawn more portals if at max
+        if (activePortals.size() + pendingSpawns >= config.getPortals().maxPortals()) {
+            return;
+        }
 
-        // Check if dungeon is enabled
-        if (!configManager.getConfig().getBoolean(basePath + ".enabled", false)) {
-            return false;
+        // Skip if this storm already has (or is getting) a portal
+        if (storm.hasPortal()) {
+            return;
+        }
+
+        // Check each dungeon type
+        for (DungeonDefinition dungeon : config.getDungeons()) {
+            if (shouldSpawnPortal(storm, dungeon)) {
+                spawnPortal(storm, dungeon.key());
+                return; // Only one portal per storm
+            }
+        }
+    }
+
+    /**
+     * Remove portals whose storm is no longer active.
+     */
+    private void removeEndedStormPortals() {
+        if (!configManager.getSnapshot().getPortals().removeOnStormEnd()) {
+            return;
         }
 
-        // Check if portal spawning is enabled for this dungeon
-        if (!configManager.getConfig().getBoolean(basePath + ".portal.enabled", true)) {
+        stormTracker.sync();
+        for (Portal portal : new ArrayList<>(activePortals.values())) {
+            if (!portal.getStorm().isActive()) {
+                retirePortal(portal);
+            }
+        }
+    }
+
+    /**
+     * Check if a portal should spawn for this storm and dungeon.
+     */
+    private boolean shouldSpawnPortal(TrackedStorm storm, DungeonDefinition dungeon) {
+        // Check if dungeon and its portal spawning are enabled
+        if (!dungeon.enabled() || !dungeon.portalEnabled()) {
             return false;
         }
 
         // Check storm intensity requirement
-        int minIntensity = configManager.getConfig().getInt(basePath + ".requirements.min_storm_intensity", 40);
-        if (stormcraftIntegration.getStormIntensity(storm) < minIntensity) {
+        if (storm.getIntensity() < dungeon.minSpawnIntensity()) {
             return false;
         }
 
         // Roll spawn chance
-        double spawnChance = configManager.getConfig().getDouble(basePath + ".portal.spawn_chance", 0.5);
-        return Math.random() < spawnChance;
+        return Math.random() < dungeon.spawnChance();
     }
 
     /**
-     * Spawn a portal for a dungeon near a storm.
+     * Spawn a portal for a dungeon near a storm. The site is searched asynchronously; the storm is
+     * reserved meanwhile so it cannot get a second portal.
      */
-    public void spawnPortal(TravelingStorm storm, String dungeonName) {
-        // Find safe spawn location
-        Location spawnLoc = stormcraftIntegration.getSafeSpawnNearStorm(storm, 50, 150);
+    public void spawnPortal(TrackedStorm storm, String dungeonName) {
+        DungeonDefinition dungeon = configManager.getDungeon(dungeonName);
+        PortalStructure structure = dungeon != null ? dungeon.structure()
+            : configManager.getSnapshot().getPortals().defaultStructure();
+
+        storm.setHasPortal(true);
+        pendingSpawns++;
+
+        siteFinder.find(storm.getLocation(), 50, 150, structure).whenComplete((spawnLoc, error) -> {
+            pendingSpawns--;
 
+            if (error != null) {
+                storm.setHasPortal(false);
+                plugin.getLogger().warning("Failed to find a site for " + dungeonName + " portal: " + error.getMessage());
+                return;
+            }
+
+            if (!plugin.isEnabled() || !storm.isActive()) {
+                storm.setHasPortal(false);
+                return;
+            }
+
+            placePortal(storm, dungeonName, spawnLoc, structure);
+        });
+    }
+
+    /**
+     * Track a portal at a chosen site and queue its structure for building.
+     * The footprint is indexed straight away so the blocks are protected as they go up.
+     */
+    private void placePortal(TrackedStorm storm, String dungeonName, Location spawnLoc, PortalStructure structure) {
         // Create portal
-        Portal portal = new Portal(dungeonName, storm, spawnLoc);
-        portal.spawn();
+        Portal portal = new Portal(dungeonName, storm, spawnLoc, structure);
+        ledger.record(portal);
 
         // Track portal
         activePortals.put(portal.getId(), portal);
-        portaledStorms.add(getStormId(storm));
-
-        // Announce to nearby players
-        announcePortalSpawn(portal);
+        blockIndex.add(portal);
+        portalGrid.update(portal, portal.getLocation());
+        storm.setHasPortal(true);
+
+        // Announce to nearby players once it is standing
+        structureBuilder.build(portal, () -> {
+            ledger.record(portal); // Now with every replaced state
+            if (portal.isActive()) {
+                announcePortalSpawn(portal);
+                for (Consumer<Portal> listener : openListeners) {
+                    listener.accept(portal);
+                }
+            }
+        });
 
-        plugin.getLogger().info("Spawned " + dungeonName + " portal at " + formatLocation(spawnLoc));
+        plugin.getLogger().info("Spawning " + dungeonName + " portal at " + formatLocation(spawnLoc));
     }
 
     /**
-     * Remove a portal.
+     * Remove a portal. Its blocks are restored over the next few ticks.
      */
     public void removePortal(Portal portal) {
-        portal.remove();
-        activePortals.remove(portal.getId());
-        portaledStorms.remove(getStormId(portal.getStorm()));
+        detachPortal(portal);
+        portal.setActive(false);
+        restoreStructure(portal);
 
         plugin.getLogger().info("Removed " + portal.getDungeonName() + " portal");
     }
 
     /**
-     * Render particles for all active portals.
+     * Remove a portal without loading its chunks: a dormant portal stops being tracked now
+     * and its blocks are cleared the next time its chunks load.
      */
-    private void renderAllPortals() {
+    private void retirePortal(Portal portal) {
+        if (!portal.isDormant()) {
+            removePortal(portal);
+            return;
+        }
+
+        detachPortal(portal);
+        portal.setActive(false);
+        structureBuilder.cancel(portal);
+        ledger.record(portal); // Keep whatever a cancelled build replaced
+        detachedPortals.add(portal);
+        plugin.getLogger().info("Retired dormant " + portal.getDungeonName() + " portal");
+    }
+
+    /**
+     * Queue a portal's blocks for restoration; it leaves the ledger once they are back.
+     */
+    private void restoreStructure(Portal portal) {
+        structureBuilder.restore(portal, () -> ledger.remove(portal.getId()));
+    }
+
+    private void detachPortal(Portal portal) {
+        blockIndex.remove(portal);
+        portalGrid.remove(portal);
+        activePortals.remove(portal.getId());
+        portal.getStorm().setHasPortal(false);
+
+        for (Consumer<Portal> listener : closeListeners) {
+            listener.accept(portal);
+        }
+    }
+
+    /**
+     * Register a callback for portals that have finished building and opened.
+     */
+    public void addOpenListener(Consumer<Portal> listener) {
+        openListeners.add(listener);
+    }
+
+    /**
+     * Register a callback for portals that have been removed or retired.
+     */
+    public void addCloseListener(Consumer<Portal> listener) {
+        closeListeners.add(listener);
+    }
+
+    /**
+     * Called when a footprint block is broken or blown up.
+     * Removes the portal on the next tick once less than half of it is left.
+     */
+    public void onPortalBlockDamaged(Portal portal, Block block) {
+        if (portal.markDamaged(BlockKey.pack(block.getX(), block.getY(), block.getZ()))) {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (portal.isActive()) {
+                    removePortal(portal);
+                }
+            });
+        }
+    }
+
+    /**
+     * Portals with a block in an unloading chunk go dormant.
+     */
+    public void onChunkUnload(World world, int chunkX, int chunkZ) {
         for (Portal portal : activePortals.values()) {
-            portal.renderParticles();
+            if (!portal.isDormant() && portal.getWorld() == world && portal.isInChunk(chunkX, chunkZ)) {
+                portal.setDormant(true);
+            }
         }
     }
 
     /**
-     * Clean up invalid or expired portals.
+     * Dormant portals reconcile once all their chunks are loaded again: blocks are re-read, and
+     * the portal is removed if it was damaged or its storm ended while nobody was watching.
      */
-    private void cleanupInvalidPortals() {
-        List<Portal> toRemove = new ArrayList<>();
+    public void onChunkLoad(World world, int chunkX, int chunkZ) {
+        if (!detachedPortals.isEmpty()) {
+            Iterator<Portal> iterator = detachedPortals.iterator();
+            while (iterator.hasNext()) {
+                Portal portal = iterator.next();
+                if (portal.getWorld() == world && portal.isInChunk(chunkX, chunkZ) && portal.isLoaded()) {
+                    restoreStructure(portal);
+                    iterator.remove();
+                }
+            }
+        }
+
+        if (!orphans.isEmpty()) {
+            Iterator<PortalLedger.Entry> iterator = orphans.iterator();
+            while (iterator.hasNext()) {
+                PortalLedger.Entry orphan = iterator.next();
+                if (orphan.worldId().equals(world.getUID()) && orphan.isInChunk(chunkX, chunkZ) && orphan.isLoaded(world)) {
+                    iterator.remove();
+                    // Not inside the load event
+                    Bukkit.getScheduler().runTask(plugin, () -> reconcileOrphan(orphan, world));
+                }
+            }
+        }
 
         for (Portal portal : activePortals.values()) {
-            if (!portal.isValid()) {
-                toRemove.add(portal);
+            if (portal.isDormant() && portal.getWorld() == world && portal.isInChunk(chunkX, chunkZ) && portal.isLoaded()) {
+                portal.setDormant(false);
+                portal.refreshIntegrity();
+
+                if (!portal.isValid()) {
+                    // Not while iterating, and not inside the load event
+                    Bukkit.getScheduler().runTask(plugin, () -> {
+                        if (portal.isActive()) {
+                            removePortal(portal);
+                        }
+                    });
+                }
             }
         }
+    }
 
-        for (Portal portal : toRemove) {
-            removePortal(portal);
+    /**
+     * Clear orphans whose chunks were loaded before we started listening (spawn chunks and the like).
+     */
+    private void reconcileLoadedOrphans() {
+        Iterator<PortalLedger.Entry> iterator = orphans.iterator();
+        while (iterator.hasNext()) {
+            PortalLedger.Entry orphan = iterator.next();
+            World world = Bukkit.getWorld(orphan.worldId());
+            if (world != null && orphan.isLoaded(world)) {
+                iterator.remove();
+                reconcileOrphan(orphan, world);
+            }
+        }
+    }
+
+    /**
+     * Restore an orphaned structure and drop it from the ledger, or wait again if its chunks unloaded meanwhile.
+     */
+    private void reconcileOrphan(PortalLedger.Entry orphan, World world) {
+        if (!orphan.isLoaded(world)) {
+            orphans.add(orphan);
+            return;
+        }
+
+        orphan.restore(world);
+        ledger.remove(orphan.id());
+        plugin.getLogger().info("Cleared leftover " + orphan.dungeonName() + " portal");
+    }
+
+    /**
+     * Cheap pre-check for hot block event handlers.
+     */
+    public boolean hasPortals() {
+        return !blockIndex.isEmpty();
+    }
+
+    /**
+     * Render particles for all active portals.
+     */
+    private void renderAllPortals() {
+        long start = RENDER_TIMER.start();
+        try {
+            particleRenderer.render(activePortals.values(), configManager.getSnapshot().getPortals(),
+                                    loadGovernor.getLevel().getParticleDensity());
+        } finally {
+            RENDER_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Clean up invalid or expired portals.
+     */
+    private void cleanupInvalidPortals() {
+        long start = CLEANUP_TIMER.start();
+        try {
+            stormTracker.sync();
+            List<Portal> toRemove = new ArrayList<>();
+
+            for (Portal portal : activePortals.values()) {
+                if (!portal.isValid()) {
+                    toRemove.add(portal);
+                }
+            }
+
+            for (Portal portal : toRemove) {
+                retirePortal(portal);
+            }
+        } finally {
+            CLEANUP_TIMER.stop(start);
         }
     }
 
@@ -193,33 +538,19 @@ public class PortalManager {
      * Announce portal spawn to nearby players.
      */
     private void announcePortalSpawn(Portal portal) {
-        String dungeonDisplayName = configManager.getConfig().getString(
-            "dungeons." + portal.getDungeonName() + ".display_name",
-            portal.getDungeonName()
-        );
+        String dungeonDisplayName = configManager.getSnapshot().getDisplayName(portal.getDungeonName());
 
         String message = "§6[Dungeons] §fA " + dungeonDisplayName + " §fportal has opened near the storm!";
 
         // Announce to players within 300 blocks
-        Location portalLoc = portal.getLocation();
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            if (player.getWorld().equals(portalLoc.getWorld()) &&
-                player.getLocation().distance(portalLoc) <= 300) {
-                player.sendMessage(message);
-            }
-        }
+        playerGrid.forEachWithin(portal.getLocation(), 300, player -> player.sendMessage(message));
     }
 
     /**
-     * Get the portal at a specific location, if any.
+     * Get the portal occupying a specific block, if any.
      */
-    public Portal getPortalAtLocation(Location location) {
-        for (Portal portal : activePortals.values()) {
-            if (portal.isPortalBlock(location)) {
-                return portal;
-            }
-        }
-        return null;
+    public Portal getPortalAt(Block block) {
+        return blockIndex.get(block);
     }
 
     /**
@@ -233,22 +564,14 @@ public class PortalManager {
      * Get the nearest portal to a location.
      */
     public Portal getNearestPortal(Location location) {
-        Portal nearest = null;
-        double nearestDistance = Double.MAX_VALUE;
-
-        for (Portal portal : activePortals.values()) {
-            if (!portal.getLocation().getWorld().equals(location.getWorld())) {
-                continue;
-            }
-
-            double distance = portal.getLocation().distance(location);
-            if (distance < nearestDistance) {
-                nearest = portal;
-                nearestDistance = distance;
-            }
-        }
+        return portalGrid.nearest(location);
+    }
 
-        return nearest;
+    /**
+     * Get all active portals within a radius of a location.
+     */
+    public List<Portal> getPortalsWithin(Location location, double radius) {
+        return portalGrid.findWithin(location, radius);
     }
 
     /**
@@ -261,17 +584,6 @@ public class PortalManager {
     }
 
     // Helper methods
-    private String getStormId(TravelingStorm storm) {
-        return storm.getCurrentLocation().getWorld().getName() + "_" + storm.hashCode();
-    }
-
-    private List<String> getDungeonKeys() {
-        if (configManager.getConfig().getConfigurationSection("dungeons") == null) {
-            return Collections.emptyList();
-        }
-        return new ArrayList<>(configManager.getConfig().getConfigurationSection("dungeons").getKeys(false));
-    }
-
     private String formatLocation(Location loc) {
         return String.format("%d, %d, %d", loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
     }
@@ -0,0 +1,190 @@
+package dev.ked.stormcraft.dungeons.portal;
+
+import dev.ked.stormcraft.dungeons.config.PortalStructure;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Finds a place to build a portal near a storm without touching the world on the main thread.
+ * Candidate chunks are loaded (or generated) through Paper's async chunk API, candidates are scored
+ * off-thread from chunk snapshots, and the chosen site is handed back on the main thread.
+ */
+final class PortalSiteFinder {
+
+    private static final int CANDIDATES = 10;
+    private static final int REJECTED = Integer.MAX_VALUE;
+
+    private final Executor asyncExecutor;
+    private final Executor mainExecutor;
+
+    PortalSiteFinder(JavaPlugin plugin) {
+        this.asyncExecutor = runnable -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, runnable);
+        this.mainExecutor = plugin.getServer().getScheduler().getMainThreadExecutor(plugin);
+    }
+
+    /**
+     * Pick an anchor for the structure between minDistance and maxDistance from the centre, falling
+     * back to the centre itself. The future completes on the main thread.
+     */
+    CompletableFuture<Location> find(Location center, double minDistance, double maxDistance, PortalStructure structure) {
+        World world = center.getWorld();
+        int maxY = world.getMaxHeight() - 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        List<int[]> candidates = new ArrayList<>(CANDIDATES);
+        for (int attempt = 0; attempt < CANDIDATES; attempt++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double distance = minDistance + (random.nextDouble() * (maxDistance - minDistance));
+            candidates.add(new int[]{
+                (int) Math.floor(center.getX() + Math.cos(angle) * distance),
+                (int) Math.floor(center.getZ() + Math.sin(angle) * distance)});
+        }
+        int[] fallback = {center.getBlockX(), center.getBlockZ()};
+
+        // One async load per distinct chunk under any candidate (plus a row either side);
+        // Paper completes these on the main thread, which is where snapshots have to be taken
+        Map<Long, CompletableFuture<ChunkSnapshot>> chunks = new HashMap<>();
+        for (int[] candidate : candidates) {
+            requestChunks(world, candidate, structure, chunks);
+        }
+        requestChunks(world, fallback, structure, chunks);
+
+        // Hop back to the main thread for failures too
+        CompletableFuture<Location> result = new CompletableFuture<>();
+        CompletableFuture.allOf(chunks.values().toArray(new CompletableFuture<?>[0]))
+            .thenApplyAsync(ignored -> choose(world, maxY, candidates, fallback, structure, new Terrain(chunks)), asyncExecutor)
+            .whenCompleteAsync((site, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(site);
+                }
+            }, mainExecutor);
+        return result;
+    }
+
+    private static void requestChunks(World world, int[] anchor, PortalStructure structure,
+                                      Map<Long, CompletableFuture<ChunkSnapshot>> chunks) {
+        int minChunkX = (anchor[0] + structure.getMinX()) >> 4;
+        int maxChunkX = (anchor[0] + structure.getMaxX()) >> 4;
+        int minChunkZ = (anchor[1] + structure.getMinZ() - 1) >> 4;
+        int maxChunkZ = (anchor[1] + structure.getMaxZ() + 1) >> 4;
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                int x = chunkX;
+                int z = chunkZ;
+                chunks.computeIfAbsent(chunkKey(x, z), key ->
+                    world.getChunkAtAsync(x, z, true).thenApply(chunk -> chunk.getChunkSnapshot(true, false, false)));
+            }
+        }
+    }
+
+    /**
+     * Runs off the main thread; reads snapshots only.
+     */
+    private static Location choose(World world, int maxY, List<int[]> candidates, int[] fallback,
+                                   PortalStructure structure, Terrain terrain) {
+        int[] best = null;
+        int bestScore = REJECTED;
+
+        for (int[] candidate : candidates) {
+            int score = score(terrain, candidate[0], candidate[1], structure, maxY);
+            if (score < bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+
+        if (best == null) {
+            // Fallback: just use storm center at ground level
+            best = fallback;
+        }
+
+        return new Location(world, best[0], terrain.height(best[0], best[1]) + 1, best[1]);
+    }
+
+    /**
+     * Lower is better. Every column under the structure needs solid, non-fluid ground no higher than
+     * the anchor's and at most one block lower, the structure must fit under the build limit, and the
+     * row in front of or behind it must be open so players can walk in. Uneven ground adds to the score.
+     */
+    private static int score(Terrain terrain, int anchorX, int anchorZ, PortalStructure structure, int maxY) {
+        int ground = terrain.height(anchorX, anchorZ);
+        if (ground + structure.getHeight() + 1 > maxY) {
+            return REJECTED;
+        }
+
+        int unevenness = 0;
+        for (int x = anchorX + structure.getMinX(); x <= anchorX + structure.getMaxX(); x++) {
+            for (int z = anchorZ + structure.getMinZ(); z <= anchorZ + structure.getMaxZ(); z++) {
+                int height = terrain.height(x, z);
+                if (height > ground || height < ground - 1) {
+                    return REJECTED;
+                }
+                if (!terrain.type(x, height, z).isSolid()) {
+                    return REJECTED; // Water, lava
+                }
+                unevenness += ground - height;
+            }
+        }
+
+        boolean frontOpen = isRowOpen(terrain, anchorX, anchorZ + structure.getMaxZ() + 1, ground, structure);
+        boolean backOpen = isRowOpen(terrain, anchorX, anchorZ + structure.getMinZ() - 1, ground, structure);
+        if (!frontOpen && !backOpen) {
+            return REJECTED;
+        }
+
+        return unevenness + (frontOpen && backOpen ? 0 : 2);
+    }
+
+    private static boolean isRowOpen(Terrain terrain, int anchorX, int z, int ground, PortalStructure structure) {
+        for (int x = anchorX + structure.getMinX(); x <= anchorX + structure.getMaxX(); x++) {
+            Material feet = terrain.type(x, ground + 1, z);
+            Material head = terrain.type(x, ground + 2, z);
+            if (!feet.isAir() || !head.isAir()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * World-coordinate reads over the loaded snapshots.
+     */
+    private static final class Terrain {
+
+        private final Map<Long, CompletableFuture<ChunkSnapshot>> chunks;
+
+        private Terrain(Map<Long, CompletableFuture<ChunkSnapshot>> chunks) {
+            this.chunks = chunks;
+        }
+
+        int height(int x, int z) {
+            return snapshot(x, z).getHighestBlockYAt(x & 15, z & 15);
+        }
+
+        Material type(int x, int y, int z) {
+            return snapshot(x, z).getBlockType(x & 15, y, z & 15);
+        }
+
+        private ChunkSnapshot snapshot(int x, int z) {
+            return chunks.get(chunkKey(x >> 4, z >> 4)).join();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package dev.ked.stormcraft.dungeons.portal;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Places and restores portal structures a few blocks per tick. Jobs run in order under a shared
+ * per-tick block budget; a job whose next block sits in an unloaded chunk waits at the back of the
+ * queue rather than loading it. The task only runs while there is work. Main thread only.
+ */
+final class StructureBuilder {
+
+    private final JavaPlugin plugin;
+    private final IntSupplier blocksPerTick;
+    private final ArrayDeque<Job> jobs;
+    private BukkitTask task;
+
+    StructureBuilder(JavaPlugin plugin, IntSupplier blocksPerTick) {
+        this.plugin = plugin;
+        this.blocksPerTick = blocksPerTick;
+        this.jobs = new ArrayDeque<>();
+    }
+
+    /**
+     * Queue placement of a portal's structure. onBuilt runs once the last block is placed.
+     */
+    void build(Portal portal, Runnable onBuilt) {
+        jobs.addLast(new Job(portal, true, onBuilt));
+        ensureRunning();
+    }
+
+    /**
+     * Queue restoration of whatever part of a portal's structure has been placed. A build still in
+     * progress for the portal is cancelled, so a half-built structure is only undone as far as it got.
+     * onRestored runs once the last block is back.
+     */
+    void restore(Portal portal, Runnable onRestored) {
+        if (cancel(portal)) {
+            return; // Already queued
+        }
+
+        if (portal.getPlacedCount() == 0) {
+            onRestored.run();
+            return;
+        }
+
+        jobs.addLast(new Job(portal, false, onRestored));
+        ensureRunning();
+    }
+
+    /**
+     * Drop a queued build for a portal, leaving whatever was placed so far.
+     * Returns true if the portal is already queued for restoration instead.
+     */
+    boolean cancel(Portal portal) {
+        Iterator<Job> iterator = jobs.iterator();
+        while (iterator.hasNext()) {
+            Job job = iterator.next();
+            if (job.portal == portal) {
+                if (!job.building) {
+                    return true;
+                }
+                iterator.remove();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Take every queued job as far as loaded chunks allow now, regardless of budget. For shutdown:
+     * returns the portals whose jobs stopped at an unloaded chunk, which are dropped unfinished.
+     */
+    List<Portal> flushLoaded() {
+        List<Portal> unfinished = new ArrayList<>(0);
+        while (!jobs.isEmpty()) {
+            Job job = jobs.pollFirst();
+            job.step(Integer.MAX_VALUE);
+            if (job.isDone()) {
+                job.finish();
+            } else {
+                unfinished.add(job.portal);
+            }
+        }
+        stop();
+        return unfinished;
+    }
+
+    private void tick() {
+        int budget = blocksPerTick.getAsInt();
+        int waiting = 0; // Consecutive jobs that could not progress this tick
+
+        while (budget > 0 && !jobs.isEmpty() && waiting < jobs.size()) {
+            Job job = jobs.peekFirst();
+            int done = job.step(budget);
+            budget -= done;
+
+            if (job.isDone()) {
+                jobs.pollFirst();
+                job.finish();
+                waiting = 0;
+            } else if (done == 0) {
+                // Blocked on an unloaded chunk; let the others go first
+                jobs.addLast(jobs.pollFirst());
+                waiting++;
+            }
+        }
+
+        if (jobs.isEmpty()) {
+            stop();
+        }
+    }
+
+    private void ensureRunning() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private static final class Job {
+
+        private final Portal portal;
+        private final boolean building;
+        private final Runnable onDone;
+
+        private Job(Portal portal, boolean building, Runnable onDone) {
+            this.portal = portal;
+            this.building = building;
+            this.onDone = onDone;
+        }
+
+        /**
+         * Place or restore up to limit blocks, stopping at an unloaded chunk.
+         * Returns the number of blocks handled.
+         */
+        private int step(int limit) {
+            int done = 0;
+            while (done < limit && !isDone()) {
+                int next = building ? portal.getPlacedCount() : portal.getPlacedCount() - 1;
+                if (!portal.isBlockLoaded(next)) {
+                    break;
+                }
+
+                if (building) {
+                    portal.placeNext();
+                } else {
+                    portal.restoreLast();
+                }
+                done++;
+            }
+            return done;
+        }
+
+        private boolean isDone() {
+            return building ? portal.isBuilt() : portal.getPlacedCount() == 0;
+        }
+
+        private void finish() {
+            if (onDone != null) {
+                onDone.run();
+            }
+        }
+    }
+}
@@ -1,21 +1,55 @@
 package dev.ked.stormcraft.dungeons.requirement;
 
+import dev.ked.stormcraft.dungeons.portal.Portal;
 import org.bukkit.entity.Player;
 
 /**
  * Base interface for dungeon entry requirements.
+ * A requirement observes a single value per evaluation; failure messages are rendered
+ * from that observed value so nothing is queried twice.
  */
 public interface Requirement {
 
     /**
-     * Check if the player meets this requirement.
+     * Relative evaluation cost. Plans evaluate cheaper requirements first.
      */
-    boolean check(Player player);
+    enum Cost {
+        /** In-memory lookups on this server (permissions, completion counts). */
+        LOCAL,
+        /** Storm state lookups. */
+        STORM,
+        /** Calls into other plugins. */
+        EXTERNAL
+    }
 
     /**
-     * Get the failure message to show the player.
+     * Get the evaluation cost of this requirement.
      */
-    String getFailureMessage(Player player);
+    Cost getCost();
+
+    /**
+     * Whether this requirement's outcome can change without any event we observe
+     * (permission recalculation, storm movement). Volatile requirements are re-checked
+     * before a cached result is reused.
+     */
+    default boolean isVolatile() {
+        return false;
+    }
+
+    /**
+     * Observe the value this requirement is checked against.
+     */
+    double observe(Player player, Portal portal);
+
+    /**
+     * Check if an observed value meets this requirement.
+     */
+    boolean passes(double observed);
+
+    /**
+     * Get the failure message to show the player for an observed value.
+     */
+    String getFailureMessage(double observed);
 
     /**
      * Get the requirement name.
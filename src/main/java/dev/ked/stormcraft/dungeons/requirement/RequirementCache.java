@@ -0,0 +1,88 @@
+package dev.ked.stormcraft.dungeons.requirement;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Short-lived per-player, per-dungeon cache of requirement results, plus click debouncing.
+ * Main thread only.
+ */
+final class RequirementCache {
+
+    private final Map<UUID, PlayerEntry> players = new HashMap<>();
+
+    /**
+     * Get a cached result if it was evaluated at the same portal within the TTL and its
+     * volatile requirements (permissions, storm proximity) still have the same outcome.
+     */
+    RequirementResult get(UUID playerId, String dungeonName, UUID portalId, long volatileMask, long now, long ttlMillis) {
+        PlayerEntry entry = players.get(playerId);
+        if (entry == null) {
+            return null;
+        }
+
+        CachedResult cached = entry.results.get(dungeonName);
+        if (cached == null) {
+            return null;
+        }
+
+        if (now - cached.evaluatedAt > ttlMillis || !cached.portalId.equals(portalId) || cached.volatileMask != volatileMask) {
+            entry.results.remove(dungeonName);
+            return null;
+        }
+
+        return cached.result;
+    }
+
+    void put(UUID playerId, String dungeonName, UUID portalId, long volatileMask, long now, RequirementResult result) {
+        players.computeIfAbsent(playerId, id -> new PlayerEntry())
+               .results.put(dungeonName, new CachedResult(result, portalId, volatileMask, now));
+    }
+
+    /**
+     * Record a click and return true if it falls within the debounce window of the previous click on the same portal.
+     */
+    boolean debounce(UUID playerId, UUID portalId, long now, long windowMillis) {
+        PlayerEntry entry = players.computeIfAbsent(playerId, id -> new PlayerEntry());
+        boolean coalesced = portalId.equals(entry.lastClickPortal) && now - entry.lastClickAt < windowMillis;
+
+        if (!coalesced) {
+            entry.lastClickPortal = portalId;
+            entry.lastClickAt = now;
+        }
+        return coalesced;
+    }
+
+    /**
+     * Drop all cached results for a player (keeps debounce state).
+     */
+    void invalidate(UUID playerId) {
+        PlayerEntry entry = players.get(playerId);
+        if (entry != null) {
+            entry.results.clear();
+        }
+    }
+
+    /**
+     * Forget a player entirely.
+     */
+    void remove(UUID playerId) {
+        players.remove(playerId);
+    }
+
+    void clear() {
+        for (PlayerEntry entry : players.values()) {
+            entry.results.clear();
+        }
+    }
+
+    private static final class PlayerEntry {
+        private final Map<String, CachedResult> results = new HashMap<>(4);
+        private UUID lastClickPortal;
+        private long lastClickAt;
+    }
+
+    private record CachedResult(RequirementResult result, UUID portalId, long volatileMask, long evaluatedAt) {
+    }
+}
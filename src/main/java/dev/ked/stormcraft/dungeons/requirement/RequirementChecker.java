@@ -1,103 +1,178 @@
 package dev.ked.stormcraft.dungeons.requirement;
 
 import dev.ked.stormcraft.dungeons.config.ConfigManager;
+import dev.ked.stormcraft.dungeons.config.ConfigSnapshot;
+import dev.ked.stormcraft.dungeons.config.DungeonDefinition;
+import dev.ked.stormcraft.dungeons.config.RequirementSpec;
 import dev.ked.stormcraft.dungeons.data.DataManager;
 import dev.ked.stormcraft.dungeons.integration.EssenceIntegration;
-import dev.ked.stormcraft.dungeons.integration.StormcraftIntegration;
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
 import dev.ked.stormcraft.dungeons.portal.Portal;
 import dev.ked.stormcraft.dungeons.requirement.requirements.*;
+import dev.ked.stormcraft.dungeons.storm.StormTracker;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Checks if players meet dungeon entry requirements.
+ * Requirements are compiled into one cost-ordered plan per dungeon and reused across checks.
  */
 public class RequirementChecker {
 
+    private static final Timer CHECK_TIMER = Metrics.timer("requirement_check", "Requirement checks, including cache hits");
+    private static final Counter CACHE_HITS = Metrics.counter("requirement_cache_hits", "Requirement checks answered from cache");
+
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
-    private final StormcraftIntegration stormcraftIntegration;
+    private final StormTracker stormTracker;
     private final EssenceIntegration essenceIntegration;
     private final DataManager dataManager;
     private final Economy economy;
 
+    // Compiled plans, rebuilt when the config snapshot changes
+    private Map<String, RequirementPlan> plans = Map.of();
+    private ConfigSnapshot compiledFrom;
+
+    private final RequirementCache cache = new RequirementCache();
+
     public RequirementChecker(JavaPlugin plugin, ConfigManager configManager,
-                             StormcraftIntegration stormcraftIntegration,
+                             StormTracker stormTracker,
                              EssenceIntegration essenceIntegration,
                              DataManager dataManager,
                              Economy economy) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.stormcraftIntegration = stormcraftIntegration;
+        this.stormTracker = stormTracker;
         this.essenceIntegration = essenceIntegration;
         this.dataManager = dataManager;
         this.economy = economy;
+
+        // Drop cached results when anything they depend on changes
+        dataManager.addCompletionListener((playerId, dungeonName) -> cache.invalidate(playerId));
+        if (essenceIntegration != null) {
+            essenceIntegration.addBalanceListener(cache::invalidate);
+        }
     }
 
     /**
      * Check all requirements for a player entering a dungeon.
-     * Returns null if all requirements pass, otherwise returns list of failure messages.
+     * Recent results for the same portal are reused while their volatile requirements still agree.
+     * Returns null if the dungeon is not configured.
      */
-    public List<String> checkRequirements(Player player, Portal portal) {
-        String dungeonName = portal.getDungeonName();
-        List<Requirement> requirements = buildRequirements(dungeonName, portal);
+    public RequirementResult checkRequirements(Player player, Portal portal) {
+        long start = CHECK_TIMER.start();
+        try {
+            return checkRequirementsUntimed(player, portal);
+        } finally {
+            CHECK_TIMER.stop(start);
+        }
+    }
 
-        List<String> failures = new ArrayList<>();
+    private RequirementResult checkRequirementsUntimed(Player player, Portal portal) {
+        RequirementPlan plan = getPlan(portal.getDungeonName());
+        if (plan == null) {
+            return null;
+        }
 
-        for (Requirement requirement : requirements) {
-            if (!requirement.check(player)) {
-                failures.add(requirement.getFailureMessage(player));
-            }
+        long now = System.currentTimeMillis();
+        long ttl = configManager.getSnapshot().getRequirementSettings().cacheTtlMillis();
+        long volatileMask = plan.volatileMask(player, portal);
+
+        RequirementResult cached = cache.get(player.getUniqueId(), plan.getDungeonName(), portal.getId(), volatileMask, now, ttl);
+        if (cached != null) {
+            CACHE_HITS.increment();
+            return cached;
         }
 
-        return failures.isEmpty() ? null : failures;
+        RequirementResult result = plan.evaluate(player, portal);
+        cache.put(player.getUniqueId(), plan.getDungeonName(), portal.getId(), volatileMask, now, result);
+        return result;
+    }
+
+    /**
+     * Record a portal click and return true if it should be coalesced with the player's previous click.
+     */
+    public boolean isDebounced(Player player, Portal portal) {
+        long window = configManager.getSnapshot().getRequirementSettings().clickDebounceMillis();
+        return cache.debounce(player.getUniqueId(), portal.getId(), System.currentTimeMillis(), window);
+    }
+
+    /**
+     * Drop cached results for a player.
+     */
+    public void invalidate(UUID playerId) {
+        cache.invalidate(playerId);
+    }
+
+    /**
+     * Forget all cached state for a player (on quit).
+     */
+    public void forget(UUID playerId) {
+        cache.remove(playerId);
+    }
+
+    /**
+     * Get the compiled requirement plan for a dungeon, recompiling all plans if the config was reloaded.
+     */
+    public RequirementPlan getPlan(String dungeonName) {
+        ConfigSnapshot snapshot = configManager.getSnapshot();
+        if (snapshot != compiledFrom) {
+            compilePlans(snapshot);
+        }
+        return plans.get(dungeonName);
+    }
+
+    private void compilePlans(ConfigSnapshot snapshot) {
+        Map<String, RequirementPlan> compiled = new HashMap<>();
+        for (DungeonDefinition dungeon : snapshot.getDungeons()) {
+            compiled.put(dungeon.key(), new RequirementPlan(dungeon.key(), buildRequirements(dungeon.requirements())));
+        }
+
+        plans = compiled;
+        compiledFrom = snapshot;
+        cache.clear();
     }
 
     /**
      * Build all requirements for a specific dungeon.
      */
-    private List<Requirement> buildRequirements(String dungeonName, Portal portal) {
+    private List<Requirement> buildRequirements(RequirementSpec spec) {
         List<Requirement> requirements = new ArrayList<>();
-        String basePath = "dungeons." + dungeonName + ".requirements";
 
         // SEL Requirement
-        if (configManager.getConfig().contains(basePath + ".min_sel")) {
-            int minSEL = configManager.getConfig().getInt(basePath + ".min_sel");
-            requirements.add(new SELRequirement(essenceIntegration, minSEL));
+        if (spec.minSel() != null) {
+            requirements.add(new SELRequirement(essenceIntegration, spec.minSel()));
         }
 
         // Essence Cost Requirement
-        if (configManager.getConfig().contains(basePath + ".essence_cost")) {
-            int essenceCost = configManager.getConfig().getInt(basePath + ".essence_cost");
-            requirements.add(new EssenceRequirement(essenceIntegration, essenceCost));
+        if (spec.essenceCost() != null) {
+            requirements.add(new EssenceRequirement(essenceIntegration, spec.essenceCost()));
         }
 
         // Storm Proximity Requirement
-        if (configManager.getConfig().contains(basePath + ".max_distance_from_storm")) {
-            int maxDistance = configManager.getConfig().getInt(basePath + ".max_distance_from_storm");
-            int minIntensity = configManager.getConfig().getInt(basePath + ".min_storm_intensity", 0);
-            requirements.add(new StormRequirement(stormcraftIntegration, portal.getStorm(), maxDistance, minIntensity));
+        if (spec.maxDistanceFromStorm() != null) {
+            requirements.add(new StormRequirement(stormTracker,
+                                                  spec.maxDistanceFromStorm(), spec.minStormIntensity()));
         }
 
         // Completion Requirements
-        if (configManager.getConfig().contains(basePath + ".required_completions")) {
-            var requiredCompletions = configManager.getConfig().getConfigurationSection(basePath + ".required_completions");
-            if (requiredCompletions != null) {
-                for (String requiredDungeon : requiredCompletions.getKeys(false)) {
-                    int count = requiredCompletions.getInt(requiredDungeon);
-                    requirements.add(new CompletionRequirement(dataManager, requiredDungeon, count));
-                }
-            }
+        for (Map.Entry<String, Integer> entry : spec.requiredCompletions().entrySet()) {
+            int dungeonId = configManager.getDungeonIds().intern(entry.getKey());
+            requirements.add(new CompletionRequirement(dataManager, entry.getKey(), dungeonId, entry.getValue()));
         }
 
         // Permission Requirement
-        if (configManager.getConfig().contains(basePath + ".permission")) {
-            String permission = configManager.getConfig().getString(basePath + ".permission");
-            requirements.add(new PermissionRequirement(permission));
+        if (spec.permission() != null) {
+            requirements.add(new PermissionRequirement(spec.permission()));
         }
 
         return requirements;
@@ -107,11 +182,11 @@ public class RequirementChecker {
      * Consume entry costs (essence) from the player.
      */
     public boolean consumeEntryCosts(Player player, String dungeonName) {
-        String basePath = "dungeons." + dungeonName + ".requirements";
+        DungeonDefinition dungeon = configManager.getDungeon(dungeonName);
 
         // Withdraw essence cost
-        if (configManager.getConfig().contains(basePath + ".essence_cost")) {
-            int essenceCost = configManager.getConfig().getInt(basePath + ".essence_cost");
+        if (dungeon != null && dungeon.requirements().essenceCost() != null) {
+            int essenceCost = dungeon.requirements().essenceCost();
             if (essenceIntegration != null && essenceIntegration.isEnabled()) {
                 if (!essenceIntegration.withdrawEssence(player, essenceCost)) {
                     return false;
@@ -121,4 +196,18 @@ public class RequirementChecker {
 
         return true;
     }
+
+    /**
+     * Give back entry costs taken by {@link #consumeEntryCosts} when the entry does not go ahead.
+     */
+    public void refundEntryCosts(Player player, String dungeonName) {
+        DungeonDefinition dungeon = configManager.getDungeon(dungeonName);
+
+        if (dungeon != null && dungeon.requirements().essenceCost() != null) {
+            int essenceCost = dungeon.requirements().essenceCost();
+            if (essenceIntegration != null && essenceIntegration.isEnabled()) {
+                essenceIntegration.awardEssence(player, essenceCost);
+            }
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package dev.ked.stormcraft.dungeons.requirement;
+
+import dev.ked.stormcraft.dungeons.portal.Portal;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compiled, cost-ordered requirements for one dungeon.
+ * Evaluation stops before a more expensive tier once a cheaper tier has failed.
+ */
+public final class RequirementPlan {
+
+    private final String dungeonName;
+    private final Requirement[] requirements;
+
+    public RequirementPlan(String dungeonName, List<Requirement> requirements) {
+        this.dungeonName = dungeonName;
+        this.requirements = requirements.toArray(new Requirement[0]);
+        Arrays.sort(this.requirements, Comparator.comparing(Requirement::getCost)); // Stable: keeps config order within a tier
+    }
+
+    /**
+     * Evaluate the plan for a player at a portal.
+     */
+    public RequirementResult evaluate(Player player, Portal portal) {
+        RequirementResult result = new RequirementResult(requirements.length);
+        Requirement.Cost tier = null;
+
+        for (Requirement requirement : requirements) {
+            if (requirement.getCost() != tier) {
+                if (!result.passed()) {
+                    result.markIncomplete();
+                    break;
+                }
+                tier = requirement.getCost();
+            }
+
+            double observed = requirement.observe(player, portal);
+            if (!requirement.passes(observed)) {
+                result.addFailure(requirement, observed);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluate only the volatile requirements, returning a bitmask of which ones pass.
+     * Cheap enough to run on every interaction to validate a cached result.
+     */
+    public long volatileMask(Player player, Portal portal) {
+        long mask = 0;
+        int bit = 0;
+
+        for (Requirement requirement : requirements) {
+            if (!requirement.isVolatile()) {
+                continue;
+            }
+            if (requirement.passes(requirement.observe(player, portal))) {
+                mask |= 1L << bit;
+            }
+            bit = (bit + 1) & 63;
+        }
+
+        return mask;
+    }
+
+    public String getDungeonName() {
+        return dungeonName;
+    }
+
+    public int size() {
+        return requirements.length;
+    }
+}
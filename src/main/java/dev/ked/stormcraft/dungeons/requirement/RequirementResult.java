@@ -0,0 +1,55 @@
+package dev.ked.stormcraft.dungeons.requirement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of evaluating a requirement plan, holding the observed value of every failed requirement.
+ */
+public final class RequirementResult {
+
+    private final Requirement[] failed;
+    private final double[] observed;
+    private int failureCount;
+    private boolean complete = true;
+
+    RequirementResult(int capacity) {
+        this.failed = new Requirement[capacity];
+        this.observed = new double[capacity];
+    }
+
+    void addFailure(Requirement requirement, double value) {
+        failed[failureCount] = requirement;
+        observed[failureCount] = value;
+        failureCount++;
+    }
+
+    void markIncomplete() {
+        complete = false;
+    }
+
+    /**
+     * Whether every requirement passed.
+     */
+    public boolean passed() {
+        return failureCount == 0;
+    }
+
+    /**
+     * Whether every requirement was evaluated (false if costlier checks were skipped after a failure).
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Render failure messages from the observed values.
+     */
+    public List<String> getFailureMessages() {
+        List<String> messages = new ArrayList<>(failureCount);
+        for (int i = 0; i < failureCount; i++) {
+            messages.add(failed[i].getFailureMessage(observed[i]));
+        }
+        return messages;
+    }
+}
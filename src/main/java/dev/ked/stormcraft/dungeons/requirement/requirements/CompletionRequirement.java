@@ -1,6 +1,7 @@
 package dev.ked.stormcraft.dungeons.requirement.requirements;
 
 import dev.ked.stormcraft.dungeons.data.DataManager;
+import dev.ked.stormcraft.dungeons.portal.Portal;
 import dev.ked.stormcraft.dungeons.requirement.Requirement;
 import org.bukkit.entity.Player;
 
@@ -8,25 +9,36 @@ public class CompletionRequirement implements Requirement {
 
     private final DataManager dataManager;
     private final String requiredDungeon;
+    private final int requiredDungeonId;
     private final int requiredCount;
 
-    public CompletionRequirement(DataManager dataManager, String requiredDungeon, int requiredCount) {
+    public CompletionRequirement(DataManager dataManager, String requiredDungeon, int requiredDungeonId,
+                                 int requiredCount) {
         this.dataManager = dataManager;
         this.requiredDungeon = requiredDungeon;
+        this.requiredDungeonId = requiredDungeonId;
         this.requiredCount = requiredCount;
     }
 
     @Override
-    public boolean check(Player player) {
-        int completions = dataManager.getCompletionCount(player.getUniqueId(), requiredDungeon);
-        return completions >= requiredCount;
+    public Cost getCost() {
+        return Cost.LOCAL;
     }
 
     @Override
-    public String getFailureMessage(Player player) {
-        int current = dataManager.getCompletionCount(player.getUniqueId(), requiredDungeon);
+    public double observe(Player player, Portal portal) {
+        return dataManager.getCompletionCount(player.getUniqueId(), requiredDungeonId);
+    }
+
+    @Override
+    public boolean passes(double observed) {
+        return observed >= requiredCount;
+    }
+
+    @Override
+    public String getFailureMessage(double observed) {
         return String.format("§c✗ Must complete %s %d times §7(You have: %d)",
-                           requiredDungeon, requiredCount, current);
+                           requiredDungeon, requiredCount, (int) observed);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package dev.ked.stormcraft.dungeons.requirement.requirements;
 
 import dev.ked.stormcraft.dungeons.integration.EssenceIntegration;
+import dev.ked.stormcraft.dungeons.portal.Portal;
 import dev.ked.stormcraft.dungeons.requirement.Requirement;
 import org.bukkit.entity.Player;
 
@@ -15,20 +16,26 @@ public class EssenceRequirement implements Requirement {
     }
 
     @Override
-    public boolean check(Player player) {
-        if (essenceIntegration == null || !essenceIntegration.isEnabled()) {
-            return true; // No essence requirement if not available
-        }
-        return essenceIntegration.getPlayerEssence(player) >= requiredEssence;
+    public Cost getCost() {
+        return Cost.EXTERNAL;
     }
 
     @Override
-    public String getFailureMessage(Player player) {
-        double currentEssence = 0;
-        if (essenceIntegration != null && essenceIntegration.isEnabled()) {
-            currentEssence = essenceIntegration.getPlayerEssence(player);
+    public double observe(Player player, Portal portal) {
+        if (essenceIntegration == null || !essenceIntegration.supportsBalance()) {
+            return Double.NaN; // No essence requirement if not available
         }
-        return String.format("§c✗ Requires %.0f essence §7(You have: %.0f)", requiredEssence, currentEssence);
+        return essenceIntegration.getPlayerEssence(player);
+    }
+
+    @Override
+    public boolean passes(double observed) {
+        return Double.isNaN(observed) || observed >= requiredEssence;
+    }
+
+    @Override
+    public String getFailureMessage(double observed) {
+        return String.format("§c✗ Requires %.0f essence §7(You have: %.0f)", requiredEssence, observed);
     }
 
     @Override
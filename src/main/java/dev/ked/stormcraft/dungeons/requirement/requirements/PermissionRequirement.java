@@ -1,5 +1,6 @@
 package dev.ked.stormcraft.dungeons.requirement.requirements;
 
+import dev.ked.stormcraft.dungeons.portal.Portal;
 import dev.ked.stormcraft.dungeons.requirement.Requirement;
 import org.bukkit.entity.Player;
 
@@ -12,12 +13,27 @@ public class PermissionRequirement implements Requirement {
     }
 
     @Override
-    public boolean check(Player player) {
-        return player.hasPermission(permission);
+    public Cost getCost() {
+        return Cost.LOCAL;
     }
 
     @Override
-    public String getFailureMessage(Player player) {
+    public boolean isVolatile() {
+        return true;
+    }
+
+    @Override
+    public double observe(Player player, Portal portal) {
+        return player.hasPermission(permission) ? 1 : 0;
+    }
+
+    @Override
+    public boolean passes(double observed) {
+        return observed > 0;
+    }
+
+    @Override
+    public String getFailureMessage(double observed) {
         return "§c✗ You don't have permission to access this dungeon";
     }
 
@@ -1,6 +1,7 @@
 package dev.ked.stormcraft.dungeons.requirement.requirements;
 
 import dev.ked.stormcraft.dungeons.integration.EssenceIntegration;
+import dev.ked.stormcraft.dungeons.portal.Portal;
 import dev.ked.stormcraft.dungeons.requirement.Requirement;
 import org.bukkit.entity.Player;
 
@@ -15,20 +16,26 @@ public class SELRequirement implements Requirement {
     }
 
     @Override
-    public boolean check(Player player) {
-        if (essenceIntegration == null || !essenceIntegration.isEnabled()) {
-            return true; // No SEL requirement if essence not available
-        }
-        return essenceIntegration.getPlayerSEL(player) >= minSEL;
+    public Cost getCost() {
+        return Cost.EXTERNAL;
     }
 
     @Override
-    public String getFailureMessage(Player player) {
-        int currentSEL = 0;
-        if (essenceIntegration != null && essenceIntegration.isEnabled()) {
-            currentSEL = essenceIntegration.getPlayerSEL(player);
+    public double observe(Player player, Portal portal) {
+        if (essenceIntegration == null || !essenceIntegration.supportsSEL()) {
+            return Double.NaN; // No SEL requirement if essence not available
         }
-        return String.format("§c✗ Requires SEL %d §7(You have: %d)", minSEL, currentSEL);
+        return essenceIntegration.getPlayerSEL(player);
+    }
+
+    @Override
+    public boolean passes(double observed) {
+        return Double.isNaN(observed) || observed >= minSEL;
+    }
+
+    @Override
+    public String getFailureMessage(double observed) {
+        return String.format("§c✗ Requires SEL %d §7(You have: %d)", minSEL, (int) observed);
     }
 
     @Override
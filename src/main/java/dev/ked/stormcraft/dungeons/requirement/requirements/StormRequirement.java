@@ -1,38 +1,61 @@
 package dev.ked.stormcraft.dungeons.requirement.requirements;
 
-import dev.ked.stormcraft.dungeons.integration.StormcraftIntegration;
+import dev.ked.stormcraft.dungeons.portal.Portal;
 import dev.ked.stormcraft.dungeons.requirement.Requirement;
-import dev.ked.stormcraft.model.TravelingStorm;
+import dev.ked.stormcraft.dungeons.storm.StormTracker;
+import dev.ked.stormcraft.dungeons.storm.TrackedStorm;
 import org.bukkit.entity.Player;
 
+/**
+ * Requires the player to be near the portal's storm while it is intense enough.
+ * The storm is taken from the portal at evaluation time, so one plan serves every portal of a dungeon.
+ */
 public class StormRequirement implements Requirement {
 
-    private final StormcraftIntegration stormcraftIntegration;
-    private final TravelingStorm storm;
+    private final StormTracker stormTracker;
     private final double maxDistance;
     private final int minIntensity;
 
-    public StormRequirement(StormcraftIntegration stormcraftIntegration, TravelingStorm storm,
-                           double maxDistance, int minIntensity) {
-        this.stormcraftIntegration = stormcraftIntegration;
-        this.storm = storm;
+    public StormRequirement(StormTracker stormTracker, double maxDistance, int minIntensity) {
+        this.stormTracker = stormTracker;
         this.maxDistance = maxDistance;
         this.minIntensity = minIntensity;
     }
 
     @Override
-    public boolean check(Player player) {
+    public Cost getCost() {
+        return Cost.STORM;
+    }
+
+    @Override
+    public boolean isVolatile() {
+        return true;
+    }
+
+    @Override
+    public double observe(Player player, Portal portal) {
+        stormTracker.sync();
+        TrackedStorm storm = portal.getStorm();
+        if (!storm.isActive()) {
+            return 0;
+        }
+
         // Check if near storm
-        if (!stormcraftIntegration.isPlayerNearStorm(player, storm, maxDistance)) {
-            return false;
+        if (!storm.isWithin(player.getLocation(), maxDistance)) {
+            return 0;
         }
 
         // Check storm intensity
-        return stormcraftIntegration.getStormIntensity(storm) >= minIntensity;
+        return storm.getIntensity() >= minIntensity ? 1 : 0;
+    }
+
+    @Override
+    public boolean passes(double observed) {
+        return observed > 0;
     }
 
     @Override
-    public String getFailureMessage(Player player) {
+    public String getFailureMessage(double observed) {
         return String.format("§c✗ Must be near a storm (intensity %d+)", minIntensity);
     }
 
@@ -1,22 +1,56 @@
 package dev.ked.stormcraft.dungeons.reward;
 
 import dev.ked.stormcraft.dungeons.config.ConfigManager;
+import dev.ked.stormcraft.dungeons.config.DungeonDefinition;
+import dev.ked.stormcraft.dungeons.config.RewardSpec;
+import dev.ked.stormcraft.dungeons.config.SettlementSettings;
 import dev.ked.stormcraft.dungeons.data.DataManager;
 import dev.ked.stormcraft.dungeons.integration.EssenceIntegration;
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
 import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Manages reward distribution for dungeon completions.
+ *
+ * Completions are recorded in a {@link SettlementLedger}, which drops repeats of the same run, and
+ * counted straight away. Rewards are paid by a task a few per tick, with one essence deposit per
+ * player per tick however many of their completions it covers. Completions of players who leave
+ * before being paid stay in the ledger and are paid when they next join. The task only runs while
+ * payouts are queued.
+ *
+ * Each batch is marked paid on disk before it is deposited, so a crash never pays a completion
+ * twice; a crash between the two loses that batch's payout instead. The mark is written off the
+ * main thread and the deposit follows on a later tick. The ledger entry itself is also written in
+ * the background, so a crash within a tick of a completion can lose its settlement while the
+ * completion stays counted.
  */
 public class RewardManager {
 
+    private static final Timer AWARD_TIMER = Metrics.timer("reward_award", "Awarding rewards for one player's completions");
+    private static final Timer BATCH_TIMER = Metrics.timer("reward_batch", "Reward payouts processed in one tick");
+    private static final Counter COMPLETIONS = Metrics.counter("completions", "Dungeon completions rewarded");
+    private static final Counter DUPLICATES = Metrics.counter("completions_duplicate", "Completion reports ignored as repeats of a settled run");
+
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
     private final EssenceIntegration essenceIntegration;
     private final DataManager dataManager;
     private final Economy economy;
+    private final SettlementLedger ledger;
+    private final ArrayDeque<Payout> payouts;
+    private BukkitTask task;
 
     public RewardManager(JavaPlugin plugin, ConfigManager configManager,
                         EssenceIntegration essenceIntegration,
@@ -27,69 +61,223 @@ public class RewardManager {
         this.essenceIntegration = essenceIntegration;
         this.dataManager = dataManager;
         this.economy = economy;
+        this.ledger = new SettlementLedger(plugin.getDataFolder(), plugin.getLogger());
+        this.payouts = new ArrayDeque<>();
+    }
+
+    /**
+     * Load the settlement ledger and queue unpaid completions of players already online.
+     */
+    public void start() {
+        List<SettlementLedger.Settlement> unpaid = ledger.load();
+        for (SettlementLedger.Settlement settlement : unpaid) {
+            Player player = Bukkit.getPlayer(settlement.getPlayerId());
+            if (player != null) {
+                payouts.addLast(new Payout(player, settlement));
+            }
+        }
+        if (!unpaid.isEmpty()) {
+            plugin.getLogger().info("Settlement ledger has " + unpaid.size() + " unpaid completion(s)");
+        }
+        if (!payouts.isEmpty()) {
+            ensureRunning();
+        }
+    }
+
+    /**
+     * Pay out what is queued for players still online and write the ledger. Closing the ledger
+     * waits for the paid marks and then makes the deposits.
+     */
+    public void shutdown() {
+        stop();
+        while (!payouts.isEmpty()) {
+            payBatch(Integer.MAX_VALUE);
+        }
+        ledger.close();
     }
 
     /**
-     * Award rewards to a player for completing a dungeon.
+     * Record and count a player's completion of a dungeon run, for payout on a later tick. The run
+     * id may be null if the completion event does not identify the run. Returns false if the
+     * completion was already recorded.
      */
-    public void awardCompletion(Player player, String dungeonName) {
+    public boolean settle(String runId, Player player, String dungeonName) {
+        if (configManager.getDungeon(dungeonName) == null) {
+            return false;
+        }
+
+        long fanOutMillis = configManager.getSnapshot().getSettlementSettings().fanOutWindowSeconds() * 1000L;
         boolean firstCompletion = dataManager.isFirstCompletion(player.getUniqueId(), dungeonName);
+        SettlementLedger.Settlement settlement = ledger.record(runId, player.getUniqueId(), dungeonName,
+                                                               firstCompletion, System.currentTimeMillis(), fanOutMillis);
+        if (settlement == null) {
+            DUPLICATES.increment();
+            return false;
+        }
 
-        // Calculate essence reward
-        double essenceReward = calculateEssenceReward(player, dungeonName, firstCompletion);
+        // Counted now, whether or not the player is still online to be paid
+        dataManager.incrementCompletion(player.getUniqueId(), dungeonName);
 
-        // Award essence
-        if (essenceIntegration != null && essenceIntegration.isEnabled() && essenceReward > 0) {
-            essenceIntegration.awardEssence(player, essenceReward);
-            player.sendMessage(String.format("§a+ %.0f Essence", essenceReward));
+        payouts.addLast(new Payout(player, settlement));
+        ensureRunning();
+        return true;
+    }
 
-            if (firstCompletion) {
-                double bonusAmount = essenceReward * getBonusMultiplier(dungeonName);
-                if (bonusAmount > 0) {
-                    player.sendMessage(String.format("§e+ %.0f Essence §7(First Completion Bonus!)", bonusAmount));
+    /**
+     * Queue completions a player was not paid for before leaving.
+     */
+    public void releaseUnpaid(Player player) {
+        List<SettlementLedger.Settlement> unpaid = ledger.unpaidFor(player.getUniqueId());
+        for (SettlementLedger.Settlement settlement : unpaid) {
+            // Skip any still queued from before they left
+            boolean queued = false;
+            for (Payout payout : payouts) {
+                if (payout.settlement == settlement) {
+                    queued = true;
+                    break;
                 }
             }
+            if (!queued) {
+                payouts.addLast(new Payout(player, settlement));
+            }
+        }
+        if (!payouts.isEmpty()) {
+            ensureRunning();
         }
+    }
 
-        // Track completion
-        dataManager.incrementCompletion(player.getUniqueId(), dungeonName);
+    private void tick() {
+        SettlementSettings settings = configManager.getSnapshot().getSettlementSettings();
+        long start = BATCH_TIMER.start();
+        try {
+            ledger.runCompleted(); // Deposits for batches whose paid marks are now on disk
+            payBatch(settings.payoutsPerTick());
+            ledger.prune(System.currentTimeMillis() - settings.dedupeWindowSeconds() * 1000L);
+            ledger.flush();
+        } finally {
+            BATCH_TIMER.stop(start);
+        }
 
-        // Completion message
-        String dungeonDisplayName = configManager.getConfig().getString(
-            "dungeons." + dungeonName + ".display_name", dungeonName
-        );
-        player.sendMessage(String.format("§a§l✓ %s Complete! §a%.0f essence earned",
-                                        dungeonDisplayName, essenceReward));
+        if (payouts.isEmpty() && !ledger.hasPaymentsInFlight()) {
+            stop();
+        }
     }
 
     /**
-     * Calculate essence reward for completing a dungeon.
+     * Pay up to limit queued completions, grouped by player, once the ledger has marked them paid.
+     * Completions of players who have left stay unpaid in the ledger.
      */
-    private double calculateEssenceReward(Player player, String dungeonName, boolean firstCompletion) {
-        String basePath = "dungeons." + dungeonName + ".rewards";
+    private void payBatch(int limit) {
+        Map<Player, List<SettlementLedger.Settlement>> batch = new LinkedHashMap<>();
+        for (int i = 0; i < limit && !payouts.isEmpty(); i++) {
+            Payout payout = payouts.pollFirst();
+            if (payout.settlement.isPaid() || payout.settlement.isPaying() || !payout.player.isOnline()) {
+                continue;
+            }
+            batch.computeIfAbsent(payout.player, player -> new ArrayList<>(1)).add(payout.settlement);
+        }
 
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<SettlementLedger.Settlement> paid = new ArrayList<>();
+        for (List<SettlementLedger.Settlement> settlements : batch.values()) {
+            paid.addAll(settlements);
+        }
+        ledger.markPaid(paid, () -> {
+            for (Map.Entry<Player, List<SettlementLedger.Settlement>> entry : batch.entrySet()) {
+                long start = AWARD_TIMER.start();
+                try {
+                    award(entry.getKey(), entry.getValue());
+                } finally {
+                    AWARD_TIMER.stop(start);
+                }
+            }
+        });
+    }
+
+    private void award(Player player, List<SettlementLedger.Settlement> settlements) {
+        boolean essenceEnabled = essenceIntegration != null && essenceIntegration.isEnabled();
+        double totalEssence = 0;
+        List<String> messages = new ArrayList<>();
+
+        for (SettlementLedger.Settlement settlement : settlements) {
+            String dungeonName = settlement.getDungeonName();
+            DungeonDefinition dungeon = configManager.getDungeon(dungeonName);
+            if (dungeon == null) {
+                continue; // Removed from config since completion
+            }
+            RewardSpec rewards = dungeon.rewards();
+
+            boolean firstCompletion = settlement.isFirst();
+
+            // Calculate essence reward
+            double essenceReward = calculateEssenceReward(rewards, firstCompletion);
+
+            if (essenceEnabled && essenceReward > 0) {
+                totalEssence += essenceReward;
+                messages.add(String.format("§a+ %.0f Essence", essenceReward));
+
+                if (firstCompletion) {
+                    double bonusAmount = essenceReward * rewards.completionBonus();
+                    if (bonusAmount > 0) {
+                        messages.add(String.format("§e+ %.0f Essence §7(First Completion Bonus!)", bonusAmount));
+                    }
+                }
+            }
+
+            COMPLETIONS.increment();
+
+            // Completion message
+            messages.add(String.format("§a§l✓ %s Complete! §a%.0f essence earned",
+                                       dungeon.displayName(), essenceReward));
+        }
+
+        // One deposit for everything this player is owed this tick
+        if (totalEssence > 0) {
+            essenceIntegration.awardEssence(player, totalEssence);
+        }
+        for (String message : messages) {
+            player.sendMessage(message);
+        }
+    }
+
+    /**
+     * Calculate essence reward for completing a dungeon.
+     */
+    private double calculateEssenceReward(RewardSpec rewards, boolean firstCompletion) {
         // Base reward
-        double baseReward = configManager.getConfig().getDouble(basePath + ".essence_base", 0);
+        double baseReward = rewards.essenceBase();
 
         // Add variance
-        double variance = configManager.getConfig().getDouble(basePath + ".essence_variance", 0);
+        double variance = rewards.essenceVariance();
         double actualReward = baseReward + (Math.random() * variance * 2) - variance;
 
         // Apply first completion bonus
         if (firstCompletion) {
-            double bonusMultiplier = getBonusMultiplier(dungeonName);
-            actualReward += (baseReward * bonusMultiplier);
+            actualReward += (baseReward * rewards.completionBonus());
         }
 
         return Math.max(0, actualReward);
     }
 
+    private void ensureRunning() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
     /**
-     * Get the completion bonus multiplier for a dungeon.
+     * A completion waiting to be paid, with the player it is paid to.
      */
-    private double getBonusMultiplier(String dungeonName) {
-        return configManager.getConfig().getDouble(
-            "dungeons." + dungeonName + ".rewards.completion_bonus", 0.0
-        );
+    private record Payout(Player player, SettlementLedger.Settlement settlement) {
     }
 }
@@ -0,0 +1,532 @@
+package dev.ked.stormcraft.dungeons.reward;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Record of dungeon completions and whether their rewards have been paid, in settlements.yml.
+ *
+ * A completion is recorded once per run and player; repeats are rejected, so a run reported through
+ * several events is paid once. Paid settlements are kept for the dedupe window and then dropped;
+ * unpaid ones are kept until paid, across restarts. Changes are written at most once per
+ * {@link #flush()}, on a background thread and coalesced: only the latest state is written,
+ * atomically. Main thread only, apart from the writer, which does all file I/O after startup.
+ *
+ * Payments cannot wait for that write, so {@link #markPaid} has the writer append the settlements
+ * being paid to settlements-paid.log and force it to disk, several batches per force when they
+ * queue up. Only then does {@link #runCompleted()} mark them paid and run the payout on the main
+ * thread. {@link #load()} applies the log over settlements.yml, and the log is emptied whenever a
+ * write of settlements.yml already carries every paid mark in it. A crash after the log write but
+ * before the payout loses that payout rather than paying it twice.
+ */
+final class SettlementLedger {
+
+    private final File file;
+    private final File paidLog;
+    private final Logger logger;
+    private final List<Settlement> settlements; // Completion order
+    private final Set<String> runKeys;          // runId/player of every kept settlement with a run id
+    private final Map<String, Settlement> latest; // player/dungeon -> most recent settlement
+    private final AtomicReference<Snapshot> pending;
+    private final ExecutorService writer;
+    private boolean dirty;
+
+    // Payments: main thread -> writer -> main thread
+    private final ConcurrentLinkedQueue<PaidBatch> paidQueue;
+    private final AtomicBoolean paidWriteQueued;
+    private final ConcurrentLinkedQueue<Runnable> completed;
+    private int paymentsInFlight;   // Main thread: batches handed to markPaid and not yet completed
+    private long paidBatchesApplied; // Main thread: batches whose paid flags are set
+    private long paidBatchesLogged;  // Writer: batches appended to the paid log since it was last emptied
+    private long paidBatchesBase;    // Writer: paidBatchesApplied when the paid log was last emptied
+    private FileChannel paidChannel; // Writer: opened on the first payment
+    private volatile boolean writeFailed;
+
+    SettlementLedger(File dataFolder, Logger logger) {
+        this.file = new File(dataFolder, "settlements.yml");
+        this.paidLog = new File(dataFolder, "settlements-paid.log");
+        this.logger = logger;
+        this.settlements = new ArrayList<>();
+        this.runKeys = new HashSet<>();
+        this.latest = new HashMap<>();
+        this.pending = new AtomicReference<>();
+        this.paidQueue = new ConcurrentLinkedQueue<>();
+        this.paidWriteQueued = new AtomicBoolean();
+        this.completed = new ConcurrentLinkedQueue<>();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "StormcraftDungeons-SettlementLedger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Read the settlements left by the previous run. Returns the unpaid ones.
+     */
+    List<Settlement> load() {
+        if (file.exists()) {
+            YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+            for (Map<?, ?> map : yaml.getMapList("settlements")) {
+                try {
+                    add(Settlement.read(map));
+                } catch (IllegalArgumentException | NullPointerException | ClassCastException e) {
+                    logger.warning("Skipping corrupt settlement ledger entry " + map + ": " + e.getMessage());
+                }
+            }
+        }
+
+        if (paidLog.exists()) {
+            applyPaidLog();
+        }
+
+        List<Settlement> unpaid = new ArrayList<>();
+        for (Settlement settlement : settlements) {
+            if (!settlement.isPaid()) {
+                unpaid.add(settlement);
+            }
+        }
+        return unpaid;
+    }
+
+    /**
+     * Mark settlements paid from the log left by a run that stopped before its last ledger write,
+     * then write the ledger so the log can go.
+     */
+    private void applyPaidLog() {
+        Set<String> paidKeys = new HashSet<>();
+        try {
+            paidKeys.addAll(Files.readAllLines(paidLog.toPath(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to read " + paidLog.getName() + "; unpaid settlements may be paid again", e);
+            return;
+        }
+
+        for (Settlement settlement : settlements) {
+            if (paidKeys.contains(settlement.key())) {
+                settlement.paid = true;
+            }
+        }
+
+        pending.set(snapshot());
+        writePending();
+        if (!writeFailed) {
+            try {
+                Files.deleteIfExists(paidLog.toPath());
+            } catch (IOException e) {
+                logger.warning("Failed to delete " + paidLog.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Record a completion, or return null if it repeats one already recorded. Completions with a
+     * run id repeat only completions of that run. Without one, they repeat a completion of the same
+     * dungeon by the same player within the fan-out window, which only needs to cover the several
+     * completion events MythicDungeons fires for one run.
+     */
+    Settlement record(String runId, UUID playerId, String dungeonName, boolean first, long now, long fanOutMillis) {
+        if (runId != null && runKeys.contains(runKey(runId, playerId))) {
+            return null;
+        }
+
+        Settlement previous = latest.get(playerKey(playerId, dungeonName));
+        if (previous != null && now - previous.getCompletedAt() < fanOutMillis
+                && (runId == null || previous.getRunId() == null)) {
+            return null;
+        }
+
+        Settlement settlement = new Settlement(runId, playerId, dungeonName, now, first, false);
+        add(settlement);
+        dirty = true;
+        return settlement;
+    }
+
+    /**
+     * Mark settlements paid, then run the payout. The mark is forced to disk on the writer first;
+     * the payout runs from {@link #runCompleted()} once it is. If the mark cannot be written the
+     * settlements stay unpaid and the payout never runs.
+     */
+    void markPaid(List<Settlement> paid, Runnable payout) {
+        for (Settlement settlement : paid) {
+            settlement.paying = true;
+        }
+        paymentsInFlight++;
+
+        paidQueue.add(new PaidBatch(List.copyOf(paid), payout));
+        if (paidWriteQueued.compareAndSet(false, true)) {
+            writer.execute(this::writePaid);
+        }
+    }
+
+    /**
+     * Whether payouts are waiting for their paid marks to be written.
+     */
+    boolean hasPaymentsInFlight() {
+        return paymentsInFlight > 0;
+    }
+
+    /**
+     * Main thread: apply paid marks the writer has finished with and run their payouts.
+     */
+    void runCompleted() {
+        Runnable task;
+        while ((task = completed.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * Queue a write if anything changed since the last one.
+     */
+    void flush() {
+        if (dirty) {
+            dirty = false;
+            scheduleWrite();
+        }
+    }
+
+    /**
+     * Unpaid settlements for one player, oldest first. Settlements being paid are left out.
+     */
+    List<Settlement> unpaidFor(UUID playerId) {
+        List<Settlement> unpaid = new ArrayList<>(0);
+        for (Settlement settlement : settlements) {
+            if (!settlement.isPaid() && !settlement.isPaying() && settlement.getPlayerId().equals(playerId)) {
+                unpaid.add(settlement);
+            }
+        }
+        return unpaid;
+    }
+
+    /**
+     * Drop paid settlements completed before the cutoff. They can no longer be repeated.
+     */
+    void prune(long cutoff) {
+        boolean removed = false;
+        Iterator<Settlement> iterator = settlements.iterator();
+        while (iterator.hasNext()) {
+            Settlement settlement = iterator.next();
+            if (settlement.getCompletedAt() >= cutoff) {
+                break; // Completion order
+            }
+            if (!settlement.isPaid()) {
+                continue;
+            }
+
+            iterator.remove();
+            removed = true;
+            if (settlement.getRunId() != null) {
+                runKeys.remove(runKey(settlement.getRunId(), settlement.getPlayerId()));
+            }
+            latest.remove(playerKey(settlement.getPlayerId(), settlement.getDungeonName()), settlement);
+        }
+
+        if (removed) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Wait for outstanding paid marks and run their payouts, write the final state and stop the
+     * writer. Called on the main thread while the plugin is disabled, so nothing is scheduled.
+     */
+    void close() {
+        try {
+            writer.submit(() -> { }).get(10, TimeUnit.SECONDS); // Behind any queued paid marks
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warning("Settlement ledger writer did not finish paid marks in time; those payouts are skipped");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        runCompleted();
+
+        scheduleWrite();
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warning("Settlement ledger writer did not finish in time");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // The writer has stopped, so its state is safe to read here
+        try {
+            if (paidChannel != null) {
+                paidChannel.close();
+            }
+            if (!writeFailed && paidBatchesLogged == 0) {
+                Files.deleteIfExists(paidLog.toPath());
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to close " + paidLog.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private void add(Settlement settlement) {
+        settlements.add(settlement);
+        if (settlement.getRunId() != null) {
+            runKeys.add(runKey(settlement.getRunId(), settlement.getPlayerId()));
+        }
+        latest.merge(playerKey(settlement.getPlayerId(), settlement.getDungeonName()), settlement,
+                     (old, added) -> added.getCompletedAt() >= old.getCompletedAt() ? added : old);
+    }
+
+    private void scheduleWrite() {
+        // Only submit when no write is waiting; a waiting write will pick up this snapshot instead
+        if (pending.getAndSet(snapshot()) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Copy what the writer needs: the settlements themselves are immutable apart from the paid
+     * flag, so only the references and the flags are copied here; the YAML is built on the writer.
+     */
+    private Snapshot snapshot() {
+        Settlement[] copy = settlements.toArray(new Settlement[0]);
+        boolean[] paid = new boolean[copy.length];
+        for (int i = 0; i < copy.length; i++) {
+            paid[i] = copy[i].isPaid();
+        }
+        return new Snapshot(copy, paid, paidBatchesApplied);
+    }
+
+    /**
+     * Writer: append every queued paid mark with one force, then hand the payouts to the main thread.
+     */
+    private void writePaid() {
+        paidWriteQueued.set(false);
+
+        List<PaidBatch> batches = new ArrayList<>();
+        PaidBatch batch;
+        while ((batch = paidQueue.poll()) != null) {
+            batches.add(batch);
+        }
+        if (batches.isEmpty()) {
+            return;
+        }
+
+        StringBuilder lines = new StringBuilder(batches.size() * 80);
+        for (PaidBatch paid : batches) {
+            for (Settlement settlement : paid.settlements()) {
+                lines.append(settlement.key()).append('\n');
+            }
+        }
+
+        try {
+            if (paidChannel == null) {
+                paidChannel = FileChannel.open(paidLog.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                paidChannel.write(buffer);
+            }
+            paidChannel.force(false);
+        } catch (IOException e) {
+            // Left unpaid; paid when the player next joins
+            logger.log(Level.SEVERE, "Failed to mark settlements paid, not paying them", e);
+            completed.add(() -> {
+                for (PaidBatch failed : batches) {
+                    for (Settlement settlement : failed.settlements()) {
+                        settlement.paying = false;
+                    }
+                    paymentsInFlight--;
+                }
+            });
+            return;
+        }
+
+        paidBatchesLogged += batches.size();
+        completed.add(() -> {
+            for (PaidBatch paid : batches) {
+                for (Settlement settlement : paid.settlements()) {
+                    settlement.paying = false;
+                    settlement.paid = true;
+                }
+                paymentsInFlight--;
+                paidBatchesApplied++;
+                dirty = true;
+                paid.payout().run();
+            }
+        });
+    }
+
+    private void writePending() {
+        Snapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+
+        try {
+            if (snapshot.settlements().length == 0) {
+                Files.deleteIfExists(file.toPath());
+            } else {
+                List<Map<String, Object>> maps = new ArrayList<>(snapshot.settlements().length);
+                for (int i = 0; i < snapshot.settlements().length; i++) {
+                    maps.add(snapshot.settlements()[i].write(snapshot.paid()[i]));
+                }
+
+                YamlConfiguration yaml = new YamlConfiguration();
+                yaml.set("settlements", maps);
+
+                file.getParentFile().mkdirs();
+                File temp = new File(file.getParentFile(), "settlements.yml.tmp");
+                yaml.save(temp);
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            writeFailed = false;
+        } catch (IOException e) {
+            writeFailed = true;
+            logger.log(Level.SEVERE, "Failed to write settlement ledger", e);
+            return;
+        }
+
+        // Every mark in the paid log is now in settlements.yml
+        if (paidChannel != null && paidBatchesLogged > 0
+                && snapshot.paidBatchesApplied() - paidBatchesBase == paidBatchesLogged) {
+            try {
+                paidChannel.truncate(0);
+                paidChannel.force(false);
+                paidBatchesBase = snapshot.paidBatchesApplied();
+                paidBatchesLogged = 0;
+            } catch (IOException e) {
+                logger.warning("Failed to empty " + paidLog.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static String runKey(String runId, UUID playerId) {
+        return runId + '/' + playerId;
+    }
+
+    private static String playerKey(UUID playerId, String dungeonName) {
+        return playerId.toString() + '/' + dungeonName;
+    }
+
+    /**
+     * Settlements and their paid flags as of one {@link #flush()}, with the number of paid batches
+     * whose flags it includes.
+     */
+    private record Snapshot(Settlement[] settlements, boolean[] paid, long paidBatchesApplied) {
+    }
+
+    /**
+     * Settlements to mark paid, and what to run once they are.
+     */
+    private record PaidBatch(List<Settlement> settlements, Runnable payout) {
+    }
+
+    /**
+     * One player's completion of one dungeon run. The run id is null when the completion event did
+     * not identify the run. Whether it was the player's first completion of the dungeon is decided
+     * when it is recorded, as the completion is counted then.
+     */
+    static final class Settlement {
+
+        private final String runId;
+        private final UUID playerId;
+        private final String dungeonName;
+        private final long completedAt; // Epoch millis
+        private final boolean first;
+        private boolean paid;    // Main thread
+        private boolean paying;  // Main thread: paid mark being written
+
+        private Settlement(String runId, UUID playerId, String dungeonName, long completedAt, boolean first, boolean paid) {
+            this.runId = runId;
+            this.playerId = playerId;
+            this.dungeonName = dungeonName;
+            this.completedAt = completedAt;
+            this.first = first;
+            this.paid = paid;
+        }
+
+        String getRunId() {
+            return runId;
+        }
+
+        UUID getPlayerId() {
+            return playerId;
+        }
+
+        String getDungeonName() {
+            return dungeonName;
+        }
+
+        long getCompletedAt() {
+            return completedAt;
+        }
+
+        boolean isFirst() {
+            return first;
+        }
+
+        boolean isPaid() {
+            return paid;
+        }
+
+        boolean isPaying() {
+            return paying;
+        }
+
+        /**
+         * Identifies the settlement in the paid log.
+         */
+        private String key() {
+            return playerId.toString() + '/' + dungeonName + '/' + completedAt + '/' + (runId != null ? runId : "");
+        }
+
+        private Map<String, Object> write(boolean paidFlag) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            if (runId != null) {
+                map.put("run", runId);
+            }
+            map.put("player", playerId.toString());
+            map.put("dungeon", dungeonName);
+            map.put("completed_at", completedAt);
+            map.put("first", first);
+            map.put("paid", paidFlag);
+            return map;
+        }
+
+        private static Settlement read(Map<?, ?> map) {
+            Object runId = map.get("run");
+            return new Settlement(runId != null ? runId.toString() : null,
+                                  UUID.fromString(map.get("player").toString()),
+                                  map.get("dungeon").toString(),
+                                  ((Number) map.get("completed_at")).longValue(),
+                                  Boolean.TRUE.equals(map.get("first")),
+                                  Boolean.TRUE.equals(map.get("paid")));
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package dev.ked.stormcraft.dungeons.spatial;
+
+import dev.ked.stormcraft.dungeons.util.LongHashTable;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Cell-bucketed spatial index keyed by chunk region (4x4 chunks per cell).
+ * Entries are only moved when they cross a cell boundary, and queries only visit
+ * the cells overlapping the search area. Main thread only.
+ */
+public class SpatialGrid<T> {
+
+    /** Cells are 64 blocks (4x4 chunks) wide. */
+    public static final int CELL_SHIFT = 6;
+    public static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    /**
+     * Resolves the current position of an entry. Implementations may write into
+     * and return the scratch location to avoid allocating.
+     */
+    @FunctionalInterface
+    public interface Positioner<T> {
+        Location locate(T value, Location scratch);
+    }
+
+    private final Positioner<T> positioner;
+    private final Map<UUID, LongHashTable<List<T>>> worlds;
+    private final Map<T, Membership> memberships;
+    private final Location scratch;
+
+    public SpatialGrid(Positioner<T> positioner) {
+        this.positioner = positioner;
+        this.worlds = new HashMap<>();
+        this.memberships = new HashMap<>();
+        this.scratch = new Location(null, 0, 0, 0);
+    }
+
+    /**
+     * Insert or move an entry to the cell containing the given location.
+     * Does nothing if the entry is already in that cell.
+     */
+    public void update(T value, Location location) {
+        update(value, location.getWorld(), location.getBlockX(), location.getBlockZ());
+    }
+
+    /**
+     * Insert or move an entry to the cell containing the given block column.
+     */
+    public void update(T value, World world, int blockX, int blockZ) {
+        UUID worldId = world.getUID();
+        long cell = cellKey(blockX >> CELL_SHIFT, blockZ >> CELL_SHIFT);
+
+        Membership membership = memberships.get(value);
+        if (membership != null) {
+            if (membership.cell == cell && membership.worldId.equals(worldId)) {
+                return;
+            }
+            removeFromCell(value, membership);
+            membership.worldId = worldId;
+            membership.cell = cell;
+        } else {
+            memberships.put(value, new Membership(worldId, cell));
+        }
+
+        LongHashTable<List<T>> cells = worlds.computeIfAbsent(worldId, id -> new LongHashTable<>());
+        List<T> bucket = cells.get(cell);
+        if (bucket == null) {
+            bucket = new ArrayList<>(4);
+            cells.put(cell, bucket);
+        }
+        bucket.add(value);
+    }
+
+    /**
+     * Remove an entry from the grid.
+     */
+    public void remove(T value) {
+        Membership membership = memberships.remove(value);
+        if (membership != null) {
+            removeFromCell(value, membership);
+        }
+    }
+
+    /**
+     * Remove every entry from the grid.
+     */
+    public void clear() {
+        worlds.clear();
+        memberships.clear();
+    }
+
+    public int size() {
+        return memberships.size();
+    }
+
+    /**
+     * Visit every entry within the given radius of a location (squared distance, same world only).
+     */
+    public void forEachWithin(Location center, double radius, Consumer<? super T> action) {
+        LongHashTable<List<T>> cells = worlds.get(center.getWorld().getUID());
+        if (cells == null) {
+            return;
+        }
+
+        double radiusSquared = radius * radius;
+        int minCellX = ((int) Math.floor(center.getX() - radius)) >> CELL_SHIFT;
+        int maxCellX = ((int) Math.floor(center.getX() + radius)) >> CELL_SHIFT;
+        int minCellZ = ((int) Math.floor(center.getZ() - radius)) >> CELL_SHIFT;
+        int maxCellZ = ((int) Math.floor(center.getZ() + radius)) >> CELL_SHIFT;
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                List<T> bucket = cells.get(cellKey(cellX, cellZ));
+                if (bucket == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < bucket.size(); i++) {
+                    T value = bucket.get(i);
+                    if (distanceSquared(value, center) <= radiusSquared) {
+                        action.accept(value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Collect every entry within the given radius of a location.
+     */
+    public List<T> findWithin(Location center, double radius) {
+        List<T> results = new ArrayList<>();
+        forEachWithin(center, radius, results::add);
+        return results;
+    }
+
+    /**
+     * Find the entry nearest to a location in the same world, searching outward ring by ring.
+     * Returns null if the world has no entries.
+     */
+    public T nearest(Location center) {
+        LongHashTable<List<T>> cells = worlds.get(center.getWorld().getUID());
+        if (cells == null || cells.isEmpty()) {
+            return null;
+        }
+
+        int originX = center.getBlockX() >> CELL_SHIFT;
+        int originZ = center.getBlockZ() >> CELL_SHIFT;
+        int occupiedCells = cells.size();
+
+        T best = null;
+        double bestDistanceSquared = Double.MAX_VALUE;
+        int visitedCells = 0;
+
+        for (int ring = 0; ; ring++) {
+            // Sparse worlds: once the ring is much larger than the occupied cell count, scan the cells directly
+            long ringArea = (2L * ring + 1) * (2L * ring + 1);
+            if (ringArea > occupiedCells * 4L) {
+                return nearestByScan(cells, center);
+            }
+
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dz = -ring; dz <= ring; dz++) {
+                    if (Math.abs(dx) != ring && Math.abs(dz) != ring) {
+                        continue; // Interior cells were visited by earlier rings
+                    }
+
+                    List<T> bucket = cells.get(cellKey(originX + dx, originZ + dz));
+                    if (bucket == null) {
+                        continue;
+                    }
+                    visitedCells++;
+
+                    for (int i = 0; i < bucket.size(); i++) {
+                        T value = bucket.get(i);
+                        double distanceSquared = distanceSquared(value, center);
+                        if (distanceSquared < bestDistanceSquared) {
+                            best = value;
+                            bestDistanceSquared = distanceSquared;
+                        }
+                    }
+                }
+            }
+
+            // Anything in the next ring is at least ring * CELL_SIZE blocks away
+            double ringReach = (double) ring * CELL_SIZE;
+            if (visitedCells >= occupiedCells || (best != null && bestDistanceSquared <= ringReach * ringReach)) {
+                return best;
+            }
+        }
+    }
+
+    private T nearestByScan(LongHashTable<List<T>> cells, Location center) {
+        Object[] best = new Object[1];
+        double[] bestDistanceSquared = {Double.MAX_VALUE};
+
+        cells.forEachKey(cell -> {
+            List<T> bucket = cells.get(cell);
+            for (int i = 0; i < bucket.size(); i++) {
+                T value = bucket.get(i);
+                double distanceSquared = distanceSquared(value, center);
+                if (distanceSquared < bestDistanceSquared[0]) {
+                    best[0] = value;
+                    bestDistanceSquared[0] = distanceSquared;
+                }
+            }
+        });
+
+        @SuppressWarnings("unchecked")
+        T result = (T) best[0];
+        return result;
+    }
+
+    private double distanceSquared(T value, Location center) {
+        Location position = positioner.locate(value, scratch);
+        double dx = position.getX() - center.getX();
+        double dy = position.getY() - center.getY();
+        double dz = position.getZ() - center.getZ();
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private void removeFromCell(T value, Membership membership) {
+        LongHashTable<List<T>> cells = worlds.get(membership.worldId);
+        if (cells == null) {
+            return;
+        }
+
+        List<T> bucket = cells.get(membership.cell);
+        if (bucket == null) {
+            return;
+        }
+
+        bucket.remove(value);
+        if (bucket.isEmpty()) {
+            cells.remove(membership.cell);
+            if (cells.isEmpty()) {
+                worlds.remove(membership.worldId);
+            }
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static final class Membership {
+        private UUID worldId;
+        private long cell;
+
+        private Membership(UUID worldId, long cell) {
+            this.worldId = worldId;
+            this.cell = cell;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package dev.ked.stormcraft.dungeons.storm;
+
+import dev.ked.stormcraft.dungeons.integration.StormcraftIntegration;
+import dev.ked.stormcraft.model.TravelingStorm;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads Stormcraft's active storms at most once per tick and keeps a {@link TrackedStorm} for each,
+ * with a stable id, cached position and intensity. Storms that disappear or expire are marked
+ * inactive and dropped. Main thread only.
+ */
+public class StormTracker {
+
+    private final StormcraftIntegration stormcraftIntegration;
+
+    // Keyed by identity: TravelingStorm does not override equals/hashCode
+    private final Map<TravelingStorm, TrackedStorm> tracked = new IdentityHashMap<>();
+    private final List<TrackedStorm> active = new ArrayList<>();
+    private final List<TrackedStorm> activeView = Collections.unmodifiableList(active);
+
+    private long nextId = 1;
+    private int syncedTick = -1;
+
+    public StormTracker(StormcraftIntegration stormcraftIntegration) {
+        this.stormcraftIntegration = stormcraftIntegration;
+    }
+
+    /**
+     * Get the active storms for this tick. The returned list is a live view; do not keep it.
+     */
+    public List<TrackedStorm> getStorms() {
+        sync();
+        return activeView;
+    }
+
+    /**
+     * Refresh the snapshot if it was taken on an earlier tick.
+     */
+    public void sync() {
+        int tick = Bukkit.getCurrentTick();
+        if (tick == syncedTick) {
+            return;
+        }
+        syncedTick = tick;
+
+        active.clear();
+        for (TravelingStorm storm : stormcraftIntegration.getActiveStorms()) {
+            if (storm.isExpired()) {
+                continue;
+            }
+
+            TrackedStorm entry = tracked.get(storm);
+            if (entry == null) {
+                entry = new TrackedStorm(nextId++);
+                tracked.put(storm, entry);
+            }
+
+            entry.update(storm.getCurrentLocation(), stormcraftIntegration.getStormIntensity(storm),
+                         storm.getRemainingSeconds(), storm.getOriginalDurationSeconds());
+            active.add(entry);
+        }
+
+        // Anything not seen this tick has ended
+        if (tracked.size() != active.size()) {
+            Iterator<Map.Entry<TravelingStorm, TrackedStorm>> iterator = tracked.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<TravelingStorm, TrackedStorm> entry = iterator.next();
+                if (entry.getKey().isExpired() || !active.contains(entry.getValue())) {
+                    entry.getValue().end();
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the nearest active storm to a location, or null if none are in its world.
+     */
+    public TrackedStorm getNearestStorm(Location location) {
+        TrackedStorm nearest = null;
+        double nearestDistanceSquared = Double.MAX_VALUE;
+
+        for (TrackedStorm storm : getStorms()) {
+            double distanceSquared = storm.distanceSquared(location);
+            if (distanceSquared < nearestDistanceSquared) {
+                nearest = storm;
+                nearestDistanceSquared = distanceSquared;
+            }
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Check if there are any storms meeting minimum intensity requirements.
+     */
+    public boolean hasQualifyingStorm(int minIntensity) {
+        for (TrackedStorm storm : getStorms()) {
+            if (storm.getIntensity() >= minIntensity) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+package dev.ked.stormcraft.dungeons.storm;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Snapshot of one traveling storm, refreshed by {@link StormTracker} at most once per tick.
+ * Holds no reference to the Stormcraft storm object, so an ended storm can be collected
+ * while portals still point at its entry.
+ */
+public final class TrackedStorm {
+
+    private final long id;
+
+    private World world;
+    private double x;
+    private double y;
+    private double z;
+    private int intensity;
+    private int remainingSeconds;
+    private int originalDurationSeconds;
+    private boolean active;
+
+    // Portal bookkeeping, owned by PortalManager
+    private boolean hasPortal;
+    private boolean spawnScheduled;
+
+    TrackedStorm(long id) {
+        this.id = id;
+        this.active = true;
+    }
+
+    void update(Location location, int intensity, int remainingSeconds, int originalDurationSeconds) {
+        this.world = location.getWorld();
+        this.x = location.getX();
+        this.y = location.getY();
+        this.z = location.getZ();
+        this.intensity = intensity;
+        this.remainingSeconds = remainingSeconds;
+        this.originalDurationSeconds = originalDurationSeconds;
+    }
+
+    void end() {
+        active = false;
+        remainingSeconds = 0;
+        intensity = 0;
+    }
+
+    /**
+     * Stable for the lifetime of the storm and never reused.
+     */
+    public long getId() {
+        return id;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * Get the storm centre as a new Location.
+     */
+    public Location getLocation() {
+        return new Location(world, x, y, z);
+    }
+
+    public int getIntensity() {
+        return intensity;
+    }
+
+    public int getRemainingSeconds() {
+        return remainingSeconds;
+    }
+
+    public int getOriginalDurationSeconds() {
+        return originalDurationSeconds;
+    }
+
+    /**
+     * Squared horizontal and vertical distance to a location, or infinity in another world.
+     */
+    public double distanceSquared(Location location) {
+        if (location.getWorld() != world) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double dx = location.getX() - x;
+        double dy = location.getY() - y;
+        double dz = location.getZ() - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public boolean isWithin(Location location, double radius) {
+        return distanceSquared(location) <= radius * radius;
+    }
+
+    /**
+     * Seconds until intensity first reaches the given value. Intensity ramps linearly
+     * from 0 to 100 over the first half of the storm.
+     */
+    public long secondsUntilIntensity(int targetIntensity) {
+        int elapsed = originalDurationSeconds - remainingSeconds;
+        long reachedAt = (long) Math.ceil(originalDurationSeconds * Math.max(0, targetIntensity) / 200.0);
+        return Math.max(0, reachedAt - elapsed);
+    }
+
+    public boolean hasPortal() {
+        return hasPortal;
+    }
+
+    public void setHasPortal(boolean hasPortal) {
+        this.hasPortal = hasPortal;
+    }
+
+    public boolean isSpawnScheduled() {
+        return spawnScheduled;
+    }
+
+    public void setSpawnScheduled(boolean spawnScheduled) {
+        this.spawnScheduled = spawnScheduled;
+    }
+}
@@ -0,0 +1,165 @@
+package dev.ked.stormcraft.dungeons.sync;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bus over a directory every server can reach (a shared or network mount). Each server appends its
+ * messages to its own {@code <server>.log}, one line each, so no file has more than one writer; a
+ * background thread polls the other servers' logs for lines added since it last looked.
+ *
+ * Logs are read from the start on every startup and older versions are dropped by the receiver,
+ * so they grow without bound; this is a stand-in for a real broker, not a replacement.
+ */
+public final class DirectorySyncBus implements SyncBus {
+
+    private static final String SUFFIX = ".log";
+
+    private final File directory;
+    private final String serverId;
+    private final long pollIntervalMillis;
+    private final Logger logger;
+    private final Map<String, Long> offsets; // Poller thread: bytes of each log already read
+    private ScheduledExecutorService poller;
+    private FileChannel output;
+    private Consumer<SyncMessage> receiver;
+
+    public DirectorySyncBus(File directory, String serverId, long pollIntervalMillis, Logger logger) {
+        this.directory = directory;
+        this.serverId = serverId;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.logger = logger;
+        this.offsets = new HashMap<>();
+    }
+
+    @Override
+    public void start(Consumer<SyncMessage> receiver) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create sync directory " + directory);
+        }
+
+        this.receiver = receiver;
+        this.output = FileChannel.open(new File(directory, serverId + SUFFIX).toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "StormcraftDungeons-SyncPoller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends the batch with a single write and one fsync, so a reader never sees half a batch
+     * followed by nothing.
+     */
+    @Override
+    public void publish(List<SyncMessage> messages) throws IOException {
+        StringBuilder lines = new StringBuilder(messages.size() * 96);
+        for (SyncMessage message : messages) {
+            lines.append(message.encode()).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        synchronized (this) {
+            while (buffer.hasRemaining()) {
+                output.write(buffer);
+            }
+            output.force(false);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (poller != null) {
+            poller.shutdown();
+            try {
+                poller.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            try {
+                if (output != null) {
+                    output.close();
+                }
+            } catch (IOException e) {
+                logger.warning("Failed to close sync log: " + e.getMessage());
+            }
+        }
+    }
+
+    private void poll() {
+        File[] logs = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (logs == null) {
+            return;
+        }
+
+        for (File log : logs) {
+            String origin = log.getName().substring(0, log.getName().length() - SUFFIX.length());
+            if (origin.equals(serverId)) {
+                continue;
+            }
+            try {
+                read(origin, log);
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to read sync log " + log.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Deliver complete lines added to a log since the last read. A line still being written is
+     * left for the next poll.
+     */
+    private void read(String origin, File log) throws IOException {
+        long offset = offsets.getOrDefault(origin, 0L);
+        long length = log.length();
+        if (length < offset) {
+            offset = 0; // Truncated or replaced; versions filter out what was already applied
+        }
+        if (length == offset) {
+            return;
+        }
+
+        byte[] bytes;
+        try (RandomAccessFile file = new RandomAccessFile(log, "r")) {
+            bytes = new byte[(int) Math.min(length - offset, 8L << 20)];
+            file.seek(offset);
+            file.readFully(bytes);
+        }
+
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            String line = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+            start = i + 1;
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                receiver.accept(SyncMessage.decode(line));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Skipping bad line in sync log " + log.getName() + ": " + e.getMessage());
+            }
+        }
+        offsets.put(origin, offset + start);
+    }
+}
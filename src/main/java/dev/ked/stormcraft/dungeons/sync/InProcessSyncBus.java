@@ -0,0 +1,51 @@
+package dev.ked.stormcraft.dungeons.sync;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus between servers running in the same JVM, e.g. several plugin instances in a test harness.
+ * Messages are handed straight to the other members' receivers on the publishing thread.
+ */
+public final class InProcessSyncBus implements SyncBus {
+
+    private static final Map<String, List<InProcessSyncBus>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private volatile Consumer<SyncMessage> receiver;
+
+    public InProcessSyncBus(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void start(Consumer<SyncMessage> receiver) {
+        this.receiver = receiver;
+        CHANNELS.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    @Override
+    public void publish(List<SyncMessage> messages) {
+        for (InProcessSyncBus member : CHANNELS.getOrDefault(channel, List.of())) {
+            Consumer<SyncMessage> target = member.receiver;
+            if (member == this || target == null) {
+                continue;
+            }
+            for (SyncMessage message : messages) {
+                target.accept(message);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        List<InProcessSyncBus> members = CHANNELS.get(channel);
+        if (members != null) {
+            members.remove(this);
+        }
+        receiver = null;
+    }
+}
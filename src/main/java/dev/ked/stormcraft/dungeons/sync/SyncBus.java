@@ -0,0 +1,30 @@
+package dev.ked.stormcraft.dungeons.sync;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Transport between servers. Implementations deliver each server's messages to every other server
+ * in the order they were published; delivering one more than once is fine, as receivers drop
+ * versions they have already applied. A broker-backed bus (Redis, RabbitMQ, ...) only needs these
+ * three methods.
+ */
+public interface SyncBus {
+
+    /**
+     * Start receiving messages published by other servers. The receiver may be called on any thread.
+     */
+    void start(Consumer<SyncMessage> receiver) throws IOException;
+
+    /**
+     * Send messages to every other server. May block; never called on the main thread.
+     * Throws if none of the messages could be sent, in which case they are retried.
+     */
+    void publish(List<SyncMessage> messages) throws IOException;
+
+    /**
+     * Stop receiving and release resources.
+     */
+    void close();
+}
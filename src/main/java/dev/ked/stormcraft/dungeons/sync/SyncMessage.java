@@ -0,0 +1,72 @@
+package dev.ked.stormcraft.dungeons.sync;
+
+import java.util.UUID;
+
+/**
+ * One change sent between servers. Versions increase per origin server, so a receiver can drop
+ * anything at or below the last version it applied from that origin, whatever the transport
+ * redelivers. Encoded as one tab-separated line; names never contain tabs or newlines.
+ *
+ * @param subject the player for {@link Type#COMPLETIONS}, the portal otherwise
+ * @param amount  completions, for {@link Type#COMPLETIONS} only
+ */
+public record SyncMessage(
+    Type type,
+    String origin,
+    long version,
+    UUID subject,
+    String dungeonName,
+    int amount,
+    String world,
+    int x,
+    int y,
+    int z
+) {
+
+    public enum Type {
+        COMPLETIONS,
+        PORTAL_OPENED,
+        PORTAL_CLOSED
+    }
+
+    private static final String FORMAT = "v1";
+
+    static SyncMessage completions(String origin, long version, UUID playerId, String dungeonName, int amount) {
+        return new SyncMessage(Type.COMPLETIONS, origin, version, playerId, dungeonName, amount, "", 0, 0, 0);
+    }
+
+    static SyncMessage portalOpened(String origin, long version, UUID portalId, String dungeonName,
+                                    String world, int x, int y, int z) {
+        return new SyncMessage(Type.PORTAL_OPENED, origin, version, portalId, dungeonName, 0, world, x, y, z);
+    }
+
+    static SyncMessage portalClosed(String origin, long version, UUID portalId, String dungeonName) {
+        return new SyncMessage(Type.PORTAL_CLOSED, origin, version, portalId, dungeonName, 0, "", 0, 0, 0);
+    }
+
+    /**
+     * The same message with a different version, for assigning versions at send time.
+     */
+    SyncMessage withVersion(long newVersion) {
+        return new SyncMessage(type, origin, newVersion, subject, dungeonName, amount, world, x, y, z);
+    }
+
+    public String encode() {
+        return String.join("\t", FORMAT, type.name(), origin, Long.toString(version), subject.toString(),
+                           dungeonName, Integer.toString(amount), world,
+                           Integer.toString(x), Integer.toString(y), Integer.toString(z));
+    }
+
+    /**
+     * Parse an encoded message. Throws IllegalArgumentException for malformed or unknown lines.
+     */
+    public static SyncMessage decode(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 11 || !fields[0].equals(FORMAT)) {
+            throw new IllegalArgumentException("Unrecognised sync message: " + line);
+        }
+        return new SyncMessage(Type.valueOf(fields[1]), fields[2], Long.parseLong(fields[3]),
+                               UUID.fromString(fields[4]), fields[5], Integer.parseInt(fields[6]), fields[7],
+                               Integer.parseInt(fields[8]), Integer.parseInt(fields[9]), Integer.parseInt(fields[10]));
+    }
+}
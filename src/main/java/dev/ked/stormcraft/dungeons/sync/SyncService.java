@@ -0,0 +1,374 @@
+package dev.ked.stormcraft.dungeons.sync;
+
+import dev.ked.stormcraft.dungeons.config.ConfigManager;
+import dev.ked.stormcraft.dungeons.config.SyncSettings;
+import dev.ked.stormcraft.dungeons.data.DataManager;
+import dev.ked.stormcraft.dungeons.metrics.Counter;
+import dev.ked.stormcraft.dungeons.metrics.Metrics;
+import dev.ked.stormcraft.dungeons.metrics.Timer;
+import dev.ked.stormcraft.dungeons.portal.Portal;
+import dev.ked.stormcraft.dungeons.portal.PortalManager;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+/**
+ * Keeps completion counts in step across servers and tells each server about the others' portals.
+ *
+ * Local completions are applied straight away by {@link DataManager} and sent behind: they collect
+ * in an outbox that an async task flushes on an interval, folding repeats for the same player and
+ * dungeon into one message. Each message gets a version higher than any this server sent before,
+ * and received messages are applied on the main thread only if their version is above the last one
+ * applied from their origin; those high-water marks are saved in sync-state.yml. Versions start
+ * from the clock on startup, so a lost state file cannot make a server reuse old versions.
+ * Delivery is at least once across crashes: a crash between applying a message and saving the
+ * state applies it again on restart.
+ */
+public class SyncService {
+
+    private static final Timer FLUSH_TIMER = Metrics.timer("sync_flush", "Sending one batch of sync messages");
+    private static final Counter SENT = Metrics.counter("sync_sent", "Sync messages sent to other servers");
+    private static final Counter RECEIVED = Metrics.counter("sync_received", "Sync messages applied from other servers");
+    private static final Counter STALE = Metrics.counter("sync_stale", "Sync messages dropped as already applied");
+    private static final Counter SEND_ERRORS = Metrics.counter("sync_send_errors", "Failed sync batches, retried on the next flush");
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final SyncSettings settings;
+    private final DataManager dataManager;
+    private final PortalManager portalManager;
+    private final String serverId;
+    private final SyncBus bus;
+    private final File stateFile;
+
+    // Any thread -> flush task
+    private final ConcurrentLinkedQueue<SyncMessage> outbox = new ConcurrentLinkedQueue<>();
+    private final List<SyncMessage> unsent = new ArrayList<>(); // Flush task only: a failed batch, sent first next time
+    private volatile long lastVersion; // Written by the flush task only, after start
+
+    // Receiver threads -> main thread
+    private final ConcurrentLinkedQueue<SyncMessage> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // Main thread
+    private final Map<String, Long> applied = new HashMap<>(); // Locked for snapshots from the flush task
+    private final Map<UUID, SyncMessage> remotePortals = new LinkedHashMap<>();
+
+    private final AtomicReference<Map<String, Long>> pendingState = new AtomicReference<>();
+    private final ExecutorService stateWriter;
+    private BukkitTask flushTask;
+
+    public SyncService(JavaPlugin plugin, ConfigManager configManager, DataManager dataManager, PortalManager portalManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.settings = configManager.getSnapshot().getSyncSettings();
+        this.dataManager = dataManager;
+        this.portalManager = portalManager;
+        this.stateFile = new File(plugin.getDataFolder(), "sync-state.yml");
+        this.serverId = resolveServerId();
+        this.bus = createBus();
+        this.stateWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "StormcraftDungeons-SyncState");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The configured server id, or else one generated on first start and kept in sync-state.yml.
+     * Nothing else about a server is unique across hosts: backends usually share the same port.
+     */
+    private String resolveServerId() {
+        if (!settings.serverId().isBlank()) {
+            return settings.serverId();
+        }
+
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(stateFile);
+        String saved = yaml.getString("server_id", "");
+        if (!saved.isBlank()) {
+            return saved;
+        }
+
+        String generated = "server-" + UUID.randomUUID().toString().substring(0, 8);
+        yaml.set("server_id", generated);
+        try {
+            stateFile.getParentFile().mkdirs();
+            yaml.save(stateFile);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save generated sync server id: " + e.getMessage());
+        }
+        plugin.getLogger().info("Generated sync server id '" + generated + "'; set sync.server_id to choose one");
+        return generated;
+    }
+
+    private SyncBus createBus() {
+        switch (settings.transport()) {
+            case "memory":
+                return new InProcessSyncBus("default");
+            case "directory":
+                return new DirectorySyncBus(resolveDirectory(), serverId, settings.pollIntervalMillis(), plugin.getLogger());
+            default:
+                plugin.getLogger().warning("Unknown sync transport '" + settings.transport() + "', using directory");
+                return new DirectorySyncBus(resolveDirectory(), serverId, settings.pollIntervalMillis(), plugin.getLogger());
+        }
+    }
+
+    private File resolveDirectory() {
+        File configured = new File(settings.directory());
+        return configured.isAbsolute() ? configured : new File(plugin.getDataFolder(), settings.directory());
+    }
+
+    /**
+     * Load the saved versions, hook into completions and portals, and start sending and receiving.
+     * Returns false if the bus could not be started, in which case nothing is synced.
+     */
+    public boolean start() {
+        long savedVersion = loadState();
+        lastVersion = Math.max(savedVersion, System.currentTimeMillis() * 1000);
+
+        try {
+            bus.start(this::receive);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to start " + settings.transport() + " sync: " + e.getMessage());
+            return false;
+        }
+
+        dataManager.addLocalCompletionListener((playerId, dungeonName) ->
+            outbox.add(SyncMessage.completions(serverId, 0, playerId, dungeonName, 1)));
+        portalManager.addOpenListener(portal -> outbox.add(SyncMessage.portalOpened(serverId, 0, portal.getId(),
+            portal.getDungeonName(), portal.getWorld().getName(), portal.getLocation().getBlockX(),
+            portal.getLocation().getBlockY(), portal.getLocation().getBlockZ())));
+        portalManager.addCloseListener(portal ->
+            outbox.add(SyncMessage.portalClosed(serverId, 0, portal.getId(), portal.getDungeonName())));
+
+        long intervalTicks = Math.max(1, settings.flushIntervalMillis() / 50);
+        flushTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::flush, intervalTicks, intervalTicks);
+
+        plugin.getLogger().info("Syncing with other servers as '" + serverId + "' over " + settings.transport());
+        return true;
+    }
+
+    /**
+     * Send what is left, save the versions and close the bus.
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        // The bus may block, so the last flush runs on the state writer rather than the main thread;
+        // it is synchronized, so it also waits for a flush already running on the async task
+        try {
+            stateWriter.submit(this::flush).get(10, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            plugin.getLogger().warning("Last sync flush did not finish in time; unsent messages are dropped");
+        } catch (ExecutionException e) {
+            plugin.getLogger().log(Level.WARNING, "Last sync flush failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        bus.close();
+
+        drain();
+        scheduleStateWrite();
+        stateWriter.shutdown();
+        try {
+            if (!stateWriter.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Sync state writer did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    /**
+     * Portals currently open on other servers, as last announced. Main thread only.
+     */
+    public Collection<SyncMessage> getRemotePortals() {
+        return Collections.unmodifiableCollection(remotePortals.values());
+    }
+
+    /**
+     * Async task, or the state writer at shutdown: fold the outbox into one batch, version it and send it.
+     */
+    private synchronized void flush() {
+        if (outbox.isEmpty() && unsent.isEmpty()) {
+            return;
+        }
+
+        long start = FLUSH_TIMER.start();
+        try {
+            if (unsent.isEmpty()) {
+                // Repeated completions of one dungeon by one player become one message
+                Map<String, SyncMessage> folded = new LinkedHashMap<>();
+                SyncMessage message;
+                while ((message = outbox.poll()) != null) {
+                    if (message.type() == SyncMessage.Type.COMPLETIONS) {
+                        folded.merge("c/" + message.subject() + '/' + message.dungeonName(), message,
+                            (first, next) -> SyncMessage.completions(serverId, 0, first.subject(),
+                                first.dungeonName(), first.amount() + next.amount()));
+                    } else {
+                        folded.put("p/" + folded.size(), message);
+                    }
+                }
+                for (SyncMessage pending : folded.values()) {
+                    unsent.add(pending.withVersion(++lastVersion));
+                }
+            }
+
+            bus.publish(unsent);
+            SENT.add(unsent.size());
+            unsent.clear();
+            scheduleStateWrite();
+        } catch (IOException | RuntimeException e) {
+            SEND_ERRORS.increment();
+            plugin.getLogger().log(Level.WARNING, "Failed to send " + unsent.size() + " sync message(s), will retry", e);
+        } finally {
+            FLUSH_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Any thread: queue a message for the main thread.
+     */
+    private void receive(SyncMessage message) {
+        if (message.origin().equals(serverId)) {
+            return;
+        }
+        inbox.add(message);
+        if (drainScheduled.compareAndSet(false, true) && plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        boolean changed = false;
+
+        SyncMessage message;
+        while ((message = inbox.poll()) != null) {
+            long last = applied.getOrDefault(message.origin(), 0L);
+            if (message.version() <= last) {
+                STALE.increment();
+                continue;
+            }
+            synchronized (applied) {
+                applied.put(message.origin(), message.version());
+            }
+            apply(message);
+            RECEIVED.increment();
+            changed = true;
+        }
+
+        if (changed) {
+            scheduleStateWrite();
+        }
+    }
+
+    private void apply(SyncMessage message) {
+        switch (message.type()) {
+            case COMPLETIONS -> dataManager.applyRemoteCompletions(message.subject(), message.dungeonName(), message.amount());
+            case PORTAL_OPENED -> {
+                remotePortals.put(message.subject(), message);
+                if (settings.announceRemotePortals()) {
+                    announceRemotePortal(message);
+                }
+            }
+            case PORTAL_CLOSED -> remotePortals.remove(message.subject());
+        }
+    }
+
+    private void announceRemotePortal(SyncMessage message) {
+        String dungeonDisplayName = configManager.getSnapshot().getDisplayName(message.dungeonName());
+
+        String text = "§6[Dungeons] §fA " + dungeonDisplayName + " §fportal has opened on §e" + message.origin() + "§f!";
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            player.sendMessage(text);
+        }
+    }
+
+    /**
+     * Read the applied versions and this server's last sent version.
+     */
+    private long loadState() {
+        if (!stateFile.exists()) {
+            return 0;
+        }
+
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(stateFile);
+        ConfigurationSection origins = yaml.getConfigurationSection("applied");
+        if (origins != null) {
+            for (String origin : origins.getKeys(false)) {
+                applied.put(origin, origins.getLong(origin));
+            }
+        }
+        return yaml.getLong("last_sent", 0);
+    }
+
+    /**
+     * Main thread or flush task: write the applied versions and last sent version in the background.
+     */
+    private void scheduleStateWrite() {
+        Map<String, Long> snapshot;
+        synchronized (applied) {
+            snapshot = new HashMap<>(applied);
+        }
+        snapshot.put("", lastVersion); // Own entry, see writeState
+
+        // Only submit when no write is waiting; a waiting write will pick up this snapshot instead
+        if (pendingState.getAndSet(snapshot) == null) {
+            stateWriter.execute(this::writeState);
+        }
+    }
+
+    private void writeState() {
+        Map<String, Long> snapshot = pendingState.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("server_id", serverId);
+        yaml.set("last_sent", snapshot.remove(""));
+        for (Map.Entry<String, Long> entry : snapshot.entrySet()) {
+            yaml.set("applied." + entry.getKey(), entry.getValue());
+        }
+
+        try {
+            stateFile.getParentFile().mkdirs();
+            File temp = new File(stateFile.getParentFile(), "sync-state.yml.tmp");
+            yaml.save(temp);
+            Files.move(temp.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to write sync state", e);
+        }
+    }
+}